@@ -0,0 +1,95 @@
+package com.ecommerce.benchmarks.events;
+
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.codec.OrderEventDeserializer;
+import com.ecommerce.common.events.codec.OrderEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value serde cost of an {@link OrderCreatedEvent}, the largest saga event, as configured
+ * in the services: Spring's {@link JsonSerializer}/{@link JsonDeserializer} with type headers,
+ * and the binary codec behind {@link OrderEventSerializer}/{@link OrderEventDeserializer}.
+ * Allocations are reported by the gc profiler as {@code gc.alloc.rate.norm} bytes per operation.
+ * Payload and header sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderEventSerdeBenchmark {
+
+    private static final String TOPIC = "payment-requests";
+
+    private OrderCreatedEvent event;
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private OrderEventSerializer binarySerializer;
+    private OrderEventDeserializer binaryDeserializer;
+    private RecordHeaders jsonHeaders;
+    private RecordHeaders binaryHeaders;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        event = new OrderCreatedEvent(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(), new BigDecimal("1249.99"));
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        // Keep the type headers on the shared record headers for the next invocation
+        jsonDeserializer.configure(Map.of(
+            JsonDeserializer.TRUSTED_PACKAGES, "com.ecommerce.common.events",
+            JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+        binarySerializer = new OrderEventSerializer(jsonSerializer, true);
+        binaryDeserializer = new OrderEventDeserializer(jsonDeserializer);
+
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binaryHeaders = new RecordHeaders();
+        binary = binarySerializer.serialize(TOPIC, binaryHeaders, event);
+        System.out.printf("%nBytes per event: json=%d + %d header bytes, binary=%d + %d header bytes%n",
+            json.length, headerBytes(jsonHeaders), binary.length, headerBytes(binaryHeaders));
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binaryHeaders, binary);
+    }
+
+    private static int headerBytes(RecordHeaders headers) {
+        int bytes = 0;
+        for (var header : headers) {
+            bytes += header.key().length() + header.value().length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.benchmarks.order;
+
+import com.ecommerce.order.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token and of authenticating one request in {@code JwtAuthenticationFilter}.
+ * <ul>
+ *   <li>{@code generate}: signing a new access token at login</li>
+ *   <li>{@code legacyDoubleParse}: the previous path, validate then extract the subject, each
+ *       building a new key and parser and verifying the signature</li>
+ *   <li>{@code singlePass}: one verification with the prebuilt parser</li>
+ *   <li>{@code cachedVerify}: a repeat token answered from the verified-token cache</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-hs512-signatures-must-be-at-least-64-bytes-long!!";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(SECRET, 3_600_000, 10_000, new SimpleMeterRegistry());
+        token = provider.generateToken("benchmark-user");
+        provider.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return provider.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .build()
+            .parseSignedClaims(token);
+        Claims claims = Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return provider.parseClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public String cachedVerify() {
+        return provider.verify(token).orElseThrow().username();
+    }
+}
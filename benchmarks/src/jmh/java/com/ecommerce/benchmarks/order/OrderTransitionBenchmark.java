@@ -0,0 +1,121 @@
+package com.ecommerce.benchmarks.order;
+
+import com.ecommerce.order.OrderServiceApplication;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.StatusTransition;
+import com.ecommerce.order.service.BatchOrderResult;
+import com.ecommerce.order.service.NewOrder;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderService} status transitions through the real repository SQL: the conditional
+ * UPDATE plus customer summary upsert in one statement, on the Flyway schema with monthly
+ * partitions. Runs against PostgreSQL 17 in Testcontainers (Docker required), since that SQL
+ * uses data-modifying CTEs and {@code ON CONFLICT}, which H2 cannot run.
+ * <ul>
+ *   <li>{@code lifecycle}: PENDING to COMPLETED in three single transitions, as the saga does</li>
+ *   <li>{@code batchedTransitions}: one {@code transitionAll} of 100 orders, as in batch mode;
+ *       reported per transition</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderTransitionBenchmark {
+
+    private static final int BATCH = 100;
+    private static final int POOL = 5_000;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private final List<String> pending = new ArrayList<>();
+    private int next;
+
+    @Setup
+    @SuppressWarnings("resource")
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+        postgres.start();
+        context = new SpringApplicationBuilder(OrderServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "kafka.enabled=false",
+                "spring.kafka.listener.auto-startup=false",
+                "auth.use-database=false",
+                "management.tracing.enabled=false")
+            .run();
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void createOrders() {
+        pending.clear();
+        next = 0;
+        refill();
+    }
+
+    @Benchmark
+    public boolean lifecycle() {
+        String orderId = nextPending();
+        return orderService.transition(orderId, Order.OrderStatus.PAYMENT_PROCESSING)
+            & orderService.transition(orderId, Order.OrderStatus.ERP_PROCESSING)
+            & orderService.transition(orderId, Order.OrderStatus.COMPLETED);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] batchedTransitions() {
+        List<StatusTransition> transitions = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            transitions.add(new StatusTransition(nextPending(), Order.OrderStatus.PAYMENT_PROCESSING));
+        }
+        return orderService.transitionAll(transitions);
+    }
+
+    /** Orders are created outside the measurement; an exhausted pool is refilled inline. */
+    private String nextPending() {
+        if (next == pending.size()) {
+            refill();
+        }
+        return pending.get(next++);
+    }
+
+    private void refill() {
+        List<NewOrder> orders = Collections.nCopies(POOL, new NewOrder("benchmark-customer", new BigDecimal("10.00")));
+        for (int i = 0; i < orders.size(); i += OrderService.MAX_BATCH_SIZE) {
+            BatchOrderResult result = orderService.createOrders(orders.subList(i, Math.min(orders.size(), i + OrderService.MAX_BATCH_SIZE)));
+            result.items().forEach(item -> pending.add(item.orderId()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.benchmarks.payment;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis stand-in backed by a map, so benchmarks measure the idempotency logic itself rather
+ * than the network. Supports the key and string-value operations the payment service uses;
+ * TTLs are accepted and ignored. Its two Lua scripts are emulated by result type: the claim script
+ * returns the prior value, the release script a count.
+ */
+class InMemoryRedisTemplate extends RedisTemplate<String, String> {
+
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = (ValueOperations<String, String>) Proxy.newProxyInstance(
+        ValueOperations.class.getClassLoader(), new Class<?>[] {ValueOperations.class}, (proxy, method, args) ->
+            switch (method.getName()) {
+                case "get" -> values.get((String) args[0]);
+                case "set" -> {
+                    values.put((String) args[0], (String) args[1]);
+                    yield null;
+                }
+                case "setIfAbsent" -> values.putIfAbsent((String) args[0], (String) args[1]) == null;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    @Override
+    public Boolean hasKey(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return values.remove(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        String key = keys.get(0);
+        if (script.getResultType() == String.class) {
+            return (T) values.putIfAbsent(key, (String) args[0]);
+        }
+        return (T) (Long) (values.remove(key, args[0]) ? 1L : 0L);
+    }
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOperations;
+    }
+
+    void clear() {
+        values.clear();
+    }
+}
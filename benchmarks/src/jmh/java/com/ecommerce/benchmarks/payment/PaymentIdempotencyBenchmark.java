@@ -0,0 +1,79 @@
+package com.ecommerce.benchmarks.payment;
+
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.payment.idempotency.PaymentIdempotencyService;
+import com.ecommerce.payment.listener.PaymentEventListener;
+import com.ecommerce.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-key handling of {@link PaymentEventListener#handlePaymentRequest} against
+ * {@link InMemoryRedisTemplate}, with the simulated payment gateway and the response producer replaced by no-ops.
+ * <ul>
+ *   <li>{@code firstDelivery}: a new order, so the key is claimed, the payment runs and the result is recorded</li>
+ *   <li>{@code redelivery}: a duplicate request answered again from the result the claim returns</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentIdempotencyBenchmark {
+
+    private final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+
+    private PaymentEventListener listener;
+    private OrderCreatedEvent duplicate;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        PaymentService noOpGateway = new PaymentService(null, null, null) {
+            @Override
+            public OrderEvent processPayment(OrderCreatedEvent event, long sagaStartedAt) {
+                return new PaymentProcessedEvent(event.getOrderId(), event.getSagaId(), "payment-1");
+            }
+            
+            @Override
+            public void resendResponse(OrderEvent response, long sagaStartedAt) {
+            }
+        };
+        listener = new PaymentEventListener(noOpGateway, new PaymentIdempotencyService(redis, Duration.ofSeconds(60), null),
+            null, null, new SimpleMeterRegistry());
+        duplicate = new OrderCreatedEvent("order-duplicate", "saga-duplicate", "customer-1", new BigDecimal("10.00"));
+        listener.handlePaymentRequest(duplicate, 0);
+    }
+
+    /** Keeps the stand-in from growing without bound across iterations. */
+    @Setup(Level.Iteration)
+    public void resetKeys() {
+        redis.clear();
+        listener.handlePaymentRequest(duplicate, 0);
+    }
+
+    @Benchmark
+    public OrderCreatedEvent firstDelivery() {
+        OrderCreatedEvent event = new OrderCreatedEvent("order-" + sequence++, "saga-1", "customer-1", new BigDecimal("10.00"));
+        listener.handlePaymentRequest(event, 0);
+        return event;
+    }
+
+    @Benchmark
+    public OrderCreatedEvent redelivery() {
+        listener.handlePaymentRequest(duplicate, 0);
+        return duplicate;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks in parallel across keys while keeping strict submission order within a key.
+ * Each key has a chain of futures; a task starts only after the previous task for the same key
+ * has finished, whatever its outcome. Different keys share one worker pool, so parallelism is
+ * bounded by {@code threads}, not by the number of Kafka partitions.
+ *
+ * <p>{@code maxInFlight} bounds queued plus running tasks; {@link #submit} blocks when it is reached.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(int threads, int maxInFlight, String threadNamePrefix) {
+        this(Executors.newFixedThreadPool(threads, namedThreads(threadNamePrefix)), maxInFlight);
+    }
+
+    public KeyOrderedExecutor(ExecutorService workers, int maxInFlight) {
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Variant that starts a virtual thread per task instead of using a fixed pool.
+     * Parallelism is then bounded only by {@code maxInFlight}, which suits tasks that mostly
+     * wait on I/O.
+     */
+    public static KeyOrderedExecutor virtualThreads(int maxInFlight, String threadNamePrefix) {
+        ThreadFactory factory = Thread.ofVirtual().name(threadNamePrefix + "-", 1).factory();
+        return new KeyOrderedExecutor(Executors.newThreadPerTaskExecutor(factory), maxInFlight);
+    }
+
+    /**
+     * Schedules {@code task} after every task previously submitted with the same key.
+     *
+     * @return a future completed with the task's own outcome
+     * @throws InterruptedException if interrupted while waiting for an in-flight slot
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) throws InterruptedException {
+        permits.acquire();
+        CompletableFuture<Void> next;
+        try {
+            next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(task, workers)
+                : tail.exceptionally(ex -> null).thenRunAsync(task, workers));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        // Registered outside compute(): a task that already finished would otherwise
+        // modify the map from inside its own compute call
+        next.whenComplete((result, ex) -> {
+            tails.remove(key, next);
+            permits.release();
+        });
+        return next;
+    }
+
+    /**
+     * Tasks submitted and not yet finished.
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Keys with at least one unfinished task.
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
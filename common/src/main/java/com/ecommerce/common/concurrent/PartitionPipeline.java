@@ -0,0 +1,118 @@
+package com.ecommerce.common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the work in flight per source partition on top of a {@link KeyOrderedExecutor}, so a
+ * consumer can hand records off without blocking its poll thread. When a partition reaches
+ * {@code maxInFlightPerPartition} it is paused through {@link FlowControl}, and it is resumed once
+ * half of that work has finished. A pause only takes effect on the next poll, so a partition can
+ * overshoot the limit by the records already fetched.
+ *
+ * @param <P> partition identifier, e.g. a Kafka {@code TopicPartition}
+ */
+public class PartitionPipeline<P> {
+
+    /**
+     * Stops and restarts fetching from a partition. Called from the submitting thread and from
+     * worker threads, so implementations must be thread-safe.
+     */
+    public interface FlowControl<P> {
+        void pause(P partition);
+
+        void resume(P partition);
+    }
+
+    private final KeyOrderedExecutor executor;
+    private final int maxInFlightPerPartition;
+    private final int resumeBelow;
+    private final FlowControl<P> flowControl;
+    private final ConcurrentHashMap<P, Lane> lanes = new ConcurrentHashMap<>();
+
+    public PartitionPipeline(KeyOrderedExecutor executor, int maxInFlightPerPartition, FlowControl<P> flowControl) {
+        if (maxInFlightPerPartition < 1) {
+            throw new IllegalArgumentException("maxInFlightPerPartition must be positive: " + maxInFlightPerPartition);
+        }
+        this.executor = executor;
+        this.maxInFlightPerPartition = maxInFlightPerPartition;
+        this.resumeBelow = Math.max(1, maxInFlightPerPartition / 2);
+        this.flowControl = flowControl;
+    }
+
+    /**
+     * Runs {@code task} after every task previously submitted with the same key, pausing
+     * {@code partition} if this submission fills it.
+     *
+     * @return a future completed with the task's own outcome, after the partition's count is updated
+     * @throws InterruptedException if interrupted while waiting for a slot in the executor
+     */
+    public CompletableFuture<Void> submit(P partition, String key, Runnable task) throws InterruptedException {
+        Lane lane = lanes.computeIfAbsent(partition, p -> new Lane());
+        lane.started(partition);
+        CompletableFuture<Void> done;
+        try {
+            done = executor.submit(key, task);
+        } catch (InterruptedException | RuntimeException e) {
+            lane.finished(partition);
+            throw e;
+        }
+        // Release the slot before callers see the outcome, so an ack never races a stale count
+        return done.whenComplete((result, ex) -> lane.finished(partition));
+    }
+
+    /**
+     * Tasks submitted for {@code partition} and not yet finished.
+     */
+    public int inFlight(P partition) {
+        Lane lane = lanes.get(partition);
+        return lane == null ? 0 : lane.inFlight();
+    }
+
+    /**
+     * Partitions currently paused because they were full.
+     */
+    public int pausedPartitions() {
+        int paused = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.paused()) {
+                paused++;
+            }
+        }
+        return paused;
+    }
+
+    /**
+     * Count and pause state of one partition. Transitions are made under the lane's lock so that a
+     * pause and the resume that follows it reach {@link FlowControl} in that order.
+     */
+    private final class Lane {
+
+        private int inFlight;
+        private boolean paused;
+
+        synchronized void started(P partition) {
+            inFlight++;
+            if (!paused && inFlight >= maxInFlightPerPartition) {
+                paused = true;
+                flowControl.pause(partition);
+            }
+        }
+
+        synchronized void finished(P partition) {
+            inFlight--;
+            if (paused && inFlight < resumeBelow) {
+                paused = false;
+                flowControl.resume(partition);
+            }
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+
+        synchronized boolean paused() {
+            return paused;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.common.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of keyed deadlines that are usually cancelled before
+ * they fire. Scheduling and cancelling are O(1) and never take a lock; one ticker thread
+ * advances the wheel every {@code tick} and hands expired keys to {@code onExpiry} on
+ * {@code executor}. A deadline fires up to one tick late, never early.
+ *
+ * <p>At most {@code maxPending} keys are tracked; {@link #schedule} returns false beyond that,
+ * so memory stays bounded and the caller needs another way to find those deadlines.
+ * Rescheduling a key replaces its previous deadline.
+ */
+public class TimingWheel<K> implements AutoCloseable {
+
+    private static final class Timeout<K> {
+        final K key;
+        final long deadlineNanos;
+        long rounds;
+        volatile boolean cancelled;
+
+        Timeout(K key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final long tickNanos;
+    private final List<Timeout<K>>[] buckets;
+    private final int mask;
+    private final int maxPending;
+    private final ConcurrentHashMap<K, Timeout<K>> pending = new ConcurrentHashMap<>();
+    private final Queue<Timeout<K>> additions = new ConcurrentLinkedQueue<>();
+    private final Consumer<K> onExpiry;
+    private final Executor executor;
+    private final Thread ticker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int wheelSize, int maxPending, Executor executor, Consumer<K> onExpiry,
+                       String threadName) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = tick.toNanos();
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.maxPending = maxPending;
+        this.executor = executor;
+        this.onExpiry = onExpiry;
+        this.startNanos = System.nanoTime();
+        this.ticker = Thread.ofPlatform().name(threadName).daemon().start(this::run);
+    }
+
+    /**
+     * Fires {@code key} after {@code delay}, replacing any deadline it already has.
+     *
+     * @return false if the wheel is full and the key is not tracked
+     */
+    public boolean schedule(K key, Duration delay) {
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            return false;
+        }
+        Timeout<K> timeout = new Timeout<>(key, System.nanoTime() + delay.toNanos());
+        Timeout<K> previous = pending.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        additions.add(timeout);
+        return true;
+    }
+
+    public void cancel(K key) {
+        Timeout<K> timeout = pending.remove(key);
+        if (timeout != null) {
+            timeout.cancelled = true;
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    private void run() {
+        while (running) {
+            long next = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = next - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            transferAdditions();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferAdditions() {
+        Timeout<K> timeout;
+        while ((timeout = additions.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long ticks = Math.max((timeout.deadlineNanos - startNanos + tickNanos - 1) / tickNanos, tick);
+            timeout.rounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<K>> bucket) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout<K> timeout = bucket.get(i);
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+            } else if (pending.remove(timeout.key, timeout)) {
+                try {
+                    executor.execute(() -> onExpiry.accept(timeout.key));
+                } catch (RuntimeException e) {
+                    System.err.println("Timing wheel could not dispatch expiry of " + timeout.key + ": " + e.getMessage());
+                }
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        ticker.interrupt();
+        ticker.join();
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.common.concurrent;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams JFR {@code jdk.VirtualThreadPinned} events in-process.
+ * A virtual thread is pinned when it blocks inside {@code synchronized} or a native frame: it then
+ * holds its carrier thread, and enough of them at once stall every other virtual thread.
+ *
+ * <p>Each pinning longer than {@code threshold} is passed to the listener with the first
+ * application frame ({@code com.ecommerce.*}), or the top frame if there is none.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.ecommerce.";
+
+    public record Pinning(Duration duration, String threadName, String frame) {}
+
+    private final RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, Consumer<Pinning> listener) {
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> listener.accept(toPinning(event)));
+    }
+
+    public void start() {
+        stream.startAsync();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private static Pinning toPinning(RecordedEvent event) {
+        String threadName = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+        return new Pinning(event.getDuration(), threadName, frameOf(event.getStackTrace()));
+    }
+
+    private static String frameOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame chosen = frames.stream()
+            .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+            .findFirst()
+            .orElse(frames.get(0));
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+            + ":" + chosen.getLineNumber();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.common.config;
+
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Listener infrastructure for records handed to a {@link KeyOrderedExecutor}, directly or through a
+ * {@link com.ecommerce.common.concurrent.PartitionPipeline}. Services {@code @Import} it from their
+ * Kafka consumer configuration and build their executors with {@link #keyOrderedExecutor}.
+ */
+@Configuration
+public class KeyOrderedKafkaConfig {
+
+    /**
+     * Records are acknowledged from worker threads as they complete; with async acks the
+     * container only commits up to the lowest offset that is still in flight.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> keyOrderedListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Executor for one listener, with {@code kafka.key_ordered.*} gauges tagged by {@code listener}.
+     * With virtual threads, max-in-flight alone bounds parallelism and {@code threads} is ignored.
+     */
+    public static KeyOrderedExecutor keyOrderedExecutor(String listener, int threads, int maxInFlight,
+                                                        boolean virtualThreads, MeterRegistry meterRegistry) {
+        KeyOrderedExecutor executor = virtualThreads
+            ? KeyOrderedExecutor.virtualThreads(maxInFlight, listener)
+            : new KeyOrderedExecutor(threads, maxInFlight, listener);
+        Gauge.builder("kafka.key_ordered.in_flight", executor, KeyOrderedExecutor::inFlight)
+            .description("Records handed to the key-ordered executor and not yet finished")
+            .tag("listener", listener)
+            .register(meterRegistry);
+        Gauge.builder("kafka.key_ordered.active_keys", executor, KeyOrderedExecutor::activeKeys)
+            .description("Keys with unfinished records in the key-ordered executor")
+            .tag("listener", listener)
+            .register(meterRegistry);
+        return executor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.common.config;
+
+import com.ecommerce.common.concurrent.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Active in virtual-thread mode ({@code spring.threads.virtual.enabled=true}), where Spring Boot
+ * runs Tomcat requests, Kafka listener containers and task executors on virtual threads.
+ * Reports every pinning of a carrier thread longer than the threshold, so blocking calls under
+ * {@code synchronized} show up before they starve the carrier pool. Shared by all services,
+ * which {@code @Import} it on their application class.
+ */
+@Configuration
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "spring.threads.virtual.enabled",
+    havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(meterRegistry);
+        return new VirtualThreadPinningMonitor(threshold, pinning -> {
+            pinned.record(pinning.duration());
+            System.err.println("Virtual thread " + pinning.threadName() + " pinned for "
+                + pinning.duration().toMillis() + "ms at " + pinning.frame());
+        });
+    }
+}
@@ -0,0 +1,300 @@
+package com.ecommerce.common.events.codec;
+
+import com.ecommerce.common.events.ERPFailedEvent;
+import com.ecommerce.common.events.ERPUpdatedEvent;
+import com.ecommerce.common.events.OrderCancelledEvent;
+import com.ecommerce.common.events.OrderCompletedEvent;
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link OrderEvent}s. The event type and schema version travel in
+ * the {@link #HEADER} record header as two bytes, so the payload holds only field values in a
+ * fixed order: {@code orderId}, {@code sagaId}, then the subtype's fields.
+ * <ul>
+ *   <li>Strings: unsigned varint of the UTF-8 length plus one (0 means null), then the bytes.</li>
+ *   <li>{@code BigDecimal}: a tag (0 null, 1 unscaled value fits a long, 2 larger), the zigzag
+ *       varint scale, then the unscaled value as a zigzag varlong or as length-prefixed bytes.</li>
+ * </ul>
+ *
+ * <p>Evolution: type ids are never reused, and fields are only ever appended in a new schema
+ * version. A decoder reads the fields it knows and ignores trailing bytes from newer versions;
+ * fields missing from older versions stay null.
+ */
+public final class BinaryEventCodec {
+
+    /** Record header holding {@code [typeId, schemaVersion]} of a binary payload. */
+    public static final String HEADER = "event-codec";
+
+    public static final byte SCHEMA_VERSION = 1;
+
+    public static final byte ORDER_CREATED = 1;
+    public static final byte PAYMENT_PROCESSED = 2;
+    public static final byte PAYMENT_FAILED = 3;
+    public static final byte ERP_UPDATED = 4;
+    public static final byte ERP_FAILED = 5;
+    public static final byte ORDER_COMPLETED = 6;
+    public static final byte ORDER_CANCELLED = 7;
+
+    private static final byte DECIMAL_NULL = 0;
+    private static final byte DECIMAL_LONG = 1;
+    private static final byte DECIMAL_BIG = 2;
+
+    private BinaryEventCodec() {}
+
+    public static byte typeId(OrderEvent event) {
+        if (event instanceof OrderCreatedEvent) return ORDER_CREATED;
+        if (event instanceof PaymentProcessedEvent) return PAYMENT_PROCESSED;
+        if (event instanceof PaymentFailedEvent) return PAYMENT_FAILED;
+        if (event instanceof ERPUpdatedEvent) return ERP_UPDATED;
+        if (event instanceof ERPFailedEvent) return ERP_FAILED;
+        if (event instanceof OrderCompletedEvent) return ORDER_COMPLETED;
+        if (event instanceof OrderCancelledEvent) return ORDER_CANCELLED;
+        throw new IllegalArgumentException("No binary type id for " + event.getClass().getName());
+    }
+
+    public static byte[] header(OrderEvent event) {
+        return new byte[] {typeId(event), SCHEMA_VERSION};
+    }
+
+    /**
+     * Encodes the event into a single exactly sized array.
+     */
+    public static byte[] encode(OrderEvent event) {
+        byte[] out = new byte[size(event)];
+        int pos = writeString(out, 0, event.getOrderId());
+        pos = writeString(out, pos, event.getSagaId());
+        if (event instanceof OrderCreatedEvent created) {
+            pos = writeString(out, pos, created.getCustomerId());
+            pos = writeDecimal(out, pos, created.getAmount());
+        } else if (event instanceof PaymentProcessedEvent processed) {
+            pos = writeString(out, pos, processed.getPaymentId());
+        } else if (event instanceof PaymentFailedEvent failed) {
+            pos = writeString(out, pos, failed.getReason());
+        } else if (event instanceof ERPFailedEvent failed) {
+            pos = writeString(out, pos, failed.getReason());
+        } else if (event instanceof OrderCancelledEvent cancelled) {
+            pos = writeString(out, pos, cancelled.getReason());
+        }
+        if (pos != out.length) {
+            throw new IllegalStateException("Encoded " + pos + " bytes, expected " + out.length);
+        }
+        return out;
+    }
+
+    /**
+     * Decodes a payload written with {@code typeId} and {@code version}.
+     *
+     * @throws IllegalArgumentException for unknown type ids, unsupported versions or truncated data
+     */
+    public static OrderEvent decode(byte typeId, byte version, byte[] data) {
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported event schema version " + version);
+        }
+        Reader in = new Reader(data);
+        try {
+            String orderId = in.string();
+            String sagaId = in.string();
+            return switch (typeId) {
+                case ORDER_CREATED -> new OrderCreatedEvent(orderId, sagaId, in.string(), in.decimal());
+                case PAYMENT_PROCESSED -> new PaymentProcessedEvent(orderId, sagaId, in.string());
+                case PAYMENT_FAILED -> new PaymentFailedEvent(orderId, sagaId, in.string());
+                case ERP_UPDATED -> new ERPUpdatedEvent(orderId, sagaId);
+                case ERP_FAILED -> new ERPFailedEvent(orderId, sagaId, in.string());
+                case ORDER_COMPLETED -> new OrderCompletedEvent(orderId, sagaId);
+                case ORDER_CANCELLED -> new OrderCancelledEvent(orderId, sagaId, in.string());
+                default -> throw new IllegalArgumentException("Unknown event type id " + typeId);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated event payload of type " + typeId, e);
+        }
+    }
+
+    static int size(OrderEvent event) {
+        int size = stringSize(event.getOrderId()) + stringSize(event.getSagaId());
+        if (event instanceof OrderCreatedEvent created) {
+            size += stringSize(created.getCustomerId()) + decimalSize(created.getAmount());
+        } else if (event instanceof PaymentProcessedEvent processed) {
+            size += stringSize(processed.getPaymentId());
+        } else if (event instanceof PaymentFailedEvent failed) {
+            size += stringSize(failed.getReason());
+        } else if (event instanceof ERPFailedEvent failed) {
+            size += stringSize(failed.getReason());
+        } else if (event instanceof OrderCancelledEvent cancelled) {
+            size += stringSize(cancelled.getReason());
+        }
+        return size;
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 1;
+        }
+        int length = isAscii(value) ? value.length() : value.getBytes(StandardCharsets.UTF_8).length;
+        return varintSize(length + 1) + length;
+    }
+
+    private static int writeString(byte[] out, int pos, String value) {
+        if (value == null) {
+            out[pos] = 0;
+            return pos + 1;
+        }
+        if (isAscii(value)) {
+            // Ids are ASCII: copy the chars without an intermediate byte array
+            int length = value.length();
+            pos = writeVarint(out, pos, length + 1);
+            for (int i = 0; i < length; i++) {
+                out[pos + i] = (byte) value.charAt(i);
+            }
+            return pos + length;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        pos = writeVarint(out, pos, bytes.length + 1);
+        System.arraycopy(bytes, 0, out, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int decimalSize(BigDecimal value) {
+        if (value == null) {
+            return 1;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        int scaleSize = varintSize(zigzag(value.scale()));
+        if (unscaled.bitLength() < 64) {
+            return 1 + scaleSize + varlongSize(zigzag(unscaled.longValue()));
+        }
+        int length = unscaled.bitLength() / 8 + 1;
+        return 1 + scaleSize + varintSize(length) + length;
+    }
+
+    private static int writeDecimal(byte[] out, int pos, BigDecimal value) {
+        if (value == null) {
+            out[pos] = DECIMAL_NULL;
+            return pos + 1;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out[pos] = DECIMAL_LONG;
+            pos = writeVarint(out, pos + 1, zigzag(value.scale()));
+            return writeVarlong(out, pos, zigzag(unscaled.longValue()));
+        }
+        byte[] bytes = unscaled.toByteArray();
+        out[pos] = DECIMAL_BIG;
+        pos = writeVarint(out, pos + 1, zigzag(value.scale()));
+        pos = writeVarint(out, pos, bytes.length);
+        System.arraycopy(bytes, 0, out, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int varintSize(int value) {
+        return varlongSize(value & 0xFFFFFFFFL);
+    }
+
+    private static int varlongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarint(byte[] out, int pos, int value) {
+        return writeVarlong(out, pos, value & 0xFFFFFFFFL);
+    }
+
+    private static int writeVarlong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Cursor over the payload; decoding allocates only the event, its strings and its amount.
+     */
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        String string() {
+            int length = (int) varlong() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (pos + length > data.length) {
+                throw new ArrayIndexOutOfBoundsException(pos + length);
+            }
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        BigDecimal decimal() {
+            byte tag = data[pos++];
+            if (tag == DECIMAL_NULL) {
+                return null;
+            }
+            int scale = unzigzag((int) varlong());
+            if (tag == DECIMAL_LONG) {
+                return BigDecimal.valueOf(unzigzag(varlong()), scale);
+            }
+            if (tag != DECIMAL_BIG) {
+                throw new IllegalArgumentException("Unknown decimal tag " + tag);
+            }
+            int length = (int) varlong();
+            BigInteger unscaled = new BigInteger(data, pos, length);
+            pos += length;
+            return new BigDecimal(unscaled, scale);
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.common.events.codec;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.util.Map;
+
+final class Delegates {
+
+    private Delegates() {}
+
+    /**
+     * Instantiates the class named by {@code configs[key]}, or {@code defaultClass} if unset.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T create(Map<String, ?> configs, String key, Class<?> type, String defaultClass) {
+        Object configured = configs.get(key);
+        try {
+            Class<?> clazz = configured instanceof Class<?> c ? c
+                : Class.forName(configured != null ? configured.toString() : defaultClass);
+            if (!type.isAssignableFrom(clazz)) {
+                throw new ConfigException(key, clazz.getName(), "not a " + type.getSimpleName());
+            }
+            return (T) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigException(key, configured, "cannot instantiate: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.common.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer for the migration from JSON to binary events: records with a
+ * {@link BinaryEventCodec#HEADER} header are decoded as binary, all others go to the JSON
+ * deserializer named by {@code event.codec.json.deserializer}, configured with the same properties.
+ */
+public class OrderEventDeserializer implements Deserializer<Object> {
+
+    public static final String JSON_DESERIALIZER_CONFIG = "event.codec.json.deserializer";
+
+    private Deserializer<Object> json;
+
+    public OrderEventDeserializer() {}
+
+    public OrderEventDeserializer(Deserializer<Object> json) {
+        this.json = json;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (json == null) {
+            json = Delegates.create(configs, JSON_DESERIALIZER_CONFIG, Deserializer.class,
+                "org.springframework.kafka.support.serializer.JsonDeserializer");
+            json.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        Header codec = headers.lastHeader(BinaryEventCodec.HEADER);
+        if (codec == null || data == null) {
+            return json.deserialize(topic, headers, data);
+        }
+        byte[] value = codec.value();
+        if (value == null || value.length < 2) {
+            throw new SerializationException("Malformed " + BinaryEventCodec.HEADER + " header on " + topic);
+        }
+        try {
+            return BinaryEventCodec.decode(value[0], value[1], data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode binary event from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.common.events.codec;
+
+import com.ecommerce.common.events.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Value serializer that writes {@link OrderEvent}s with {@link BinaryEventCodec} when
+ * {@code event.codec.format=binary}, and everything else (or everything, with the default
+ * {@code json}) with the JSON serializer named by {@code event.codec.json.serializer}.
+ *
+ * <p>Roll out binary in two steps: first deploy {@link OrderEventDeserializer} to every consumer,
+ * then switch producers to {@code binary}.
+ */
+public class OrderEventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "event.codec.format";
+    public static final String JSON_SERIALIZER_CONFIG = "event.codec.json.serializer";
+
+    private Serializer<Object> json;
+    private boolean binary;
+
+    public OrderEventSerializer() {}
+
+    public OrderEventSerializer(Serializer<Object> json, boolean binary) {
+        this.json = json;
+        this.binary = binary;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (json == null) {
+            json = Delegates.create(configs, JSON_SERIALIZER_CONFIG, Serializer.class,
+                "org.springframework.kafka.support.serializer.JsonSerializer");
+            json.configure(configs, isKey);
+            binary = "binary".equals(String.valueOf(configs.get(FORMAT_CONFIG)));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        // No headers to carry the type id: always JSON
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (!binary || !(data instanceof OrderEvent event)) {
+            // A header copied from a binary record (e.g. to a DLQ) would make consumers misread the JSON
+            headers.remove(BinaryEventCodec.HEADER);
+            return json.serialize(topic, headers, data);
+        }
+        try {
+            byte[] payload = BinaryEventCodec.encode(event);
+            headers.remove(BinaryEventCodec.HEADER);
+            headers.add(BinaryEventCodec.HEADER, BinaryEventCodec.header(event));
+            return payload;
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot encode " + data.getClass().getName() + " for " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
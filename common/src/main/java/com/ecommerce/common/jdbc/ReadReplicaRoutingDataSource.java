@@ -0,0 +1,62 @@
+package com.ecommerce.common.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to the replica pool and
+ * everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager opens its connection before the read-only flag is bound to the thread.
+ *
+ * <p>If the replica refuses a connection, the read runs on the primary and the replica is skipped
+ * for {@code retryAfterMs}, so an outage costs one connection timeout rather than one per request.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    enum Route { PRIMARY, REPLICA }
+    
+    private final DataSource primary;
+    private final long retryAfterMs;
+    private final Counter fallbacks;
+    private volatile long replicaDownUntil;
+    
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryAfterMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.retryAfterMs = retryAfterMs;
+        this.fallbacks = Counter.builder("datasource.replica.fallbacks")
+            .description("Read-only connections served by the primary because the replica was unavailable")
+            .register(meterRegistry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && System.currentTimeMillis() >= replicaDownUntil ? Route.REPLICA : Route.PRIMARY;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Route.REPLICA) {
+            return primary.getConnection();
+        }
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.currentTimeMillis() + retryAfterMs;
+            fallbacks.increment();
+            System.err.println("Read replica unavailable, routing reads to primary for " + retryAfterMs + "ms: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.common.saga;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka record headers that time a saga across services, as 8-byte big-endian epoch millis.
+ * {@link #STARTED_AT} is set once, when the order is created, and copied onto every later event
+ * of the saga; {@link #SENT_AT} is restamped by each producer, so the consumer can tell how long
+ * the record waited in Kafka. Both compare wall clocks of different hosts, so they are only as
+ * accurate as the hosts' clock sync.
+ */
+public final class SagaHeaders {
+
+    public static final String STARTED_AT = "saga-started-at";
+    public static final String SENT_AT = "saga-sent-at";
+
+    private SagaHeaders() {}
+
+    /**
+     * Sets {@link #SENT_AT} to now and {@link #STARTED_AT} to {@code startedAt}, replacing earlier
+     * values. An unknown start ({@code 0}) leaves {@link #STARTED_AT} out.
+     */
+    public static void stamp(Headers headers, long startedAt) {
+        if (startedAt > 0) {
+            headers.remove(STARTED_AT);
+            headers.add(STARTED_AT, toBytes(startedAt));
+        }
+        headers.remove(SENT_AT);
+        headers.add(SENT_AT, toBytes(System.currentTimeMillis()));
+    }
+
+    /** @return the saga's start in epoch millis, or 0 if the record doesn't carry it */
+    public static long startedAt(Headers headers) {
+        return read(headers, STARTED_AT);
+    }
+
+    /** @return when the record was produced in epoch millis, or 0 if the record doesn't carry it */
+    public static long sentAt(Headers headers) {
+        return read(headers, SENT_AT);
+    }
+
+    private static long read(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return 0;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    private static byte[] toBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.common.saga;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga latency timers shared by the services, so every stage lands in the same two metrics:
+ * <ul>
+ *   <li>{@code saga.stage{stage, outcome}}: one hop of the saga, for example the time a record
+ *       waited in Kafka or the time a service spent on it.</li>
+ *   <li>{@code saga.end_to_end{outcome}}: order creation to the saga's end.</li>
+ * </ul>
+ * Both publish percentile histograms for {@code histogram_quantile} in Prometheus.
+ */
+public class SagaTimers {
+
+    public static final String STAGE = "saga.stage";
+    public static final String END_TO_END = "saga.end_to_end";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SagaTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void stage(String stage, String outcome, long nanos) {
+        timer(STAGE, stage, outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a stage that began at {@code fromEpochMillis} on another host, read from a
+     * {@link SagaHeaders} header. Does nothing if the start is unknown.
+     */
+    public void stageSince(String stage, String outcome, long fromEpochMillis) {
+        if (fromEpochMillis > 0) {
+            // Clock skew between hosts can make the difference negative
+            long millis = Math.max(0, System.currentTimeMillis() - fromEpochMillis);
+            timer(STAGE, stage, outcome).record(millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records the whole saga from {@code startedAtEpochMillis}. Does nothing if the start is unknown.
+     */
+    public void endToEnd(String outcome, long startedAtEpochMillis) {
+        if (startedAtEpochMillis > 0) {
+            long millis = Math.max(0, System.currentTimeMillis() - startedAtEpochMillis);
+            timer(END_TO_END, null, outcome).record(millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Timer timer(String name, String stage, String outcome) {
+        return timers.computeIfAbsent(name + '|' + stage + '|' + outcome, key -> {
+            Timer.Builder builder = Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                // Bounds the bucket count: sagas take milliseconds to minutes
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10));
+            if (stage != null) {
+                builder.tag("stage", stage);
+            }
+            return builder.register(meterRegistry);
+        });
+    }
+}
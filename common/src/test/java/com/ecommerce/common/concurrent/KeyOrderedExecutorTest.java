@@ -0,0 +1,102 @@
+package com.ecommerce.common.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(8, 1000, "test-worker");
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.close();
+    }
+
+    @Test
+    void submit_ShouldPreserveOrderWithinKey() throws Exception {
+        // Given
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            int value = i;
+            futures.add(executor.submit("order-1", () -> seen.add(value)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertEquals(0, executor.inFlight());
+        assertEquals(0, executor.activeKeys());
+    }
+
+    @Test
+    void submit_ShouldRunDifferentKeysInParallel() throws Exception {
+        // Given - the first key blocks until the second key has run
+        CountDownLatch secondKeyRan = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<Void> first = executor.submit("order-1", () -> {
+            try {
+                assertTrue(secondKeyRan.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.submit("order-2", secondKeyRan::countDown);
+
+        // Then
+        assertDoesNotThrow(() -> first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_ShouldContinueKeyAfterFailedTask() throws Exception {
+        // When
+        CompletableFuture<Void> failed = executor.submit("order-1", () -> {
+            throw new IllegalStateException("poison");
+        });
+        CompletableFuture<Void> next = executor.submit("order-1", () -> { });
+
+        // Then
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    void virtualThreads_ShouldPreserveOrderWithinKeyOnVirtualThreads() throws Exception {
+        // Given
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> virtual = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        try (KeyOrderedExecutor virtualExecutor = KeyOrderedExecutor.virtualThreads(1000, "test-virtual")) {
+            // When
+            for (int i = 0; i < 100; i++) {
+                int value = i;
+                futures.add(virtualExecutor.submit("order-1", () -> {
+                    virtual.add(Thread.currentThread().isVirtual());
+                    seen.add(value);
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertFalse(virtual.contains(false));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.common.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionPipelineTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(8, 1000, "test-worker");
+    private final List<String> flow = Collections.synchronizedList(new ArrayList<>());
+    private final PartitionPipeline<Integer> pipeline = new PartitionPipeline<>(executor, 4,
+        new PartitionPipeline.FlowControl<>() {
+            @Override
+            public void pause(Integer partition) {
+                flow.add("pause-" + partition);
+            }
+
+            @Override
+            public void resume(Integer partition) {
+                flow.add("resume-" + partition);
+            }
+        });
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.close();
+    }
+
+    @Test
+    void submit_ShouldPauseFullPartitionAndResumeWhenHalfDrained() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            futures.add(pipeline.submit(0, "order-" + i, () -> await(release)));
+        }
+
+        // Then
+        assertEquals(List.of("pause-0"), flow);
+        assertEquals(4, pipeline.inFlight(0));
+        assertEquals(1, pipeline.pausedPartitions());
+
+        // When
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of("pause-0", "resume-0"), flow);
+        assertEquals(0, pipeline.inFlight(0));
+        assertEquals(0, pipeline.pausedPartitions());
+    }
+
+    @Test
+    void submit_ShouldLimitEachPartitionSeparately() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(0, "order-a" + i, () -> await(release));
+            pipeline.submit(1, "order-b" + i, () -> await(release));
+        }
+
+        // Then
+        assertTrue(flow.isEmpty());
+        assertEquals(3, pipeline.inFlight(0));
+        assertEquals(3, pipeline.inFlight(1));
+        release.countDown();
+    }
+
+    @Test
+    void submit_ShouldReleaseSlotWhenTaskFails() throws Exception {
+        // When
+        CompletableFuture<Void> failed = pipeline.submit(0, "order-1", () -> {
+            throw new IllegalStateException("poison");
+        });
+
+        // Then
+        assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertEquals(0, pipeline.inFlight(0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
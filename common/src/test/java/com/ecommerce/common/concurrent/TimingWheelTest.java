@@ -0,0 +1,80 @@
+package com.ecommerce.common.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final List<String> expired = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Long> firedAt = new ConcurrentHashMap<>();
+    private final CountDownLatch latch = new CountDownLatch(2);
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(10), 8, 3, Runnable::run, key -> {
+        expired.add(key);
+        firedAt.put(key, System.nanoTime());
+        latch.countDown();
+    }, "test-wheel");
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        wheel.close();
+    }
+
+    @Test
+    void schedule_ShouldFireNotBeforeDeadlineIncludingAfterSeveralRounds() throws InterruptedException {
+        // Given - 8 buckets of 10ms, so 250ms needs three rounds
+        long start = System.nanoTime();
+
+        // When
+        wheel.schedule("short", Duration.ofMillis(30));
+        wheel.schedule("long", Duration.ofMillis(250));
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("short", "long"), expired);
+        assertTrue(firedAt.get("short") - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertTrue(firedAt.get("long") - start >= TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_ShouldPreventExpiryAndRescheduleShouldReplaceDeadline() throws InterruptedException {
+        // Given
+        wheel.schedule("cancelled", Duration.ofMillis(20));
+        wheel.schedule("moved", Duration.ofMillis(20));
+
+        // When
+        wheel.cancel("cancelled");
+        wheel.schedule("moved", Duration.ofMillis(120));
+        wheel.schedule("other", Duration.ofMillis(40));
+
+        // Then
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("other", "moved"), expired);
+    }
+
+    @Test
+    void schedule_ShouldRejectKeysBeyondCapacity() {
+        // When
+        boolean first = wheel.schedule("a", Duration.ofMinutes(1));
+        wheel.schedule("b", Duration.ofMinutes(1));
+        wheel.schedule("c", Duration.ofMinutes(1));
+        boolean overflow = wheel.schedule("d", Duration.ofMinutes(1));
+        boolean reschedule = wheel.schedule("a", Duration.ofMinutes(2));
+
+        // Then
+        assertTrue(first);
+        assertFalse(overflow);
+        assertTrue(reschedule);
+        assertEquals(3, wheel.size());
+    }
+}
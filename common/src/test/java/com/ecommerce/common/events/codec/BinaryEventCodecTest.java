@@ -0,0 +1,91 @@
+package com.ecommerce.common.events.codec;
+
+import com.ecommerce.common.events.ERPUpdatedEvent;
+import com.ecommerce.common.events.OrderCancelledEvent;
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BinaryEventCodecTest {
+
+    @Test
+    void encode_ShouldRoundTripEveryField() {
+        // Given
+        OrderCreatedEvent created = new OrderCreatedEvent("order-1", "saga-1", "customer-\u00fc", new BigDecimal("-1234.50"));
+        OrderCreatedEvent large = new OrderCreatedEvent("order-2", null, null, new BigDecimal("123456789012345678901234567890.123"));
+
+        // When
+        OrderCreatedEvent decoded = (OrderCreatedEvent) roundTrip(created);
+        OrderCreatedEvent decodedLarge = (OrderCreatedEvent) roundTrip(large);
+        OrderEvent updated = roundTrip(new ERPUpdatedEvent("order-3", "saga-3"));
+        OrderCancelledEvent cancelled = (OrderCancelledEvent) roundTrip(new OrderCancelledEvent("order-4", "saga-4", null));
+
+        // Then
+        assertEquals("order-1", decoded.getOrderId());
+        assertEquals("saga-1", decoded.getSagaId());
+        assertEquals("customer-\u00fc", decoded.getCustomerId());
+        assertEquals(new BigDecimal("-1234.50"), decoded.getAmount());
+        assertNull(decodedLarge.getSagaId());
+        assertNull(decodedLarge.getCustomerId());
+        assertEquals(new BigDecimal("123456789012345678901234567890.123"), decodedLarge.getAmount());
+        assertInstanceOf(ERPUpdatedEvent.class, updated);
+        assertNull(cancelled.getReason());
+    }
+
+    @Test
+    void decode_ShouldIgnoreFieldsAppendedByNewerVersions() {
+        // Given
+        byte[] payload = BinaryEventCodec.encode(new PaymentProcessedEvent("order-1", "saga-1", "payment-1"));
+        byte[] newer = Arrays.copyOf(payload, payload.length + 3);
+
+        // When
+        PaymentProcessedEvent decoded = (PaymentProcessedEvent) BinaryEventCodec.decode(
+            BinaryEventCodec.PAYMENT_PROCESSED, (byte) (BinaryEventCodec.SCHEMA_VERSION + 1), newer);
+
+        // Then
+        assertEquals("payment-1", decoded.getPaymentId());
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.decode(
+            BinaryEventCodec.PAYMENT_PROCESSED, BinaryEventCodec.SCHEMA_VERSION, Arrays.copyOf(payload, 5)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deserializer_ShouldReadBinaryAndJsonRecords() {
+        // Given
+        Serializer<Object> jsonSerializer = mock(Serializer.class);
+        Deserializer<Object> jsonDeserializer = mock(Deserializer.class);
+        OrderEventSerializer serializer = new OrderEventSerializer(jsonSerializer, true);
+        OrderEventDeserializer deserializer = new OrderEventDeserializer(jsonDeserializer);
+        PaymentProcessedEvent event = new PaymentProcessedEvent("order-1", "saga-1", "payment-1");
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        when(jsonDeserializer.deserialize(any(), any(), any(byte[].class))).thenReturn(event);
+
+        // When
+        byte[] binary = serializer.serialize("payment-responses", binaryHeaders, event);
+        Object fromBinary = deserializer.deserialize("payment-responses", binaryHeaders, binary);
+        Object fromJson = deserializer.deserialize("payment-responses", jsonHeaders, "{}".getBytes());
+
+        // Then
+        assertEquals("payment-1", ((PaymentProcessedEvent) fromBinary).getPaymentId());
+        assertSame(event, fromJson);
+        verify(jsonDeserializer, times(1)).deserialize(any(), any(), any(byte[].class));
+        verifyNoInteractions(jsonSerializer);
+    }
+
+    private OrderEvent roundTrip(OrderEvent event) {
+        byte[] header = BinaryEventCodec.header(event);
+        return BinaryEventCodec.decode(header[0], header[1], BinaryEventCodec.encode(event));
+    }
+}
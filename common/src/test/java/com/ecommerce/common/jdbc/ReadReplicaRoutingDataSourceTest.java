@@ -0,0 +1,64 @@
+package com.ecommerce.common.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReadReplicaRoutingDataSource routing =
+        new ReadReplicaRoutingDataSource(primary, replica, 60_000, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ShouldRouteReadOnlyTransactionsToReplica() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When
+        Connection write = routing.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection read = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, write);
+        assertSame(replicaConnection, read);
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimaryAndSkipReplicaWhileItIsDown() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, first);
+        assertSame(primaryConnection, second);
+        verify(replica, times(1)).getConnection();
+        assertEquals(1.0, meterRegistry.get("datasource.replica.fallbacks").counter().count());
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.common.saga;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaHeadersTest {
+
+    @Test
+    void stamp_ShouldReplaceSentAtAndKeepStartedAt() {
+        // Given
+        RecordHeaders headers = new RecordHeaders();
+        SagaHeaders.stamp(headers, 1_000L);
+
+        // When - the next hop restamps without knowing the start
+        SagaHeaders.stamp(headers, 0);
+
+        // Then
+        assertEquals(1_000L, SagaHeaders.startedAt(headers));
+        assertTrue(SagaHeaders.sentAt(headers) >= System.currentTimeMillis() - 60_000);
+        assertEquals(2, headers.toArray().length);
+    }
+
+    @Test
+    void startedAt_ShouldBeZeroWhenMissingOrMalformed() {
+        // Given
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(SagaHeaders.SENT_AT, new byte[] {1, 2});
+
+        // When & Then
+        assertEquals(0, SagaHeaders.startedAt(headers));
+        assertEquals(0, SagaHeaders.sentAt(headers));
+    }
+}
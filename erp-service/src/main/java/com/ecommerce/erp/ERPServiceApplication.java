@@ -1,10 +1,13 @@
 package com.ecommerce.erp;
 
+import com.ecommerce.common.config.VirtualThreadConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 
 @SpringBootApplication
+@Import(VirtualThreadConfig.class)
 public class ERPServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ERPServiceApplication.class, args);
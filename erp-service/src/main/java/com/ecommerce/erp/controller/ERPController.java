@@ -1,28 +1,49 @@
 package com.ecommerce.erp.controller;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
-import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
 @RequestMapping("/erp")
 public class ERPController {
     
-    private final Random random = new Random();
+    private final Executor taskExecutor;
+    private final int minProcessingMs;
+    private final int maxProcessingMs;
+    private final double failureRate;
+    
+    /**
+     * Updates run on Spring Boot's application task executor: a thread pool by default,
+     * a virtual thread per update with {@code spring.threads.virtual.enabled=true}.
+     */
+    public ERPController(@Qualifier("applicationTaskExecutor") Executor taskExecutor,
+                         @Value("${erp.processing.min-ms:1000}") int minProcessingMs,
+                         @Value("${erp.processing.max-ms:10000}") int maxProcessingMs,
+                         @Value("${erp.processing.failure-rate:0.1}") double failureRate) {
+        this.taskExecutor = taskExecutor;
+        this.minProcessingMs = minProcessingMs;
+        this.maxProcessingMs = maxProcessingMs;
+        this.failureRate = failureRate;
+    }
     
     @PostMapping("/orders/{orderId}")
     public CompletableFuture<ResponseEntity<Map<String, Object>>> updateOrder(@PathVariable String orderId) {
         return CompletableFuture.supplyAsync(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
             try {
-                // Simulate ERP processing time (1-10 seconds)
-                int processingTime = random.nextInt(9000) + 1000;
+                // Simulate ERP processing time (1-10 seconds by default)
+                int processingTime = random.nextInt(minProcessingMs, maxProcessingMs + 1);
                 Thread.sleep(processingTime);
                 
-                // Simulate occasional failures (10% failure rate)
-                if (random.nextDouble() < 0.1) {
+                // Simulate occasional failures (10% failure rate by default)
+                if (random.nextDouble() < failureRate) {
                     return ResponseEntity.status(500)
                         .body(Map.of("error", "ERP system temporarily unavailable"));
                 }
@@ -37,7 +58,7 @@ public class ERPController {
                 return ResponseEntity.status(500)
                     .body(Map.of("error", "Processing interrupted"));
             }
-        });
+        }, taskExecutor);
     }
     
     @GetMapping("/orders/{orderId}")
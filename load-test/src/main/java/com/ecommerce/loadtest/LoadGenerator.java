@@ -0,0 +1,152 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model arrivals: order {@code i} is due at {@code start + i / rate} whatever happened to the
+ * earlier ones, so a slow service sees growing concurrency instead of a slower client. Latencies
+ * are taken from the due time, not the send time, so generator lag behind the schedule is
+ * charged to the system under test rather than hidden (no coordinated omission).
+ */
+class LoadGenerator {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+
+    private final OrderApiClient api;
+    private final SagaObserver observer;
+    private final LoadTestConfig config;
+    private final Histogram createLatency = new ConcurrentHistogram(TimeUnit.HOURS.toMicros(1), 3);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder created = new LongAdder();
+    private final AtomicInteger pendingCreates = new AtomicInteger();
+    private long sent;
+    private long maxLagNanos;
+    private long measuredSent;
+    private long measuredNanos;
+
+    LoadGenerator(OrderApiClient api, SagaObserver observer, LoadTestConfig config) {
+        this.api = api;
+        this.observer = observer;
+        this.config = config;
+    }
+
+    /**
+     * Sends orders on schedule for the warm-up and measured phases; returns once the last one is
+     * sent, with responses and sagas possibly still outstanding.
+     */
+    void run() {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxLagNanos = Math.max(maxLagNanos, -wait);
+            }
+            boolean measured = due >= measureFrom;
+            sent++;
+            if (measured) {
+                measuredSent++;
+            }
+            if (observer.inFlight() + pendingCreates.get() >= config.maxInFlight()) {
+                // Past this point the run no longer measures the system, only the queue in front of it
+                if (measured) {
+                    error("dropped-max-in-flight");
+                }
+                continue;
+            }
+            send("load-" + (i % config.customers()), due, measured);
+        }
+        measuredNanos = end - measureFrom;
+    }
+
+    private void send(String customerId, long due, boolean measured) {
+        pendingCreates.incrementAndGet();
+        api.createOrder(customerId, AMOUNT).whenComplete((response, ex) -> {
+            long now = System.nanoTime();
+            pendingCreates.decrementAndGet();
+            if (ex != null) {
+                if (measured) {
+                    error(ex.getClass().getSimpleName());
+                }
+                return;
+            }
+            if (response.statusCode() != 200) {
+                if (measured) {
+                    error("http-" + response.statusCode());
+                }
+                return;
+            }
+            try {
+                observer.register(api.orderId(response), due, now, measured);
+            } catch (Exception e) {
+                if (measured) {
+                    error("unreadable-response");
+                }
+                return;
+            }
+            if (measured) {
+                created.increment();
+                createLatency.recordValue(
+                    Math.min(TimeUnit.NANOSECONDS.toMicros(now - due), createLatency.getHighestTrackableValue()));
+            }
+        });
+    }
+
+    private void error(String kind) {
+        errors.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    Histogram createLatency() {
+        return createLatency;
+    }
+
+    /** Measured create failures by kind. */
+    Map<String, Long> errors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((kind, count) -> counts.put(kind, count.sum()));
+        return counts;
+    }
+
+    int pendingCreates() {
+        return pendingCreates.get();
+    }
+
+    long sent() {
+        return sent;
+    }
+
+    long measuredSent() {
+        return measuredSent;
+    }
+
+    long measuredCreated() {
+        return created.sum();
+    }
+
+    /** How far the generator fell behind its schedule; large values mean the client, not the service, limited the rate. */
+    long maxLagMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos);
+    }
+
+    double measuredSeconds() {
+        return measuredNanos / 1e9;
+    }
+}
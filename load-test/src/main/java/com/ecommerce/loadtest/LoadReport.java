@@ -0,0 +1,99 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of one run. {@code report.json} holds the summary compared between releases; next to it,
+ * one {@code .hgrm} percentile distribution per histogram, which the HdrHistogram plotter
+ * (hdrhistogram.github.io/HdrHistogram/plotFiles.html) overlays across runs.
+ */
+record LoadReport(String label, String startedAt, Map<String, Object> config, Arrivals arrivals, Sagas sagas,
+                  Map<String, Latency> latencyMillis) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @param maxScheduleLagMillis how far the generator fell behind the arrival schedule
+     * @param errors               failed {@code POST /orders} by kind
+     */
+    record Arrivals(double intendedRate, long sent, long created, double createdPerSecond, long maxScheduleLagMillis,
+                    Map<String, Long> errors) {}
+
+    /**
+     * @param timedOut  sagas unfinished after the saga timeout, by the last status seen
+     * @param sustained whether the rate held: every order was created and every saga finished in time
+     */
+    record Sagas(long completed, long cancelled, double finishedPerSecond, Map<String, Long> timedOut, long pollErrors,
+                 boolean sustained) {}
+
+    record Latency(long count, double p50, double p90, double p99, double p999, double max) {
+
+        static Latency of(Histogram micros) {
+            return new Latency(micros.getTotalCount(), millis(micros.getValueAtPercentile(50)),
+                millis(micros.getValueAtPercentile(90)), millis(micros.getValueAtPercentile(99)),
+                millis(micros.getValueAtPercentile(99.9)), millis(micros.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return Math.round(micros / 10.0) / 100.0;
+        }
+    }
+
+    static Map<String, Latency> latencies(Map<String, Histogram> histograms) {
+        Map<String, Latency> latencies = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> latencies.put(name, Latency.of(histogram)));
+        return latencies;
+    }
+
+    void write(Path dir, Map<String, Histogram> histograms) throws IOException {
+        Files.createDirectories(dir);
+        MAPPER.writeValue(dir.resolve("report.json").toFile(), this);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(entry.getKey() + ".hgrm")))) {
+                // Recorded in microseconds, reported in milliseconds
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    /**
+     * Side-by-side throughput and p50/p99 against an earlier run; positive latency deltas are slower.
+     */
+    String compare(LoadReport baseline) {
+        StringBuilder out = new StringBuilder();
+        // Compared as text: numbers read back from JSON may come out as a different boxed type
+        if (!baseline.config.toString().equals(config.toString())) {
+            out.append("WARNING: runs used different options\n  baseline ").append(baseline.config)
+                .append("\n  current  ").append(config).append('\n');
+        }
+        out.append(String.format(Locale.ROOT, "%-26s %12s %12s %8s%n", "", baseline.label, label, "delta"));
+        out.append(row("finished sagas/s", baseline.sagas.finishedPerSecond(), sagas.finishedPerSecond()));
+        latencyMillis.forEach((name, current) -> {
+            Latency before = baseline.latencyMillis.get(name);
+            if (before != null) {
+                out.append(row(name + " p50", before.p50(), current.p50()));
+                out.append(row(name + " p99", before.p99(), current.p99()));
+            }
+        });
+        return out.toString();
+    }
+
+    private static String row(String name, double baseline, double current) {
+        String delta = baseline == 0 ? "-" : String.format(Locale.ROOT, "%+.1f%%", (current - baseline) * 100 / baseline);
+        return String.format(Locale.ROOT, "%-26s %12.2f %12.2f %8s%n", name, baseline, current, delta);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of a load-test run, given as {@code --name=value} arguments. Durations accept
+ * {@code ms}, {@code s} and {@code m} suffixes.
+ *
+ * <pre>
+ *   --base-url=http://localhost:8080   order-service
+ *   --username=load-test               subject of the /auth/token JWT
+ *   --rate=20                          order arrivals per second, independent of responses
+ *   --duration=2m                      measured phase
+ *   --warmup=30s                       arrivals before the measured phase, not recorded
+ *   --poll-interval=100ms              status polling period; the resolution of stage latencies
+ *   --saga-timeout=60s                 sagas not finished by then count as timed out
+ *   --max-in-flight=10000              open sagas before further arrivals are dropped
+ *   --customers=1000                   distinct customer ids to spread orders over
+ *   --label=dev                        release or commit the report belongs to
+ *   --output=build/load-test           report directory
+ *   --baseline=path/to/report.json     earlier report to compare against
+ * </pre>
+ */
+public record LoadTestConfig(String baseUrl, String username, double rate, Duration duration, Duration warmup,
+                             Duration pollInterval, Duration sagaTimeout, int maxInFlight, int customers,
+                             String label, Path output, Path baseline) {
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestConfig config = new LoadTestConfig(
+            options.getOrDefault("base-url", "http://localhost:8080"),
+            options.getOrDefault("username", "load-test"),
+            Double.parseDouble(options.getOrDefault("rate", "20")),
+            duration(options.getOrDefault("duration", "2m")),
+            duration(options.getOrDefault("warmup", "30s")),
+            duration(options.getOrDefault("poll-interval", "100ms")),
+            duration(options.getOrDefault("saga-timeout", "60s")),
+            Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+            Integer.parseInt(options.getOrDefault("customers", "1000")),
+            options.getOrDefault("label", "dev"),
+            Path.of(options.getOrDefault("output", "build/load-test")),
+            options.containsKey("baseline") ? Path.of(options.get("baseline")) : null);
+        if (config.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return config;
+    }
+
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    /** Flat view for the report, so runs with different options are not compared by accident. */
+    Map<String, Object> describe() {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("baseUrl", baseUrl);
+        described.put("rate", rate);
+        described.put("durationSeconds", duration.toSeconds());
+        described.put("warmupSeconds", warmup.toSeconds());
+        described.put("pollIntervalMillis", pollInterval.toMillis());
+        described.put("sagaTimeoutSeconds", sagaTimeout.toSeconds());
+        described.put("maxInFlight", maxInFlight);
+        described.put("customers", customers);
+        return described;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The order-service endpoints the load test uses: {@code POST /auth/token},
+ * {@code POST /orders} and the multi-get {@code GET /orders/batch}.
+ */
+class OrderApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String username;
+    private volatile String token;
+
+    OrderApiClient(String baseUrl, String username) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        // HTTP/1.1 explicitly: the services don't speak h2c, so skip the upgrade attempt on every connection
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    void authenticate() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/token"))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("username", username))))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("POST /auth/token returned " + response.statusCode());
+        }
+        token = objectMapper.readTree(response.body()).path("accessToken").asText();
+    }
+
+    /**
+     * Sends the order without waiting for it; completes with the response or the transport error.
+     */
+    CompletableFuture<HttpResponse<String>> createOrder(String customerId, BigDecimal amount) {
+        try {
+            String body = objectMapper.writeValueAsString(Map.of("customerId", customerId, "amount", amount));
+            return client.sendAsync(authorized("/orders")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    String orderId(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body()).path("id").asText();
+    }
+
+    /**
+     * Current status of each order id; ids the service doesn't know are missing from the result.
+     */
+    Map<String, String> statuses(List<String> orderIds) throws IOException, InterruptedException {
+        String ids = URLEncoder.encode(String.join(",", orderIds), StandardCharsets.UTF_8);
+        HttpResponse<String> response = client.send(authorized("/orders/batch?ids=" + ids).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /orders/batch returned " + response.statusCode());
+        }
+        Map<String, String> statuses = new HashMap<>(orderIds.size() * 2);
+        for (JsonNode order : objectMapper.readTree(response.body())) {
+            statuses.put(order.path("id").asText(), order.path("status").asText());
+        }
+        return statuses;
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Authorization", "Bearer " + token);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end saga load test: drives {@code POST /orders} at a fixed open-model rate against a
+ * running stack, follows every order to COMPLETED or CANCELLED and writes a report per run.
+ * Options are listed on {@link LoadTestConfig}.
+ */
+public class SagaLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        OrderApiClient api = new OrderApiClient(config.baseUrl(), config.username());
+        api.authenticate();
+
+        SagaObserver observer = new SagaObserver(api, config.sagaTimeout().toNanos());
+        LoadGenerator generator = new LoadGenerator(api, observer, config);
+        ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("saga-poller").daemon().factory());
+        long pollMillis = config.pollInterval().toMillis();
+        poller.scheduleWithFixedDelay(observer::pollOnce, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+
+        String startedAt = Instant.now().toString();
+        System.out.printf("Sending %.1f orders/s to %s for %ds after %ds warm-up%n", config.rate(), config.baseUrl(),
+            config.duration().toSeconds(), config.warmup().toSeconds());
+        generator.run();
+
+        // Drain: the saga timeout bounds the wait, since the observer expires anything older
+        System.out.println("Arrivals done, waiting for open sagas");
+        while (generator.pendingCreates() > 0 || observer.inFlight() > 0) {
+            Thread.sleep(pollMillis);
+        }
+        poller.shutdown();
+        poller.awaitTermination(1, TimeUnit.MINUTES);
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        histograms.put("create", generator.createLatency());
+        histograms.putAll(observer.histograms());
+
+        double seconds = generator.measuredSeconds();
+        Map<String, Long> errors = generator.errors();
+        LoadReport report = new LoadReport(config.label(), startedAt, config.describe(),
+            new LoadReport.Arrivals(config.rate(), generator.measuredSent(), generator.measuredCreated(),
+                generator.measuredCreated() / seconds, generator.maxLagMillis(), errors),
+            new LoadReport.Sagas(observer.completed(), observer.cancelled(),
+                (observer.completed() + observer.cancelled()) / seconds, observer.timedOut(), observer.pollErrors(),
+                errors.isEmpty() && observer.timedOut().isEmpty()),
+            LoadReport.latencies(histograms));
+
+        Path dir = config.output().resolve(config.label());
+        report.write(dir, histograms);
+        System.out.println(Files.readString(dir.resolve("report.json")));
+        if (config.baseline() != null) {
+            System.out.print(report.compare(LoadReport.read(config.baseline())));
+        }
+        System.out.println("Report written to " + dir.toAbsolutePath());
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows created orders through the saga by polling their status and records, in microseconds:
+ * <ul>
+ *   <li>{@code stage.<STATUS>}: time an order spent in each non-terminal status, from sagas that
+ *       completed. A stage is recorded only if both its start and the next status were observed;
+ *       a saga that moves through several statuses between two polls skips the stages it hid.</li>
+ *   <li>{@code endToEnd.COMPLETED} and {@code endToEnd.CANCELLED}: from the order's intended send
+ *       time to the first poll that saw the terminal status.</li>
+ * </ul>
+ * Timestamps are poll times, so every latency is accurate to one poll interval. All state except
+ * {@link #register} is confined to the polling thread.
+ */
+class SagaObserver {
+
+    static final List<String> STAGES = List.of("PENDING", "PAYMENT_PROCESSING", "ERP_PROCESSING");
+
+    // GET /orders/batch carries the ids in the query string; 150 UUIDs stay under Tomcat's 8 KB header limit
+    static final int POLL_BATCH = 150;
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final OrderApiClient api;
+    private final long sagaTimeoutNanos;
+    private final Queue<TrackedOrder> registered = new ConcurrentLinkedQueue<>();
+    private final Map<String, TrackedOrder> inFlight = new LinkedHashMap<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, Long> timedOutIn = new TreeMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private long completed;
+    private long cancelled;
+    private long pollErrors;
+
+    SagaObserver(OrderApiClient api, long sagaTimeoutNanos) {
+        this.api = api;
+        this.sagaTimeoutNanos = sagaTimeoutNanos;
+        STAGES.forEach(stage -> histograms.put("stage." + stage, histogram()));
+        histograms.put("endToEnd.COMPLETED", histogram());
+        histograms.put("endToEnd.CANCELLED", histogram());
+    }
+
+    static Histogram histogram() {
+        return new Histogram(HIGHEST_MICROS, 3);
+    }
+
+    /**
+     * Starts following an order. Called from HTTP response threads.
+     *
+     * @param measured false for warm-up orders, which are followed but not recorded
+     */
+    void register(String orderId, long intendedNanos, long createdNanos, boolean measured) {
+        open.incrementAndGet();
+        registered.add(new TrackedOrder(orderId, intendedNanos, createdNanos, measured));
+    }
+
+    /**
+     * One polling round: fetches the status of every open saga and expires those past the timeout.
+     */
+    void pollOnce() {
+        admitRegistered();
+        List<String> ids = new ArrayList<>(inFlight.keySet());
+        for (int from = 0; from < ids.size(); from += POLL_BATCH) {
+            List<String> batch = ids.subList(from, Math.min(from + POLL_BATCH, ids.size()));
+            long polledAt = System.nanoTime();
+            try {
+                observe(api.statuses(batch), polledAt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // The saga keeps running server-side; the next round catches up, at the cost of resolution
+                pollErrors++;
+            }
+        }
+        expire(System.nanoTime());
+    }
+
+    void admitRegistered() {
+        TrackedOrder order;
+        while ((order = registered.poll()) != null) {
+            inFlight.put(order.orderId, order);
+        }
+    }
+
+    void observe(Map<String, String> statuses, long polledAt) {
+        statuses.forEach((orderId, status) -> {
+            TrackedOrder order = inFlight.get(orderId);
+            if (order == null) {
+                return;
+            }
+            order.lastStatus = status;
+            int stage = STAGES.indexOf(status);
+            if (stage >= 0) {
+                if (order.firstSeen[stage] == 0) {
+                    order.firstSeen[stage] = stage == 0 ? order.createdNanos : polledAt;
+                }
+                return;
+            }
+            inFlight.remove(orderId);
+            open.decrementAndGet();
+            if ("COMPLETED".equals(status)) {
+                finish(order, polledAt, true);
+            } else if ("CANCELLED".equals(status)) {
+                finish(order, polledAt, false);
+            }
+        });
+    }
+
+    void expire(long now) {
+        Iterator<TrackedOrder> it = inFlight.values().iterator();
+        while (it.hasNext()) {
+            TrackedOrder order = it.next();
+            if (now - order.intendedNanos > sagaTimeoutNanos) {
+                it.remove();
+                open.decrementAndGet();
+                if (order.measured) {
+                    timedOutIn.merge(order.lastStatus, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    private void finish(TrackedOrder order, long finishedAt, boolean success) {
+        if (!order.measured) {
+            return;
+        }
+        if (!success) {
+            cancelled++;
+            record("endToEnd.CANCELLED", finishedAt - order.intendedNanos);
+            return;
+        }
+        completed++;
+        record("endToEnd.COMPLETED", finishedAt - order.intendedNanos);
+        // PENDING starts when POST /orders returned, whether or not a poll saw it
+        order.firstSeen[0] = order.createdNanos;
+        for (int stage = 0; stage < STAGES.size(); stage++) {
+            long start = order.firstSeen[stage];
+            long end = stage + 1 < STAGES.size() ? order.firstSeen[stage + 1] : finishedAt;
+            if (start != 0 && end != 0) {
+                record("stage." + STAGES.get(stage), end - start);
+            }
+        }
+    }
+
+    private void record(String name, long nanos) {
+        histograms.get(name).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+    }
+
+    /** Open sagas; safe to call from any thread. */
+    int inFlight() {
+        return open.get();
+    }
+
+    Map<String, Histogram> histograms() {
+        return histograms;
+    }
+
+    long completed() {
+        return completed;
+    }
+
+    long cancelled() {
+        return cancelled;
+    }
+
+    /** Measured sagas that did not finish within the timeout, by the last status seen. */
+    Map<String, Long> timedOut() {
+        return timedOutIn;
+    }
+
+    long pollErrors() {
+        return pollErrors;
+    }
+
+    private static final class TrackedOrder {
+        final String orderId;
+        final long intendedNanos;
+        final long createdNanos;
+        final boolean measured;
+        final long[] firstSeen = new long[STAGES.size()];
+        String lastStatus = "UNSEEN";
+
+        TrackedOrder(String orderId, long intendedNanos, long createdNanos, boolean measured) {
+            this.orderId = orderId;
+            this.intendedNanos = intendedNanos;
+            this.createdNanos = createdNanos;
+            this.measured = measured;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaObserverTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SagaObserver observer = new SagaObserver(null, 10_000 * MS);
+
+    @Test
+    void observe_ShouldRecordEachStageOfCompletedSaga() {
+        // Given
+        observer.register("order-1", 0, 50 * MS, true);
+        observer.admitRegistered();
+
+        // When
+        observer.observe(Map.of("order-1", "PENDING"), 100 * MS);
+        observer.observe(Map.of("order-1", "PAYMENT_PROCESSING"), 1_100 * MS);
+        observer.observe(Map.of("order-1", "ERP_PROCESSING"), 1_300 * MS);
+        observer.observe(Map.of("order-1", "COMPLETED"), 1_500 * MS);
+
+        // Then
+        assertEquals(1, observer.completed());
+        assertEquals(0, observer.inFlight());
+        assertEquals(1_050_000, observer.histograms().get("stage.PENDING").getMaxValue(), 1_000);
+        assertEquals(200_000, observer.histograms().get("stage.PAYMENT_PROCESSING").getMaxValue(), 1_000);
+        assertEquals(200_000, observer.histograms().get("stage.ERP_PROCESSING").getMaxValue(), 1_000);
+        assertEquals(1_500_000, observer.histograms().get("endToEnd.COMPLETED").getMaxValue(), 1_000);
+    }
+
+    @Test
+    void observe_ShouldSkipStagesHiddenBetweenPolls() {
+        // Given
+        observer.register("order-1", 0, 50 * MS, true);
+        observer.admitRegistered();
+
+        // When
+        observer.observe(Map.of("order-1", "ERP_PROCESSING"), 1_000 * MS);
+        observer.observe(Map.of("order-1", "COMPLETED"), 1_200 * MS);
+
+        // Then
+        assertEquals(0, observer.histograms().get("stage.PENDING").getTotalCount());
+        assertEquals(0, observer.histograms().get("stage.PAYMENT_PROCESSING").getTotalCount());
+        assertEquals(1, observer.histograms().get("stage.ERP_PROCESSING").getTotalCount());
+        assertEquals(1, observer.histograms().get("endToEnd.COMPLETED").getTotalCount());
+    }
+
+    @Test
+    void observe_ShouldNotRecordWarmupOrders() {
+        // Given
+        observer.register("warmup-1", 0, 50 * MS, false);
+        observer.admitRegistered();
+
+        // When
+        observer.observe(Map.of("warmup-1", "CANCELLED"), 500 * MS);
+
+        // Then
+        assertEquals(0, observer.cancelled());
+        assertEquals(0, observer.inFlight());
+        assertEquals(0, observer.histograms().get("endToEnd.CANCELLED").getTotalCount());
+    }
+
+    @Test
+    void expire_ShouldCountTimedOutSagasByLastStatus() {
+        // Given
+        observer.register("order-1", 0, 50 * MS, true);
+        observer.register("order-2", 5_000 * MS, 5_050 * MS, true);
+        observer.admitRegistered();
+        observer.observe(Map.of("order-1", "PAYMENT_PROCESSING", "order-2", "PENDING"), 1_000 * MS);
+
+        // When
+        observer.expire(12_000 * MS);
+
+        // Then
+        assertEquals(Map.of("PAYMENT_PROCESSING", 1L), observer.timedOut());
+        assertEquals(1, observer.inFlight());
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.order.archive;
+
+import com.ecommerce.order.entity.ArchivedOrder;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.ArchivedOrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for orders moved to cold storage by {@link OrderArchiver}: one primary-key lookup in
+ * {@code archived_orders}, then one compressed block of the month's file is decompressed.
+ */
+@Component
+public class OrderArchive {
+    
+    private record BlockRef(String archive, long offset) {}
+    
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final Path archiveDir;
+    
+    public OrderArchive(ArchivedOrderRepository archivedOrderRepository,
+                        @Value("${orders.archive.dir:./data/order-archive}") Path archiveDir) {
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archiveDir = archiveDir;
+    }
+    
+    public Optional<Order> find(String id) {
+        return archivedOrderRepository.findById(id)
+            .flatMap(location -> readBlock(location.getArchive(), location.getBlockOffset()).stream()
+                .filter(order -> order.getId().equals(id))
+                .findFirst());
+    }
+    
+    /**
+     * Archived orders among {@code ids}; orders that share a block are decompressed together.
+     */
+    public Map<String, Order> findAll(Collection<? extends String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<BlockRef, Set<String>> byBlock = archivedOrderRepository.findAllById(List.<String>copyOf(ids)).stream()
+            .collect(Collectors.groupingBy(location -> new BlockRef(location.getArchive(), location.getBlockOffset()),
+                Collectors.mapping(ArchivedOrder::getId, Collectors.toSet())));
+        
+        Map<String, Order> found = new HashMap<>();
+        byBlock.forEach((block, blockIds) -> {
+            for (Order order : readBlock(block.archive(), block.offset())) {
+                if (blockIds.contains(order.getId())) {
+                    found.put(order.getId(), order);
+                }
+            }
+        });
+        return found;
+    }
+    
+    private List<Order> readBlock(String archive, long offset) {
+        try {
+            return OrderArchiveFile.readBlock(archiveDir.resolve(archive), offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived orders from " + archive, e);
+        }
+    }
+}
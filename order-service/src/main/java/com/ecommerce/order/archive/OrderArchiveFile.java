@@ -0,0 +1,113 @@
+package com.ecommerce.order.archive;
+
+import com.ecommerce.order.entity.Order;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive file of one order partition: a concatenation of independent gzip members ("blocks"),
+ * each holding a record count followed by that many orders. The whole file is valid gzip, and a
+ * single block can be decompressed on its own by seeking to its offset.
+ */
+final class OrderArchiveFile {
+    
+    private OrderArchiveFile() {}
+    
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.CREATE);
+        }
+        
+        /**
+         * Appends the orders as one block.
+         *
+         * @return offset of the block in the file
+         */
+        long append(List<Order> orders) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+                out.writeInt(orders.size());
+                for (Order order : orders) {
+                    write(out, order);
+                }
+            }
+            long offset = channel.position();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return offset;
+        }
+        
+        void sync() throws IOException {
+            channel.force(true);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+    
+    static List<Order> readBlock(Path path, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(offset);
+            // Reads only this block's records, so decompression stops inside the block's member
+            InputStream stream = new GZIPInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataInputStream in = new DataInputStream(stream);
+            int count = in.readInt();
+            List<Order> orders = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                orders.add(read(in));
+            }
+            return orders;
+        }
+    }
+    
+    private static void write(DataOutputStream out, Order order) throws IOException {
+        out.writeUTF(order.getId());
+        out.writeUTF(order.getCustomerId());
+        out.writeUTF(order.getAmount().toPlainString());
+        out.writeUTF(order.getStatus().name());
+        out.writeBoolean(order.getSagaId() != null);
+        if (order.getSagaId() != null) {
+            out.writeUTF(order.getSagaId());
+        }
+        out.writeUTF(order.getCreatedAt().toString());
+        out.writeLong(order.getVersion() != null ? order.getVersion() : 0);
+    }
+    
+    private static Order read(DataInputStream in) throws IOException {
+        Order order = new Order();
+        order.setId(in.readUTF());
+        order.setCustomerId(in.readUTF());
+        order.setAmount(new BigDecimal(in.readUTF()));
+        order.setStatus(Order.OrderStatus.valueOf(in.readUTF()));
+        if (in.readBoolean()) {
+            order.setSagaId(in.readUTF());
+        }
+        order.setCreatedAt(LocalDateTime.parse(in.readUTF()));
+        order.setVersion(in.readLong());
+        return order;
+    }
+}
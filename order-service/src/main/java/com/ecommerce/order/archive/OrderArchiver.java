@@ -0,0 +1,268 @@
+package com.ecommerce.order.archive;
+
+import com.ecommerce.order.entity.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves whole months of orders to compressed files under {@code orders.archive.dir}, keeping
+ * the live {@code orders} partitions, and their indexes, limited to recent months.
+ *
+ * <p>A partition is archived once its month is older than {@code orders.archive.after-months}
+ * and all its orders are terminal:
+ * <ol>
+ *   <li>its rows are written to {@code <partition>.dat.gz} in blocks, and each order's block
+ *       offset is recorded in {@code archived_orders} so {@link OrderArchive} can still serve it;</li>
+ *   <li>the partition is detached concurrently, so order traffic is not blocked;</li>
+ *   <li>its per-customer totals are added to {@code archived_order_totals} and the table is
+ *       dropped, in one transaction.</li>
+ * </ol>
+ * Every step can be repeated, and a run first finishes partitions left half-archived by an
+ * earlier run. A run holds a session advisory lock, so when several instances are scheduled
+ * only one of them archives and the others skip the run. A summary rebuild running between steps 2 and 3 misses that month until the
+ * next rebuild.
+ */
+@Component
+public class OrderArchiver {
+    
+    private static final String INDEX_SQL = """
+            INSERT INTO archived_orders (id, archive, block_offset) VALUES (?, ?, ?)
+            ON CONFLICT (id) DO UPDATE SET archive = EXCLUDED.archive, block_offset = EXCLUDED.block_offset
+            """;
+    
+    private static final String ADD_TOTALS_SQL = """
+            INSERT INTO archived_order_totals (customer_id, status, order_count, total_amount)
+            SELECT customer_id, status, COUNT(*), SUM(amount) FROM %s
+            GROUP BY customer_id, status
+            ON CONFLICT (customer_id, status) DO UPDATE
+            SET order_count = archived_order_totals.order_count + EXCLUDED.order_count,
+                total_amount = archived_order_totals.total_amount + EXCLUDED.total_amount
+            """;
+    
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('orders_archive'))";
+    
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('orders_archive'))";
+    
+    private final OrderPartitionManager partitionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path archiveDir;
+    
+    @Value("${orders.archive.after-months:6}")
+    private int afterMonths;
+    
+    @Value("${orders.archive.block-size:1000}")
+    private int blockSize;
+    
+    public OrderArchiver(OrderPartitionManager partitionManager, JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${orders.archive.dir:./data/order-archive}") Path archiveDir) {
+        this.partitionManager = partitionManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveDir = archiveDir;
+    }
+    
+    @Scheduled(cron = "${orders.archive.cron:-}")
+    public void scheduledArchive() {
+        archive();
+    }
+    
+    /**
+     * @return names of the partitions archived by this run, empty if another instance is archiving
+     */
+    public List<String> archive() {
+        if (!partitionManager.isPartitioned()) {
+            return List.of();
+        }
+        // The lock belongs to this connection's session, which is kept for the whole run; the
+        // archiving statements use their own connections, as DETACH CONCURRENTLY needs autocommit
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            if (!queryBoolean(connection, TRY_LOCK_SQL)) {
+                System.out.println("Skipping order archiving: another instance is running it");
+                return List.of();
+            }
+            try {
+                return archivePartitions();
+            } finally {
+                queryBoolean(connection, UNLOCK_SQL);
+            }
+        });
+    }
+    
+    private List<String> archivePartitions() {
+        List<String> archived = new ArrayList<>();
+        
+        // Finish partitions an interrupted run already exported and detached
+        for (String partition : partitionManager.pendingDetaches()) {
+            checkName(partition);
+            jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + partition + " FINALIZE");
+        }
+        for (String partition : partitionManager.detachedPartitions()) {
+            if (Files.exists(archiveFile(partition))) {
+                dropDetached(partition);
+                archived.add(partition);
+            } else {
+                System.err.println("Detached partition " + partition + " has no archive file, leaving it in place");
+            }
+        }
+        
+        YearMonth cutoff = YearMonth.now().minusMonths(afterMonths);
+        for (String partition : partitionManager.attachedPartitions()) {
+            checkName(partition);
+            if (!OrderPartitionManager.monthOf(partition).isBefore(cutoff)) {
+                break;
+            }
+            if (hasActiveOrders(partition)) {
+                System.out.println("Not archiving " + partition + ": it still has orders in progress");
+                continue;
+            }
+            try {
+                long start = System.currentTimeMillis();
+                long orders = export(partition);
+                jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + partition + " CONCURRENTLY");
+                dropDetached(partition);
+                archived.add(partition);
+                System.out.println("Archived " + partition + ": " + orders + " orders in "
+                    + (System.currentTimeMillis() - start) + "ms");
+            } catch (DataAccessException | UncheckedIOException e) {
+                // Retried by the next run; exported blocks and index rows are overwritten
+                System.err.println("Failed to archive " + partition + ": " + e.getMessage());
+            }
+        }
+        return archived;
+    }
+    
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+    
+    private boolean hasActiveOrders(String partition) {
+        Boolean active = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE status NOT IN ('COMPLETED', 'CANCELLED'))",
+            Boolean.class);
+        return Boolean.TRUE.equals(active);
+    }
+    
+    /**
+     * Streams the partition into a temporary file and indexes every order, then renames the file
+     * into place. The index rows commit only after the rename.
+     */
+    long export(String partition) {
+        Path target = archiveFile(partition);
+        Long exported = transactionTemplate.execute(status -> {
+            try {
+                Files.createDirectories(archiveDir);
+                Path temp = Files.createTempFile(archiveDir, partition, ".tmp");
+                long count;
+                try (OrderArchiveFile.Writer writer = new OrderArchiveFile.Writer(temp)) {
+                    count = writeBlocks(partition, writer);
+                    writer.sync();
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exported != null ? exported : 0;
+    }
+    
+    private long writeBlocks(String partition, OrderArchiveFile.Writer writer) {
+        String archive = target(partition);
+        List<Order> block = new ArrayList<>(blockSize);
+        long[] count = {0};
+        RowCallbackHandler collector = rs -> {
+            block.add(mapOrder(rs));
+            if (block.size() == blockSize) {
+                count[0] += flush(block, archive, writer);
+            }
+        };
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, customer_id, amount, status, saga_id, created_at, version FROM " + partition + " ORDER BY id");
+            // Streams with a cursor instead of loading the month into memory
+            statement.setFetchSize(blockSize);
+            return statement;
+        }, collector);
+        count[0] += flush(block, archive, writer);
+        return count[0];
+    }
+    
+    private int flush(List<Order> block, String archive, OrderArchiveFile.Writer writer) {
+        if (block.isEmpty()) {
+            return 0;
+        }
+        try {
+            long offset = writer.append(block);
+            List<Object[]> args = new ArrayList<>(block.size());
+            for (Order order : block) {
+                args.add(new Object[] {order.getId(), archive, offset});
+            }
+            jdbcTemplate.batchUpdate(INDEX_SQL, args);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int size = block.size();
+        block.clear();
+        return size;
+    }
+    
+    private void dropDetached(String partition) {
+        checkName(partition);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(ADD_TOTALS_SQL.formatted(partition));
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+    }
+    
+    private static Order mapOrder(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getString("id"));
+        order.setCustomerId(rs.getString("customer_id"));
+        order.setAmount(rs.getBigDecimal("amount"));
+        order.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+        order.setSagaId(rs.getString("saga_id"));
+        order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        order.setVersion(rs.getLong("version"));
+        return order;
+    }
+    
+    private Path archiveFile(String partition) {
+        return archiveDir.resolve(target(partition));
+    }
+    
+    static String target(String partition) {
+        return partition + ".dat.gz";
+    }
+    
+    private static void checkName(String partition) {
+        // Partition names are spliced into DDL; only accept the names this service creates
+        if (!OrderPartitionManager.PARTITION_NAME.matcher(partition).matches()) {
+            throw new IllegalArgumentException("Unexpected partition name: " + partition);
+        }
+    }
+}
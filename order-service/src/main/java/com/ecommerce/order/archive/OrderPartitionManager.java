@@ -0,0 +1,108 @@
+package com.ecommerce.order.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps monthly partitions of {@code orders} created ahead of time. There is no default
+ * partition, so an insert into a month without a partition fails; creating
+ * {@code orders.partitions.months-ahead} months in advance, at startup and daily, leaves
+ * plenty of margin. Does nothing when {@code orders} is not partitioned or the database is not
+ * PostgreSQL (e.g. H2 with a schema generated by Hibernate in tests).
+ */
+@Component
+public class OrderPartitionManager {
+    
+    static final Pattern PARTITION_NAME = Pattern.compile("orders_p\\d{6}");
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'orders'::regclass AND i.inhdetachpending = ?
+            ORDER BY c.relname
+            """;
+    
+    private static final String DETACHED_SQL = """
+            SELECT relname FROM pg_class
+            WHERE relkind = 'r' AND NOT relispartition AND relname ~ '^orders_p[0-9]{6}$'
+            ORDER BY relname
+            """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${orders.partitions.months-ahead:3}")
+    private int monthsAhead;
+    
+    public OrderPartitionManager(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createFuturePartitions();
+    }
+    
+    @Scheduled(cron = "${orders.partitions.maintenance-cron:0 0 2 * * *}")
+    public void createFuturePartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                    + " PARTITION OF orders FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                    + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException e) {
+                // Another instance may be creating the same partition
+                System.err.println("Could not create partition " + partitionName(month) + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    public boolean isPartitioned() {
+        try {
+            Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('orders'))", Boolean.class);
+            return Boolean.TRUE.equals(partitioned);
+        } catch (DataAccessException e) {
+            // Not PostgreSQL (H2 in tests), so there are no partitions to manage
+            return false;
+        }
+    }
+    
+    /** Attached partitions, oldest first. */
+    public List<String> attachedPartitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, false);
+    }
+    
+    /** Partitions whose concurrent detach was interrupted and still needs FINALIZE. */
+    public List<String> pendingDetaches() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, true);
+    }
+    
+    /** Former partitions that were detached but not yet dropped. */
+    public List<String> detachedPartitions() {
+        return jdbcTemplate.queryForList(DETACHED_SQL, String.class);
+    }
+    
+    static String partitionName(YearMonth month) {
+        return "orders_p" + month.format(SUFFIX);
+    }
+    
+    static YearMonth monthOf(String partition) {
+        return YearMonth.parse(partition.substring("orders_p".length()), SUFFIX);
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.order.cache;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.event.OrdersChangedApplicationEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process near-cache of orders by id (Caffeine, W-TinyLFU eviction).
+ *
+ * <p>Concurrent misses for the same id share one load. Entries are dropped after the transaction
+ * that changed them commits, by {@link OrderCacheBroadcaster} on other replicas, and at the latest
+ * after {@code order-cache.ttl}. Only existing orders are cached.
+ */
+@Component
+public class OrderCache {
+    
+    private static final int STRIPES = 1024;
+    
+    private final Cache<String, Order> cache;
+    
+    /**
+     * Invalidation count per hash stripe of order ids. A bulk load only caches an order whose
+     * stripe did not change while the load ran.
+     */
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+    
+    public OrderCache(@Value("${order-cache.maximum-size:100000}") long maximumSize,
+                      @Value("${order-cache.ttl:30s}") Duration ttl,
+                      MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+    }
+    
+    public Optional<Order> get(String id, Function<String, Optional<Order>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+    
+    /**
+     * Returns the cached orders among {@code ids} and loads all misses with one call to {@code loader}.
+     * Ids that do not exist are absent from the result.
+     *
+     * <p>Unlike {@link #get}, the bulk load does not hold the entries while it runs, so an
+     * invalidation could slip in between the load's read and the insert. A loaded order is
+     * therefore only cached if no id of its stripe was invalidated since the load started;
+     * otherwise it is returned without being cached.
+     */
+    public Map<String, Order> getAll(Collection<String> ids,
+                                     Function<Set<? extends String>, Map<String, Order>> loader) {
+        Map<String, Order> found = new HashMap<>(cache.getAllPresent(ids));
+        Map<String, Long> misses = new HashMap<>();
+        for (String id : ids) {
+            if (!found.containsKey(id)) {
+                misses.put(id, invalidations.get(stripe(id)));
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        
+        loader.apply(new HashSet<>(misses.keySet())).forEach((id, order) -> {
+            Long stamp = misses.get(id);
+            if (stamp == null) {
+                return;
+            }
+            found.put(id, order);
+            // Checked under the entry's lock, which invalidation also takes after bumping the stripe
+            cache.asMap().compute(id, (key, cached) ->
+                cached != null ? cached : invalidations.get(stripe(key)) == stamp ? order : null);
+        });
+        return found;
+    }
+    
+    public void invalidateAll(Collection<String> ids) {
+        for (String id : ids) {
+            invalidations.incrementAndGet(stripe(id));
+        }
+        cache.invalidateAll(ids);
+    }
+    
+    private static int stripe(String id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+    
+    /**
+     * Invalidation happens after commit. A single-id load that races with the transition holds
+     * the entry, so the invalidation waits for it and drops the result; a load that starts after
+     * commit reads the new row. A bulk load that read the old row is not cached, see {@link #getAll}.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedApplicationEvent event) {
+        invalidateAll(event.getOrderIds());
+    }
+}
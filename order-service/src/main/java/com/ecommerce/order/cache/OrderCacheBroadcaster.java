@@ -0,0 +1,55 @@
+package com.ecommerce.order.cache;
+
+import com.ecommerce.order.event.OrdersChangedApplicationEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Keeps the near-caches of all order-service replicas coherent. Every committed change is
+ * broadcast on {@code order-cache-invalidations}; each replica consumes the topic in its own
+ * consumer group, from the latest offset, and drops the listed orders.
+ * A lost message is bounded by the cache TTL.
+ *
+ * <p>The group id is stable per instance ({@code order-cache.group-id}, by default host name and
+ * port), so restarts reuse it, and {@code orderCacheListenerContainerFactory} never commits
+ * offsets, so the broker drops the group once the instance stops instead of keeping its offsets.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class OrderCacheBroadcaster {
+    
+    static final String TOPIC = "order-cache-invalidations";
+    
+    private final OrderCache orderCache;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    public OrderCacheBroadcaster(OrderCache orderCache, KafkaTemplate<String, Object> kafkaTemplate) {
+        this.orderCache = orderCache;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersChanged(OrdersChangedApplicationEvent event) {
+        kafkaTemplate.send(TOPIC, new OrderCacheInvalidation(instanceId, event.getOrderIds()));
+    }
+    
+    @KafkaListener(topics = TOPIC,
+        groupId = "${order-cache.group-id:order-cache-${HOSTNAME:localhost}-${server.port:8080}}",
+        containerFactory = "orderCacheListenerContainerFactory",
+        properties = {"auto.offset.reset=latest", "enable.auto.commit=false"})
+    public void onInvalidation(OrderCacheInvalidation invalidation) {
+        if (invalidation == null || instanceId.equals(invalidation.origin())) {
+            return;
+        }
+        orderCache.invalidateAll(invalidation.orderIds());
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.order.cache;
+
+import java.util.List;
+
+/**
+ * Broadcast on {@code order-cache-invalidations} after a commit that changed orders.
+ *
+ * @param origin instance that made the change; it has already invalidated its own cache
+ */
+public record OrderCacheInvalidation(String origin, List<String> orderIds) {}
@@ -1,16 +1,29 @@
 package com.ecommerce.order.config;
 
+import com.ecommerce.common.jdbc.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.VaultResponse;
 
 import javax.sql.DataSource;
 
+/**
+ * Explicitly sized HikariCP pools ({@code database.pool.*}). Both pools are beans, so Boot
+ * publishes their {@code hikaricp.connections.*} metrics tagged by pool name.
+ * With {@code database.replica-url} set, read-only transactions go to the replica; see
+ * {@link ReadReplicaRoutingDataSource}.
+ */
 @Configuration
 @org.springframework.context.annotation.Profile("!test")
 public class DatabaseConfig {
@@ -21,17 +34,57 @@ public class DatabaseConfig {
     @Value("${spring.datasource.url}")
     private String url;
 
+    @Value("${database.replica-url:}")
+    private String replicaUrl;
+
+    @Bean
+    @ConfigurationProperties("database.pool.primary")
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource dataSource = createPool(url, "order-primary");
+        if (url.startsWith("jdbc:postgresql:")) {
+            // Collapse Hibernate's JDBC insert batches into multi-row INSERT statements
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("database.pool.replica")
+    @org.springframework.boot.autoconfigure.condition.ConditionalOnExpression("!'${database.replica-url:}'.isEmpty()")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = createPool(replicaUrl, "order-replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica,
+                                 @Value("${database.replica-retry-after-ms:5000}") long replicaRetryAfterMs,
+                                 MeterRegistry meterRegistry) {
+        // Lazy: a transaction borrows a pooled connection only once it runs a statement,
+        // and by then its read-only flag is known to the router
+        HikariDataSource replicaPool = replica.getIfAvailable();
+        if (replicaPool == null) {
+            return new LazyConnectionDataSourceProxy(primary);
+        }
+        return new LazyConnectionDataSourceProxy(
+            new ReadReplicaRoutingDataSource(primary, replicaPool, replicaRetryAfterMs, meterRegistry));
+    }
+
+    private HikariDataSource createPool(String jdbcUrl, String poolName) {
         String username = getFromVaultOrDefault("spring.datasource.username", "order");
         String password = getFromVaultOrDefault("spring.datasource.password", "password");
         
-        return DataSourceBuilder.create()
-                .url(url)
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(jdbcUrl)
                 .username(username)
                 .password(password)
                 .build();
+        dataSource.setPoolName(poolName);
+        return dataSource;
     }
 
     private String getFromVaultOrDefault(String key, String defaultValue) {
@@ -53,4 +106,4 @@ public class DatabaseConfig {
         }
         return defaultValue;
     }
-}
\ No newline at end of file
+}
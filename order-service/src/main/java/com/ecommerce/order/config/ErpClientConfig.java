@@ -0,0 +1,78 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.order.erp.ErpClient;
+import com.ecommerce.order.erp.HttpErpClient;
+import com.ecommerce.order.erp.StubErpClient;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ErpClientConfig {
+
+    @Value("${erp.client.base-url:http://localhost:8082}")
+    private String baseUrl;
+
+    @Value("${erp.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${erp.client.request-timeout:12s}")
+    private Duration requestTimeout;
+
+    @Value("${erp.client.deadline:20s}")
+    private Duration deadline;
+
+    @Value("${erp.client.hedge-delay:8s}")
+    private Duration hedgeDelay;
+
+    @Value("${erp.client.io-threads:4}")
+    private int ioThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    @ConditionalOnProperty(name = "erp.client.stub", havingValue = "false", matchIfMissing = true)
+    public ErpClient httpErpClient(BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(erpClientExecutor())
+                .build();
+        return new HttpErpClient(httpClient, URI.create(baseUrl), requestTimeout, deadline, hedgeDelay,
+                bulkheadRegistry.bulkhead("erp-client"), meterRegistry);
+    }
+
+    /**
+     * Runs I/O completion and the saga callbacks, which only issue short status UPDATEs.
+     * A few platform threads serve thousands of in-flight calls; in virtual-thread mode every
+     * callback gets its own virtual thread.
+     */
+    private Executor erpClientExecutor() {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("erp-client-", 1).factory());
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(ioThreads, runnable -> {
+            Thread thread = new Thread(runnable, "erp-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "erp.client.stub", havingValue = "true")
+    public ErpClient stubErpClient(@Value("${erp.client.stub-delay-ms:0}") long delayMs) {
+        return new StubErpClient(delayMs);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
+import com.ecommerce.common.config.KeyOrderedKafkaConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+@Import(KeyOrderedKafkaConfig.class)
+public class KafkaConsumerConfig {
+
+    /**
+     * Container factory for {@link com.ecommerce.order.cache.OrderCacheBroadcaster}. Manual acks
+     * that are never given mean no offsets are committed: each start reads from the latest offset,
+     * and a stopped instance leaves no committed group behind.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderCacheListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    @Bean(destroyMethod = "close")
+    public KeyOrderedExecutor paymentResponsesExecutor(
+            @Value("${saga.payment-responses.key-ordered.threads:16}") int threads,
+            @Value("${saga.payment-responses.key-ordered.max-in-flight:1000}") int maxInFlight,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        return KeyOrderedKafkaConfig.keyOrderedExecutor("payment-responses", threads, maxInFlight, virtualThreads, meterRegistry);
+    }
+}
@@ -1,14 +1,26 @@
 package com.ecommerce.order.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class NotificationConfig {
     
+    /**
+     * Used for the Slack webhook. Timeouts bound how long one digest post can hold the alert thread.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${slack.webhook.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${slack.webhook.read-timeout:5s}") Duration readTimeout) {
+        return builder
+            .setConnectTimeout(connectTimeout)
+            .setReadTimeout(readTimeout)
+            .build();
     }
-}
\ No newline at end of file
+}
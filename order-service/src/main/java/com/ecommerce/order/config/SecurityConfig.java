@@ -1,7 +1,11 @@
 package com.ecommerce.order.config;
 
+import com.ecommerce.order.security.CaffeineUserCache;
 import com.ecommerce.order.security.JwtAuthenticationFilter;
 import com.ecommerce.order.security.JwtTokenProvider;
+import com.ecommerce.order.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +15,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,13 +24,22 @@ import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
+
+    @Bean
+    public UserCache userCache(@Value("${auth.user-cache.ttl:60s}") Duration ttl,
+                               @Value("${auth.user-cache.maximum-size:10000}") long maximumSize,
+                               MeterRegistry meterRegistry) {
+        return new CaffeineUserCache(ttl, maximumSize, meterRegistry);
     }
 
     @Bean
@@ -51,10 +65,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                                       UserCache userCache) {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder);
+        // A cached user whose password check fails is reloaded once, so password changes apply at once
+        authenticationProvider.setUserCache(userCache);
 
         return new ProviderManager(authenticationProvider);
     }
@@ -75,6 +92,9 @@ public class SecurityConfig {
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/orders").authenticated()
                         .requestMatchers("/orders/**").authenticated()
+                        .requestMatchers("/customers/summary/rebuild").hasRole("ADMIN")
+                        .requestMatchers("/customers/**").authenticated()
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().permitAll())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
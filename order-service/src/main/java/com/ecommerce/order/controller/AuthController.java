@@ -1,13 +1,23 @@
 package com.ecommerce.order.controller;
 
 import com.ecommerce.order.security.JwtTokenProvider;
+import com.ecommerce.order.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -18,18 +28,74 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
+        Timer.Sample sample = Timer.start();
+        String outcome = "failure";
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),
+                            loginRequest.getPassword()
+                    )
+            );
+
+            String jwt = tokenProvider.generateToken(authentication);
+            String refreshToken = refreshTokenService.issue(authentication.getName());
+            outcome = "success";
+
+            return ResponseEntity.ok(new JwtAuthenticationResponse(jwt, refreshToken));
+        } finally {
+            sample.stop(authTimer("login", outcome));
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access and refresh token pair without a password check.
+     * The presented token is consumed; the user must still exist and be enabled.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshRequest refreshRequest) {
+        Timer.Sample sample = Timer.start();
+        String outcome = "failure";
+        try {
+            Optional<String> username = refreshTokenService.consume(refreshRequest.getRefreshToken());
+            if (username.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            UserDetails user = loadUser(username.get());
+            if (user == null || !user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
 
-        String jwt = tokenProvider.generateToken(authentication);
+            // Authorities come from the reloaded user, so role changes apply on refresh
+            String jwt = tokenProvider.generateToken(user.getUsername(), user.getAuthorities());
+            String refreshToken = refreshTokenService.issue(user.getUsername());
+            outcome = "success";
 
-        return ResponseEntity.ok(new JwtAuthenticationResponse(jwt));
+            return ResponseEntity.ok(new JwtAuthenticationResponse(jwt, refreshToken));
+        } finally {
+            sample.stop(authTimer("refresh", outcome));
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest refreshRequest) {
+        refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/token")
@@ -44,17 +110,39 @@ public class AuthController {
     public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            boolean isValid = tokenProvider.validateToken(token);
+            java.util.Optional<JwtTokenProvider.VerifiedToken> verified = tokenProvider.verify(token);
 
-            if (isValid) {
-                String username = tokenProvider.getUsernameFromToken(token);
-                return ResponseEntity.ok(new ValidationResponse(true, "Token is valid", username));
+            if (verified.isPresent()) {
+                return ResponseEntity.ok(new ValidationResponse(true, "Token is valid", verified.get().username()));
             }
         }
 
         return ResponseEntity.ok(new ValidationResponse(false, "Token is invalid", null));
     }
 
+    private UserDetails loadUser(String username) {
+        UserDetails user = userCache.getUserFromCache(username);
+        if (user != null) {
+            return user;
+        }
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        userCache.putUserInCache(user);
+        return user;
+    }
+
+    private Timer authTimer(String operation, String outcome) {
+        return Timer.builder("auth.requests")
+                .description("Login and token refresh latency")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     public static class LoginRequest {
         private String username;
         private String password;
@@ -87,4 +175,16 @@ public class AuthController {
             this.username = username;
         }
     }
+
+    public static class RefreshRequest {
+        private String refreshToken;
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.service.CustomerSummary;
+import com.ecommerce.order.service.CustomerSummaryService;
+import com.ecommerce.order.service.SummaryRebuild;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/customers")
+public class CustomerController {
+    
+    private final CustomerSummaryService customerSummaryService;
+    
+    public CustomerController(CustomerSummaryService customerSummaryService) {
+        this.customerSummaryService = customerSummaryService;
+    }
+    
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<CustomerSummary> getSummary(@PathVariable String id) {
+        return ResponseEntity.ok(customerSummaryService.getSummary(id));
+    }
+    
+    /**
+     * Starts regenerating the whole projection from the orders table in the background;
+     * poll {@code GET /customers/summary/rebuild} for the result. Admin only.
+     */
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<SummaryRebuild> rebuildSummaries() {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(customerSummaryService.startRebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @GetMapping("/summary/rebuild")
+    public ResponseEntity<SummaryRebuild> getRebuild() {
+        return customerSummaryService.lastRebuild()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
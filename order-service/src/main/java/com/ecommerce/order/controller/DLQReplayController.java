@@ -0,0 +1,58 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.replay.DLQReplayService;
+import com.ecommerce.order.replay.ReplayJob;
+import com.ecommerce.order.replay.ReplayRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for re-driving dead-lettered saga events, see {@link DLQReplayService}.
+ */
+@RestController
+@RequestMapping("/admin/dlq/replays")
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class DLQReplayController {
+    
+    private final DLQReplayService replayService;
+    
+    public DLQReplayController(DLQReplayService replayService) {
+        this.replayService = replayService;
+    }
+    
+    @PostMapping
+    public ResponseEntity<ReplayJob> startReplay(@RequestBody ReplayRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(replayService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<ReplayJob>> listReplays() {
+        return ResponseEntity.ok(replayService.list());
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<ReplayJob> getReplay(@PathVariable String id) {
+        return replayService.get(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelReplay(@PathVariable String id) {
+        return replayService.cancel(id)
+            ? ResponseEntity.accepted().build()
+            : ResponseEntity.notFound().build();
+    }
+}
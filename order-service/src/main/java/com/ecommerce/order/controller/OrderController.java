@@ -1,11 +1,16 @@
 package com.ecommerce.order.controller;
 
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.BatchOrderResult;
+import com.ecommerce.order.service.NewOrder;
+import com.ecommerce.order.service.OrderPage;
 import com.ecommerce.order.service.OrderService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
@@ -23,9 +28,45 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOrderResult> createOrders(@RequestBody BatchCreateOrderRequest request) {
+        if (request.orders() == null || request.orders().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.orders().size() > OrderService.MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        List<NewOrder> newOrders = request.orders().stream()
+            .map(item -> item == null ? null : new NewOrder(item.customerId(), item.amount()))
+            .toList();
+        return ResponseEntity.ok(orderService.createOrders(newOrders));
+    }
+    
     @GetMapping
-    public ResponseEntity<java.util.List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<OrderPage> listOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) String customerId) {
+        try {
+            return ResponseEntity.ok(orderService.listOrders(cursor, limit, status, customerId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Multi-get: {@code GET /orders/batch?ids=a,b,c}. Unknown ids are omitted from the result.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<Order>> getOrders(@RequestParam List<String> ids) {
+        if (ids.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ids.size() > OrderService.MAX_MULTI_GET_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(orderService.getOrders(ids));
     }
     
     @GetMapping("/{id}")
@@ -36,4 +77,6 @@ public class OrderController {
     }
     
     public record CreateOrderRequest(String customerId, BigDecimal amount) {}
+    
+    public record BatchCreateOrderRequest(List<CreateOrderRequest> orders) {}
 }
\ No newline at end of file
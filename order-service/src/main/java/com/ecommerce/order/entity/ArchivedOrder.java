@@ -0,0 +1,32 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Location of an order moved to cold storage: the archive file of its month and the offset of
+ * the compressed block holding it. See {@link com.ecommerce.order.archive.OrderArchiver}.
+ */
+@Entity
+@Table(name = "archived_orders")
+public class ArchivedOrder {
+    @Id
+    private String id;
+    
+    @Column(nullable = false, length = 64)
+    private String archive;
+    
+    @Column(nullable = false)
+    private long blockOffset;
+    
+    public ArchivedOrder() {}
+    
+    public ArchivedOrder(String id, String archive, long blockOffset) {
+        this.id = id;
+        this.archive = archive;
+        this.blockOffset = blockOffset;
+    }
+    
+    public String getId() { return id; }
+    public String getArchive() { return archive; }
+    public long getBlockOffset() { return blockOffset; }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Number and total amount of a customer's archived orders in one status. Written when a
+ * partition is archived; the customer summary rebuild adds these to the live orders.
+ */
+@Entity
+@Table(name = "archived_order_totals")
+@IdClass(CustomerOrderSummary.Key.class)
+public class ArchivedOrderTotal {
+    @Id
+    private String customerId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private Order.OrderStatus status;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    public ArchivedOrderTotal() {}
+    
+    public String getCustomerId() { return customerId; }
+    public Order.OrderStatus getStatus() { return status; }
+    public long getOrderCount() { return orderCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Read model: number and total amount of a customer's orders in one status.
+ * Maintained incrementally by every order insert and status transition; see
+ * {@link com.ecommerce.order.repository.OrderBatchRepository}.
+ */
+@Entity
+@Table(name = "customer_order_summary")
+@IdClass(CustomerOrderSummary.Key.class)
+public class CustomerOrderSummary {
+    @Id
+    private String customerId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private Order.OrderStatus status;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public CustomerOrderSummary() {}
+    
+    public CustomerOrderSummary(String customerId, Order.OrderStatus status, long orderCount, BigDecimal totalAmount) {
+        this.customerId = customerId;
+        this.status = status;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public String getCustomerId() { return customerId; }
+    public Order.OrderStatus getStatus() { return status; }
+    public long getOrderCount() { return orderCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    
+    public static class Key implements Serializable {
+        private String customerId;
+        private Order.OrderStatus status;
+        
+        public Key() {}
+        
+        public Key(String customerId, Order.OrderStatus status) {
+            this.customerId = customerId;
+            this.status = status;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(customerId, key.customerId) && status == key.status;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, status);
+        }
+    }
+}
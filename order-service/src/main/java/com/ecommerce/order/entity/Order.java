@@ -3,6 +3,8 @@ package com.ecommerce.order.entity;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
@@ -22,6 +24,9 @@ public class Order {
     private String sagaId;
     private LocalDateTime createdAt;
     
+    @Version
+    private Long version;
+    
     public Order() {}
     
     public Order(String id, String customerId, BigDecimal amount) {
@@ -44,8 +49,28 @@ public class Order {
     public void setSagaId(String sagaId) { this.sagaId = sagaId; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     
     public enum OrderStatus {
-        PENDING, PAYMENT_PROCESSING, ERP_PROCESSING, COMPLETED, CANCELLED
+        PENDING, PAYMENT_PROCESSING, ERP_PROCESSING, COMPLETED, CANCELLED;
+        
+        /**
+         * Statuses from which an order may legally move into this one.
+         * COMPLETED and CANCELLED are terminal.
+         */
+        public Set<OrderStatus> predecessors() {
+            return switch (this) {
+                case PENDING -> EnumSet.noneOf(OrderStatus.class);
+                case PAYMENT_PROCESSING -> EnumSet.of(PENDING);
+                case ERP_PROCESSING -> EnumSet.of(PAYMENT_PROCESSING);
+                case COMPLETED -> EnumSet.of(PAYMENT_PROCESSING, ERP_PROCESSING);
+                case CANCELLED -> EnumSet.of(PENDING, PAYMENT_PROCESSING, ERP_PROCESSING);
+            };
+        }
+        
+        public boolean isTerminal() {
+            return this == COMPLETED || this == CANCELLED;
+        }
     }
 }
\ No newline at end of file
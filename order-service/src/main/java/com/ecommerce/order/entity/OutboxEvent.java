@@ -0,0 +1,76 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String aggregateId;
+    
+    @Column(nullable = false)
+    private String topic;
+    
+    @Column(nullable = false)
+    private String eventType;
+    
+    @Column(nullable = false, length = 8192)
+    private String payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    /** Start of the saga the event belongs to; null on rows written before the column existed. */
+    private LocalDateTime sagaStartedAt;
+    
+    private LocalDateTime sentAt;
+    
+    /** Failed publish attempts; the row is parked once they reach the relay's limit. */
+    @Column(nullable = false)
+    private int attempts;
+    
+    /** Earliest time of the next attempt after a failure. */
+    private LocalDateTime retryAt;
+    
+    private LocalDateTime parkedAt;
+    
+    public OutboxEvent() {}
+    
+    public OutboxEvent(String aggregateId, String topic, String eventType, String payload, LocalDateTime sagaStartedAt) {
+        this.aggregateId = aggregateId;
+        this.topic = topic;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+        this.sagaStartedAt = sagaStartedAt;
+    }
+    
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getAggregateId() { return aggregateId; }
+    public void setAggregateId(String aggregateId) { this.aggregateId = aggregateId; }
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getSagaStartedAt() { return sagaStartedAt; }
+    public void setSagaStartedAt(LocalDateTime sagaStartedAt) { this.sagaStartedAt = sagaStartedAt; }
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public LocalDateTime getRetryAt() { return retryAt; }
+    public void setRetryAt(LocalDateTime retryAt) { this.retryAt = retryAt; }
+    public LocalDateTime getParkedAt() { return parkedAt; }
+    public void setParkedAt(LocalDateTime parkedAt) { this.parkedAt = parkedAt; }
+}
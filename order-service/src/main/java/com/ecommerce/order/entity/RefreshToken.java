@@ -0,0 +1,39 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Single-use refresh token. Only the SHA-256 hash of the token is stored, so a database dump
+ * cannot be replayed against {@code /auth/refresh}.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt"))
+public class RefreshToken {
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+    
+    @Column(nullable = false, length = 50)
+    private String username;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    public RefreshToken() {}
+    
+    public RefreshToken(String tokenHash, String username, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.username = username;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public String getTokenHash() { return tokenHash; }
+    public String getUsername() { return username; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An in-flight order saga: the step it waits on, how often that step was attempted and when it
+ * times out. The row is deleted when the saga ends, so the table only holds in-flight sagas.
+ * See {@link com.ecommerce.order.saga.SagaStateTracker}.
+ */
+@Entity
+@Table(name = "saga_instances", indexes = @Index(name = "idx_saga_instances_deadline", columnList = "deadline"))
+public class SagaInstance {
+    @Id
+    private String sagaId;
+    
+    @Column(nullable = false, unique = true)
+    private String orderId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SagaStep step;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(nullable = false)
+    private LocalDateTime deadline;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public SagaInstance() {}
+    
+    public SagaInstance(String sagaId, String orderId, SagaStep step, int attempts, LocalDateTime deadline) {
+        this.sagaId = sagaId;
+        this.orderId = orderId;
+        this.step = step;
+        this.attempts = attempts;
+        this.deadline = deadline;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public String getSagaId() { return sagaId; }
+    public String getOrderId() { return orderId; }
+    public SagaStep getStep() { return step; }
+    public int getAttempts() { return attempts; }
+    public LocalDateTime getDeadline() { return deadline; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    
+    public enum SagaStep {
+        /** Waiting for the payment response. */
+        PAYMENT,
+        /** Waiting for the ERP update. */
+        ERP
+    }
+}
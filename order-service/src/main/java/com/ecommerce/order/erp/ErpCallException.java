@@ -0,0 +1,18 @@
+package com.ecommerce.order.erp;
+
+/**
+ * ERP answered with a non-2xx status.
+ */
+public class ErpCallException extends RuntimeException {
+
+    private final int statusCode;
+
+    public ErpCallException(int statusCode) {
+        super("ERP responded with HTTP " + statusCode);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.order.erp;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for the ERP service.
+ * Implementations must never block the calling thread; the saga completes orders from the returned future.
+ */
+public interface ErpClient {
+
+    /**
+     * Pushes the order to ERP.
+     *
+     * @return a future completed normally when ERP accepted the update, or exceptionally with
+     *         {@link ErpCallException}, a timeout, or a bulkhead rejection
+     */
+    CompletableFuture<Void> updateOrder(String orderId);
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.order.erp;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ERP client on the JDK's asynchronous, connection-pooling {@link HttpClient}.
+ *
+ * <ul>
+ *   <li>Every attempt holds a permit of a non-blocking {@link Bulkhead}; calls beyond the
+ *       in-flight limit fail fast instead of queueing.</li>
+ *   <li>Each attempt has its own request timeout and the whole call has a deadline.</li>
+ *   <li>If the first attempt has not answered after {@code hedgeDelay}, a second identical request
+ *       is sent; the first success wins and the other attempt is cancelled. The ERP update is
+ *       keyed by order id, so a duplicate request is harmless.</li>
+ * </ul>
+ */
+public class HttpErpClient implements ErpClient {
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final Duration requestTimeout;
+    private final Duration deadline;
+    private final Duration hedgeDelay;
+    private final Bulkhead bulkhead;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter hedgeCounter;
+
+    public HttpErpClient(HttpClient httpClient, URI baseUri, Duration requestTimeout, Duration deadline,
+                         Duration hedgeDelay, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.requestTimeout = requestTimeout;
+        this.deadline = deadline;
+        this.hedgeDelay = hedgeDelay;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+        this.hedgeCounter = Counter.builder("erp.client.hedged")
+            .description("Hedged second requests sent to ERP")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateOrder(String orderId) {
+        if (!bulkhead.tryAcquirePermission()) {
+            record(0, "rejected");
+            return CompletableFuture.failedFuture(BulkheadFullException.createBulkheadFullException(bulkhead));
+        }
+
+        long start = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(
+                baseUri.resolve("/erp/orders/" + URLEncoder.encode(orderId, StandardCharsets.UTF_8)))
+            .timeout(requestTimeout)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        List<CompletableFuture<?>> attempts = new CopyOnWriteArrayList<>();
+        attempts.add(attempt(request, result, pending));
+
+        if (!hedgeDelay.isZero()) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                // Hedge only while the call is still open and there is spare bulkhead capacity
+                if (!result.isDone() && bulkhead.tryAcquirePermission()) {
+                    pending.incrementAndGet();
+                    hedgeCounter.increment();
+                    attempts.add(attempt(request, result, pending));
+                }
+            });
+        }
+
+        return result
+            .orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((ignored, ex) -> {
+                attempts.forEach(attempt -> attempt.cancel(true));
+                record(System.nanoTime() - start, outcome(ex));
+            });
+    }
+
+    private CompletableFuture<HttpResponse<Void>> attempt(HttpRequest request, CompletableFuture<Void> result,
+                                                          AtomicInteger pending) {
+        CompletableFuture<HttpResponse<Void>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        call.whenComplete((response, ex) -> {
+            bulkhead.onComplete();
+            if (ex == null && response.statusCode() / 100 == 2) {
+                result.complete(null);
+            } else if (pending.decrementAndGet() == 0) {
+                // Last outstanding attempt failed: report its failure
+                result.completeExceptionally(ex != null ? ex : new ErpCallException(response.statusCode()));
+            }
+        });
+        return call;
+    }
+
+    private String outcome(Throwable ex) {
+        if (ex == null) {
+            return "success";
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return "failure";
+    }
+
+    private void record(long nanos, String outcome) {
+        Timer.builder("erp.client.requests")
+            .description("ERP update calls including hedged attempts")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
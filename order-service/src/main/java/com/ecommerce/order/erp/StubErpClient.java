@@ -0,0 +1,25 @@
+package com.ecommerce.order.erp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local ERP stand-in for tests and development ({@code erp.client.stub=true}).
+ * Accepts every update after an optional fixed delay.
+ */
+public class StubErpClient implements ErpClient {
+
+    private final long delayMs;
+
+    public StubErpClient(long delayMs) {
+        this.delayMs = delayMs;
+    }
+
+    @Override
+    public CompletableFuture<Void> updateOrder(String orderId) {
+        if (delayMs <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.order.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Application event published when orders were modified in place, e.g. by a status transition,
+ * so cached copies can be dropped once the transaction commits.
+ */
+public class OrdersChangedApplicationEvent extends ApplicationEvent {
+    
+    private final List<String> orderIds;
+    
+    public OrdersChangedApplicationEvent(Object source, List<String> orderIds) {
+        super(source);
+        this.orderIds = orderIds;
+    }
+    
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.entity.Order;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Application event published once per bulk insert so the saga can start all orders as a batch.
+ */
+public class OrdersCreatedApplicationEvent extends ApplicationEvent {
+    
+    private final List<Order> orders;
+    
+    public OrdersCreatedApplicationEvent(Object source, List<Order> orders) {
+        super(source);
+        this.orders = orders;
+    }
+    
+    public List<Order> getOrders() {
+        return orders;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.order.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the in-memory deadline of an order's saga passes.
+ */
+public class SagaDeadlineExpiredEvent extends ApplicationEvent {
+    
+    private final String orderId;
+    
+    public SagaDeadlineExpiredEvent(Object source, String orderId) {
+        super(source);
+        this.orderId = orderId;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+}
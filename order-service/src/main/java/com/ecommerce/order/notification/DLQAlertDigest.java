@@ -0,0 +1,70 @@
+package com.ecommerce.order.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates dead-lettered events per topic until the next {@link #drain()}. Adding is lock-free
+ * and never blocks. Memory is bounded: counts are exact, but only the first {@code maxSamples}
+ * order ids per topic and window are kept.
+ */
+public class DLQAlertDigest {
+
+    public record TopicSummary(String topic, long count, List<String> sampleOrderIds, String lastError) {}
+
+    private static final class TopicWindow {
+        final AtomicLong count = new AtomicLong();
+        final AtomicInteger sampleSlots = new AtomicInteger();
+        final Queue<String> samples = new ConcurrentLinkedQueue<>();
+        volatile String lastError;
+    }
+
+    private final int maxSamples;
+    private final Map<String, TopicWindow> topics = new ConcurrentSkipListMap<>();
+
+    public DLQAlertDigest(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * @return false if the order id was counted but not kept as a sample
+     */
+    public boolean add(String topic, String orderId, String error) {
+        TopicWindow window = topics.computeIfAbsent(topic, t -> new TopicWindow());
+        window.lastError = error;
+        window.count.incrementAndGet();
+        if (window.sampleSlots.getAndIncrement() < maxSamples) {
+            window.samples.add(orderId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the topics with events since the previous drain, ordered by topic, and starts a new
+     * window. Events added concurrently are counted in this window or the next, never lost.
+     */
+    public List<TopicSummary> drain() {
+        List<TopicSummary> summaries = new ArrayList<>();
+        topics.forEach((topic, window) -> {
+            long count = window.count.getAndSet(0);
+            if (count == 0) {
+                return;
+            }
+            List<String> samples = new ArrayList<>(maxSamples);
+            String orderId;
+            while (samples.size() < maxSamples && (orderId = window.samples.poll()) != null) {
+                samples.add(orderId);
+            }
+            window.sampleSlots.set(window.samples.size());
+            summaries.add(new TopicSummary(topic, count, samples, window.lastError));
+        });
+        return summaries;
+    }
+}
@@ -1,5 +1,8 @@
 package com.ecommerce.order.notification;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -7,43 +10,109 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts DLQ alerts to Slack as one digest per {@code slack.alerts.window}: event counts per topic
+ * with a few sample order ids. {@link #sendDLQAlert} only records the event, so DLQ listeners
+ * never wait for the webhook; the digest is posted from a single background thread, which also
+ * caps the post rate at one per window however many events arrive.
+ */
 @Service
-public class SlackNotificationService {
-    
-    @Value("${slack.webhook.url:}")
-    private String slackWebhookUrl;
-    
+public class SlackNotificationService implements DisposableBean {
+
+    private final String slackWebhookUrl;
     private final RestTemplate restTemplate;
-    
-    public SlackNotificationService(RestTemplate restTemplate) {
+    private final Duration window;
+    private final DLQAlertDigest digest;
+    private final ScheduledExecutorService sender;
+    private final MeterRegistry meterRegistry;
+    private final Counter unsampledCounter;
+
+    public SlackNotificationService(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                                    @Value("${slack.webhook.url:}") String slackWebhookUrl,
+                                    @Value("${slack.alerts.window:30s}") Duration window,
+                                    @Value("${slack.alerts.max-samples:10}") int maxSamples) {
         this.restTemplate = restTemplate;
-        System.out.println("SlackNotificationService created with webhook URL: " + slackWebhookUrl);
+        this.meterRegistry = meterRegistry;
+        this.slackWebhookUrl = slackWebhookUrl;
+        this.window = window;
+        this.digest = new DLQAlertDigest(maxSamples);
+        this.unsampledCounter = Counter.builder("dlq.alerts.unsampled")
+            .description("DLQ events counted in a digest without their order id")
+            .register(meterRegistry);
+        if (slackWebhookUrl.isEmpty()) {
+            this.sender = null;
+        } else {
+            this.sender = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("slack-alerts").daemon().factory());
+            // Fixed delay: a slow webhook postpones the next digest, which then covers a longer window
+            sender.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        System.out.println("SlackNotificationService created, webhook configured: " + !slackWebhookUrl.isEmpty());
     }
-    
+
+    /**
+     * Records a dead-lettered event for the next digest. Never blocks.
+     */
     public void sendDLQAlert(String topic, String orderId, String error) {
-        if (slackWebhookUrl.isEmpty()) {
+        meterRegistry.counter("dlq.alerts.received", "topic", topic).increment();
+        if (sender == null) {
             return;
         }
-        
-        String message = String.format(
-            "🚨 *DLQ Alert* 🚨\n" +
-            "Topic: `%s`\n" +
-            "Order ID: `%s`\n" +
-            "Error: %s", 
-            topic, orderId, error
-        );
-        
-        SlackMessage slackMessage = new SlackMessage(message);
-        
+        if (!digest.add(topic, orderId, error)) {
+            unsampledCounter.increment();
+        }
+    }
+
+    void flush() {
+        List<DLQAlertDigest.TopicSummary> summaries = digest.drain();
+        if (summaries.isEmpty()) {
+            return;
+        }
+
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
-        
+
         try {
-            restTemplate.postForEntity(slackWebhookUrl, new HttpEntity<>(slackMessage, headers), String.class);
+            restTemplate.postForEntity(slackWebhookUrl, new HttpEntity<>(new SlackMessage(format(summaries, window)), headers),
+                String.class);
+            meterRegistry.counter("dlq.alerts.digests", "outcome", "sent").increment();
         } catch (Exception ex) {
+            // Not retried: the next digest reports the next window, and the counts stay in dlq.alerts.received
+            meterRegistry.counter("dlq.alerts.digests", "outcome", "failed").increment();
             System.err.println("Failed to send Slack notification: " + ex.getMessage());
         }
     }
-    
+
+    static String format(List<DLQAlertDigest.TopicSummary> summaries, Duration window) {
+        long total = summaries.stream().mapToLong(DLQAlertDigest.TopicSummary::count).sum();
+        StringBuilder message = new StringBuilder()
+            .append("🚨 *DLQ Alert* 🚨\n")
+            .append(total).append(" events dead-lettered in the last ").append(window.toSeconds()).append("s");
+        for (DLQAlertDigest.TopicSummary summary : summaries) {
+            message.append("\nTopic: `").append(summary.topic()).append("`: ").append(summary.count())
+                .append(" (").append(summary.lastError()).append(")\n  Order IDs: ");
+            summary.sampleOrderIds().forEach(orderId -> message.append('`').append(orderId).append("` "));
+            long more = summary.count() - summary.sampleOrderIds().size();
+            if (more > 0) {
+                message.append("and ").append(more).append(" more");
+            }
+        }
+        return message.toString();
+    }
+
+    @Override
+    public void destroy() {
+        if (sender != null) {
+            sender.shutdown();
+            flush();
+        }
+    }
+
     private record SlackMessage(String text) {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.order.outbox;
+
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes saga events to the outbox table as part of the caller's transaction.
+ * {@link OutboxRelay} publishes them to Kafka after commit. Each row keeps the start of its saga,
+ * the order's creation, so retries and compensations enqueued later are timed from the same start.
+ */
+@Service
+public class OutboxPublisher {
+    
+    private final OutboxRepository outboxRepository;
+    private final ObjectWriter eventWriter;
+    
+    public OutboxPublisher(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.eventWriter = objectMapper.writerFor(OrderEvent.class);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, Order order, OrderEvent event) {
+        outboxRepository.save(toOutboxEvent(topic, event, order.getCreatedAt()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(String topic, List<Order> orders, Function<Order, ? extends OrderEvent> toEvent) {
+        outboxRepository.saveAll(orders.stream()
+            .map(order -> toOutboxEvent(topic, toEvent.apply(order), order.getCreatedAt()))
+            .toList());
+    }
+    
+    OutboxEvent toOutboxEvent(String topic, OrderEvent event, LocalDateTime sagaStartedAt) {
+        try {
+            return new OutboxEvent(event.getOrderId(), topic, event.getClass().getSimpleName(),
+                eventWriter.writeValueAsString(event), sagaStartedAt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+}
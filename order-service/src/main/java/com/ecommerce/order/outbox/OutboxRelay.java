@@ -0,0 +1,225 @@
+package com.ecommerce.order.outbox;
+
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.common.saga.SagaTimers;
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to Kafka in batches.
+ * Each batch is locked with SKIP LOCKED, published as keyed records with the sends pipelined,
+ * and the acknowledged rows are marked sent with a single UPDATE in the same transaction.
+ * A batch holds at most one row per order, so a row that fails holds back the order's later rows
+ * until it is sent. Failed rows are retried with exponential backoff and parked after
+ * {@code outbox.relay.max-attempts}; a parked row stays in the table for an operator.
+ * Records carry {@link SagaHeaders} with the saga start stored on the row, which is the order's
+ * creation also for recovery's retries and compensations.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class OutboxRelay {
+    
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter parkedCounter;
+    private final Timer batchTimer;
+    private final Timer relayDelayTimer;
+    private final SagaTimers sagaTimers;
+    
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+    
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+    
+    @Value("${outbox.relay.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMs;
+    
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+    
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        
+        TimeGauge.builder("outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest unsent outbox row at the last poll")
+            .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+            .description("Outbox rows published to Kafka")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+            .description("Outbox rows that failed to publish and will be retried")
+            .register(meterRegistry);
+        this.parkedCounter = Counter.builder("outbox.relay.parked")
+            .description("Outbox rows given up on after max-attempts failed publishes")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+            .description("Time to lock, publish and mark one outbox batch")
+            .register(meterRegistry);
+        this.relayDelayTimer = Timer.builder("outbox.relay.delay")
+            .description("Time from outbox insert to Kafka acknowledgement")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.sagaTimers = new SagaTimers(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:50}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception ex) {
+            System.err.println("Outbox relay failed: " + ex.getMessage());
+        }
+    }
+    
+    /**
+     * Publishes one batch and returns the number of rows marked sent.
+     */
+    int relayBatch() {
+        Timer.Sample sample = Timer.start();
+        Integer sent = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxRepository.lockNextBatch(LocalDateTime.now(), batchSize);
+            if (batch.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+            
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (OutboxEvent row : batch) {
+                sends.add(send(row));
+            }
+            
+            List<Long> sentIds = awaitAcknowledged(batch, sends);
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markSent(sentIds, LocalDateTime.now());
+            }
+            if (sentIds.size() < batch.size()) {
+                scheduleRetries(batch, sentIds);
+            }
+            publishedCounter.increment(sentIds.size());
+            return sentIds.size();
+        });
+        sample.stop(batchTimer);
+        return sent != null ? sent : 0;
+    }
+    
+    private CompletableFuture<?> send(OutboxEvent row) {
+        try {
+            OrderEvent event = objectMapper.readValue(row.getPayload(), OrderEvent.class);
+            ProducerRecord<String, Object> record = new ProducerRecord<>(row.getTopic(), row.getAggregateId(), event);
+            // Rows written before saga_started_at existed fall back to their insert time
+            LocalDateTime sagaStartedAt = row.getSagaStartedAt() != null ? row.getSagaStartedAt() : row.getCreatedAt();
+            SagaHeaders.stamp(record.headers(), sagaStartedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            return kafkaTemplate.send(record);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private List<Long> awaitAcknowledged(List<OutboxEvent> batch, List<CompletableFuture<?>> sends) {
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent row = batch.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(row.getId());
+                Duration delay = Duration.between(row.getCreatedAt(), LocalDateTime.now());
+                relayDelayTimer.record(delay);
+                sagaTimers.stage(row.getTopic() + ".outbox", "published", delay.toNanos());
+            } catch (ExecutionException | TimeoutException e) {
+                System.err.println("Outbox publish failed for row " + row.getId() + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return sentIds;
+    }
+    
+    /**
+     * Counts the attempt of each failed row and either backs it off or parks it.
+     */
+    private void scheduleRetries(List<OutboxEvent> batch, List<Long> sentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> sent = new HashSet<>(sentIds);
+        List<OutboxEvent> failed = new ArrayList<>(batch.size() - sent.size());
+        for (OutboxEvent row : batch) {
+            if (sent.contains(row.getId())) {
+                continue;
+            }
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            if (attempts >= maxAttempts) {
+                row.setParkedAt(now);
+                parkedCounter.increment();
+                System.err.println("Outbox row " + row.getId() + " for " + row.getAggregateId()
+                    + " parked after " + attempts + " failed attempts");
+            } else {
+                long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+                row.setRetryAt(now.plus(Duration.ofMillis(backoffMs)));
+                failedCounter.increment();
+            }
+            failed.add(row);
+        }
+        outboxRepository.saveAll(failed);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgeSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteSentBefore(cutoff));
+    }
+}
@@ -0,0 +1,360 @@
+package com.ecommerce.order.replay;
+
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Re-drives dead-lettered saga events after an incident. A replay reads one DLQ topic between
+ * a start and an end position with a consumer in its own group, {@code dlq-replay-<job id>}. The
+ * consumer assigns partitions itself and never commits offsets, so it does not disturb the alerting
+ * listeners. The end offsets are fixed when the replay starts. Matching events are republished to
+ * the topic the DLQ belongs to, or to another source topic if the request names one.
+ *
+ * <p>Load on downstream services is bounded three ways: a rate limit per replay, a cap on
+ * unacknowledged sends, and at most {@code dlq.replay.max-concurrent-jobs} replays at a time.
+ * An event is skipped if its order is missing, COMPLETED or CANCELLED, in a status that was not
+ * requested, or was already replayed with the same event type by this job.
+ */
+@Service
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class DLQReplayService implements DisposableBean {
+
+    /** Topic each DLQ's events were originally consumed from. */
+    static final Map<String, String> SOURCE_TOPICS = Map.of(
+        "saga-operations-dlq", "payment-responses",
+        "payment-responses-dlq", "payment-responses",
+        "erp-responses-dlq", "erp-responses",
+        "saga-start-dlq", "payment-requests");
+
+    public static final String REPLAY_JOB_HEADER = "dlq-replay-job";
+
+    private static final Map<Class<?>, String> EVENT_TYPES = Arrays.stream(
+            OrderEvent.class.getAnnotation(JsonSubTypes.class).value())
+        .collect(Collectors.toMap(JsonSubTypes.Type::value, JsonSubTypes.Type::name));
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OrderService orderService;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrentJobs;
+    private final int defaultRate;
+    private final int maxRate;
+    private final int maxInFlight;
+    private final int history;
+    private final ExecutorService replayThreads;
+    private final Map<String, ReplayJob> jobs = new LinkedHashMap<>();
+
+    public DLQReplayService(ConsumerFactory<Object, Object> consumerFactory, KafkaTemplate<String, Object> kafkaTemplate,
+                            OrderService orderService, MeterRegistry meterRegistry,
+                            @Value("${dlq.replay.max-concurrent-jobs:1}") int maxConcurrentJobs,
+                            @Value("${dlq.replay.default-rate:50}") int defaultRate,
+                            @Value("${dlq.replay.max-rate:500}") int maxRate,
+                            @Value("${dlq.replay.max-in-flight:100}") int maxInFlight,
+                            @Value("${dlq.replay.history:20}") int history) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.orderService = orderService;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        this.defaultRate = defaultRate;
+        this.maxRate = maxRate;
+        this.maxInFlight = maxInFlight;
+        this.history = history;
+        this.replayThreads = Executors.newFixedThreadPool(maxConcurrentJobs,
+            Thread.ofPlatform().name("dlq-replay-", 1).daemon().factory());
+    }
+
+    /**
+     * Validates the request and starts the replay in the background.
+     *
+     * @throws IllegalArgumentException if the topic is not a known DLQ, the target is not a source
+     *                                  topic, or the rate is out of range
+     * @throws IllegalStateException if {@code dlq.replay.max-concurrent-jobs} replays are running
+     */
+    public ReplayJob start(ReplayRequest request) {
+        if (request.topic() == null || !SOURCE_TOPICS.containsKey(request.topic())) {
+            throw new IllegalArgumentException("Not a DLQ topic: " + request.topic() + ", expected one of " + SOURCE_TOPICS.keySet());
+        }
+        int rate = request.ratePerSecond() != null ? request.ratePerSecond() : defaultRate;
+        if (rate < 1 || rate > maxRate) {
+            throw new IllegalArgumentException("ratePerSecond must be between 1 and " + maxRate);
+        }
+        String target = request.targetTopic() != null ? request.targetTopic() : SOURCE_TOPICS.get(request.topic());
+        if (!SOURCE_TOPICS.containsValue(target)) {
+            throw new IllegalArgumentException("Not a source topic: " + target + ", expected one of "
+                + new HashSet<>(SOURCE_TOPICS.values()));
+        }
+
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), request, target, rate);
+        synchronized (jobs) {
+            long active = jobs.values().stream().filter(j -> !j.isFinished()).count();
+            if (active >= maxConcurrentJobs) {
+                throw new IllegalStateException(active + " replay(s) already running");
+            }
+            jobs.put(job.getId(), job);
+            evictFinished();
+        }
+        replayThreads.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<ReplayJob> get(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    public List<ReplayJob> list() {
+        synchronized (jobs) {
+            return List.copyOf(jobs.values());
+        }
+    }
+
+    /**
+     * Stops the replay after the events already handed to Kafka are acknowledged.
+     *
+     * @return false if there is no such replay
+     */
+    public boolean cancel(String id) {
+        Optional<ReplayJob> job = get(id);
+        job.ifPresent(ReplayJob::requestCancel);
+        return job.isPresent();
+    }
+
+    private void evictFinished() {
+        Iterator<ReplayJob> oldest = jobs.values().iterator();
+        while (jobs.size() > history && oldest.hasNext()) {
+            if (oldest.next().isFinished()) {
+                oldest.remove();
+            }
+        }
+    }
+
+    void run(ReplayJob job) {
+        ReplayRequest request = job.getRequest();
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(
+                "dlq-replay-" + job.getId(), "dlq-replay-" + job.getId(), null, overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(request.topic()).stream()
+                .map(PartitionInfo::partition)
+                .filter(partition -> request.partition() == null || request.partition() == partition)
+                .map(partition -> new TopicPartition(request.topic(), partition))
+                .toList();
+            consumer.assign(partitions);
+
+            Map<TopicPartition, Long> end = endOffsets(consumer, partitions, request.toTime());
+            Map<TopicPartition, Long> start = startOffsets(consumer, partitions, request, end);
+            List<TopicPartition> remaining = new ArrayList<>();
+            long total = 0;
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, start.get(partition));
+                if (start.get(partition) < end.get(partition)) {
+                    remaining.add(partition);
+                    total += end.get(partition) - start.get(partition);
+                }
+            }
+            job.running(total);
+            System.out.println("Replaying " + total + " records from " + request.topic() + " to " + job.getTargetTopic()
+                + " at " + job.getRatePerSecond() + "/s (job " + job.getId() + ")");
+
+            RateLimiter rateLimiter = rateLimiter(job);
+            Semaphore inFlight = new Semaphore(maxInFlight);
+            Set<String> replayed = new HashSet<>();
+            while (!remaining.isEmpty() && !job.isCancelRequested()) {
+                List<ConsumerRecord<Object, Object>> batch = new ArrayList<>();
+                for (ConsumerRecord<Object, Object> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() < end.get(new TopicPartition(record.topic(), record.partition()))) {
+                        batch.add(record);
+                    }
+                }
+                replayBatch(job, batch, replayed, rateLimiter, inFlight);
+
+                List<TopicPartition> done = remaining.stream()
+                    .filter(partition -> consumer.position(partition) >= end.get(partition))
+                    .toList();
+                consumer.pause(done);
+                remaining.removeAll(done);
+            }
+
+            // Let pending sends finish so the counters are final
+            if (!inFlight.tryAcquire(maxInFlight, 2, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Timed out waiting for republished events to be acknowledged");
+            }
+            job.finish(job.isCancelRequested() ? ReplayJob.State.CANCELLED : ReplayJob.State.COMPLETED, null);
+            System.out.println("Replay " + job.getId() + " " + job.getState() + ": " + job.getRepublished()
+                + " republished, " + job.getFailed() + " failed, skipped " + job.getSkipped());
+        } catch (Exception e) {
+            System.err.println("Replay " + job.getId() + " failed: " + e.getMessage());
+            job.finish(ReplayJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void replayBatch(ReplayJob job, List<ConsumerRecord<Object, Object>> batch, Set<String> replayed,
+                             RateLimiter rateLimiter, Semaphore inFlight) throws InterruptedException {
+        ReplayRequest request = job.getRequest();
+        List<OrderEvent> candidates = new ArrayList<>(batch.size());
+        for (ConsumerRecord<Object, Object> record : batch) {
+            job.scanned();
+            if (!(record.value() instanceof OrderEvent event) || event.getOrderId() == null) {
+                skip(job, "unreadable");
+            } else if (request.eventTypes() != null && !request.eventTypes().isEmpty()
+                    && !request.eventTypes().contains(EVENT_TYPES.get(event.getClass()))) {
+                skip(job, "event-type");
+            } else {
+                candidates.add(event);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One lookup per poll; served from the order cache where possible
+        Map<String, Order> orders = orderService.getOrders(candidates.stream().map(OrderEvent::getOrderId).toList())
+            .stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a, HashMap::new));
+
+        for (OrderEvent event : candidates) {
+            Order order = orders.get(event.getOrderId());
+            if (order == null) {
+                skip(job, "missing");
+            } else if (order.getStatus().isTerminal()) {
+                skip(job, "terminal");
+            } else if (request.statuses() != null && !request.statuses().isEmpty()
+                    && !request.statuses().contains(order.getStatus())) {
+                skip(job, "status");
+            } else if (!replayed.add(event.getOrderId() + "/" + EVENT_TYPES.get(event.getClass()))) {
+                skip(job, "duplicate");
+            } else if (request.dryRun()) {
+                job.dryRunMatch();
+            } else {
+                send(job, event, rateLimiter, inFlight);
+            }
+        }
+    }
+
+    private void send(ReplayJob job, OrderEvent event, RateLimiter rateLimiter, Semaphore inFlight)
+            throws InterruptedException {
+        RateLimiter.waitForPermission(rateLimiter);
+        inFlight.acquire();
+        ProducerRecord<String, Object> record = new ProducerRecord<>(job.getTargetTopic(), event.getOrderId(), event);
+        record.headers().add(REPLAY_JOB_HEADER, job.getId().getBytes(StandardCharsets.UTF_8));
+        kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            inFlight.release();
+            if (ex == null) {
+                job.republished();
+                count(job, "republished");
+            } else {
+                job.failed();
+                count(job, "failed");
+                System.err.println("Replay " + job.getId() + " could not republish order " + event.getOrderId() + ": " + ex.getMessage());
+            }
+        });
+    }
+
+    private void skip(ReplayJob job, String reason) {
+        job.skipped(reason);
+        count(job, "skipped");
+    }
+
+    private void count(ReplayJob job, String outcome) {
+        meterRegistry.counter("dlq.replay.records", "topic", job.getRequest().topic(), "outcome", outcome).increment();
+    }
+
+    /**
+     * Permits are refreshed every 100 ms so a replay sends at a steady pace instead of a burst
+     * at the start of every second.
+     */
+    private RateLimiter rateLimiter(ReplayJob job) {
+        int rate = job.getRatePerSecond();
+        RateLimiterConfig config = rate >= 10
+            ? RateLimiterConfig.custom().limitRefreshPeriod(Duration.ofMillis(100)).limitForPeriod(rate / 10)
+                .timeoutDuration(Duration.ofMinutes(1)).build()
+            : RateLimiterConfig.custom().limitRefreshPeriod(Duration.ofSeconds(1)).limitForPeriod(rate)
+                .timeoutDuration(Duration.ofMinutes(1)).build();
+        return RateLimiter.of("dlq-replay-" + job.getId(), config);
+    }
+
+    private static Map<TopicPartition, Long> endOffsets(Consumer<Object, Object> consumer, List<TopicPartition> partitions,
+                                                        Instant toTime) {
+        Map<TopicPartition, Long> end = new HashMap<>(consumer.endOffsets(partitions));
+        if (toTime != null) {
+            Map<TopicPartition, OffsetAndTimestamp> byTime = consumer.offsetsForTimes(
+                partitions.stream().collect(Collectors.toMap(Function.identity(), partition -> toTime.toEpochMilli())));
+            byTime.forEach((partition, offset) -> {
+                if (offset != null) {
+                    end.put(partition, Math.min(end.get(partition), offset.offset()));
+                }
+            });
+        }
+        return end;
+    }
+
+    private static Map<TopicPartition, Long> startOffsets(Consumer<Object, Object> consumer, List<TopicPartition> partitions,
+                                                          ReplayRequest request, Map<TopicPartition, Long> end) {
+        Map<TopicPartition, Long> start = new HashMap<>(consumer.beginningOffsets(partitions));
+        if (request.fromOffset() != null) {
+            partitions.forEach(partition -> start.put(partition, Math.max(start.get(partition), request.fromOffset())));
+        } else if (request.fromTime() != null) {
+            Map<TopicPartition, OffsetAndTimestamp> byTime = consumer.offsetsForTimes(
+                partitions.stream().collect(Collectors.toMap(Function.identity(), partition -> request.fromTime().toEpochMilli())));
+            // No record at or after fromTime: nothing to replay in that partition
+            partitions.forEach(partition -> {
+                OffsetAndTimestamp offset = byTime.get(partition);
+                start.put(partition, offset != null ? offset.offset() : end.get(partition));
+            });
+        }
+        partitions.forEach(partition -> start.put(partition, Math.min(start.get(partition), end.get(partition))));
+        return start;
+    }
+
+    @Override
+    public void destroy() {
+        list().forEach(ReplayJob::requestCancel);
+        replayThreads.shutdown();
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.order.replay;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one DLQ replay. Counters are updated by the replay thread and read by the admin
+ * endpoint while it runs.
+ */
+public class ReplayJob {
+
+    public enum State { PENDING, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final String id;
+    private final ReplayRequest request;
+    private final String targetTopic;
+    private final int ratePerSecond;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong republished = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dryRunMatches = new AtomicLong();
+    private final Map<String, AtomicLong> skipped = new ConcurrentHashMap<>();
+    private volatile State state = State.PENDING;
+    private volatile long total;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    ReplayJob(String id, ReplayRequest request, String targetTopic, int ratePerSecond) {
+        this.id = id;
+        this.request = request;
+        this.targetTopic = targetTopic;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public String getId() { return id; }
+    public ReplayRequest getRequest() { return request; }
+    public String getTargetTopic() { return targetTopic; }
+    public int getRatePerSecond() { return ratePerSecond; }
+    public State getState() { return state; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+    /** Records between the start and end offsets when the replay started. */
+    public long getTotal() { return total; }
+    public long getScanned() { return scanned.get(); }
+    public long getRepublished() { return republished.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getDryRunMatches() { return dryRunMatches.get(); }
+
+    public Map<String, Long> getSkipped() {
+        Map<String, Long> counts = new TreeMap<>();
+        skipped.forEach((reason, count) -> counts.put(reason, count.get()));
+        return counts;
+    }
+
+    public double getProgress() {
+        if (state == State.COMPLETED) {
+            return 1.0;
+        }
+        return total == 0 ? 0.0 : Math.min(1.0, (double) scanned.get() / total);
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.CANCELLED || state == State.FAILED;
+    }
+
+    void running(long total) {
+        this.total = total;
+        this.state = State.RUNNING;
+    }
+
+    void scanned() { scanned.incrementAndGet(); }
+    void republished() { republished.incrementAndGet(); }
+    void failed() { failed.incrementAndGet(); }
+    void dryRunMatch() { dryRunMatches.incrementAndGet(); }
+
+    void skipped(String reason) {
+        skipped.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    void requestCancel() { cancelRequested = true; }
+    boolean isCancelRequested() { return cancelRequested; }
+
+    void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+}
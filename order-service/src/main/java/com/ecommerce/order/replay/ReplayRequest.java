@@ -0,0 +1,33 @@
+package com.ecommerce.order.replay;
+
+import com.ecommerce.order.entity.Order;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * What to replay from a DLQ topic. All fields except {@code topic} are optional.
+ *
+ * @param targetTopic   where to republish, one of the DLQs' source topics; defaults to the topic
+ *                      the DLQ belongs to
+ * @param partition     only this partition of the DLQ topic
+ * @param fromOffset    first offset, in every selected partition
+ * @param fromTime      first record at or after this time; ignored if {@code fromOffset} is set
+ * @param toTime        stop before the first record at or after this time
+ * @param eventTypes    event type names as in the JSON {@code type} field, e.g. {@code PAYMENT_PROCESSED}
+ * @param statuses      only orders currently in one of these statuses; COMPLETED and CANCELLED
+ *                      orders are always skipped
+ * @param ratePerSecond republish rate, at most {@code dlq.replay.max-rate}
+ * @param dryRun        count what would be replayed without sending anything
+ */
+public record ReplayRequest(
+    String topic,
+    String targetTopic,
+    Integer partition,
+    Long fromOffset,
+    Instant fromTime,
+    Instant toTime,
+    Set<String> eventTypes,
+    Set<Order.OrderStatus> statuses,
+    Integer ratePerSecond,
+    boolean dryRun) {}
@@ -0,0 +1,9 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, String> {
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.CustomerOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerOrderSummaryRepository extends JpaRepository<CustomerOrderSummary, CustomerOrderSummary.Key> {
+
+    /**
+     * At most one row per status, read by primary key prefix.
+     */
+    List<CustomerOrderSummary> findByCustomerId(String customerId);
+}
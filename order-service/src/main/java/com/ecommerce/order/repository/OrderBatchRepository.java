@@ -0,0 +1,41 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk insert and update fragment for {@link OrderRepository}.
+ * Every write here also maintains the {@code customer_order_summary} projection in the same transaction.
+ */
+public interface OrderBatchRepository {
+
+    /**
+     * Persists new orders without the per-entity SELECT that {@code save} issues for assigned ids.
+     * Inserts are flushed in JDBC batches of {@code hibernate.jdbc.batch_size}.
+     */
+    void insertAll(List<Order> orders);
+
+    /**
+     * Adds new orders to the customer summary as PENDING, one batched upsert per customer.
+     */
+    void addToSummary(List<Order> orders);
+
+    /**
+     * Single-statement conditional status transition that also moves the order between the
+     * status rows of its customer's summary.
+     * Returns 1 when the order was in one of the {@code expected} statuses and moved to {@code target},
+     * 0 when it does not exist or the transition is not legal from its current status.
+     */
+    int transition(String id, Collection<Order.OrderStatus> expected, Order.OrderStatus target);
+
+    /**
+     * Applies conditional status transitions with one statement per run of consecutive
+     * transitions to the same target status, which returns the ids it changed.
+     * Element {@code i} of the result is true if {@code transitions.get(i)} was applied.
+     * Transitions are executed in list order, so a second event for the same order
+     * in one batch sees the status written by the first.
+     */
+    boolean[] transitionAll(List<StatusTransition> transitions);
+}
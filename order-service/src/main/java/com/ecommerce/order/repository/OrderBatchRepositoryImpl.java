@@ -0,0 +1,230 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class OrderBatchRepositoryImpl implements OrderBatchRepository {
+
+    /**
+     * Locks the order if its status is still one of the expected ones, updates it, and moves it
+     * from the old to the new status row of the customer summary, in one round trip.
+     * FOR UPDATE re-checks the status against the latest committed row, so concurrent transitions
+     * of one order serialize and the summary sees each move exactly once.
+     * The update matches the full (id, created_at) primary key, so it touches only the order's
+     * monthly partition. Parameters: id, expected statuses..., target.
+     */
+    private static final String TRANSITION_SQL = """
+            WITH prev AS (
+                SELECT id, created_at, status, customer_id, amount FROM orders
+                WHERE id = ? AND status IN (%s)
+                FOR UPDATE
+            ), changed AS (
+                UPDATE orders o SET status = ?, version = o.version + 1
+                FROM prev WHERE o.id = prev.id AND o.created_at = prev.created_at
+                RETURNING prev.status AS old_status, prev.customer_id, prev.amount, o.status AS new_status
+            ), moved_out AS (
+                UPDATE customer_order_summary s
+                SET order_count = s.order_count - 1, total_amount = s.total_amount - changed.amount,
+                    updated_at = CURRENT_TIMESTAMP
+                FROM changed
+                WHERE s.customer_id = changed.customer_id AND s.status = changed.old_status
+            )
+            INSERT INTO customer_order_summary (customer_id, status, order_count, total_amount, updated_at)
+            SELECT customer_id, new_status, 1, amount, CURRENT_TIMESTAMP FROM changed
+            ON CONFLICT (customer_id, status) DO UPDATE
+            SET order_count = customer_order_summary.order_count + 1,
+                total_amount = customer_order_summary.total_amount + EXCLUDED.total_amount,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    /**
+     * {@link #TRANSITION_SQL} for a run of orders with the same target, returning the ids that
+     * were updated. Locks are taken in id order; summary moves are aggregated per customer so each
+     * summary row is updated once. Parameters: ids array, expected statuses..., target.
+     */
+    private static final String TRANSITION_RUN_SQL = """
+            WITH prev AS (
+                SELECT id, created_at, status, customer_id, amount FROM orders
+                WHERE id = ANY(?::text[]) AND status IN (%s)
+                ORDER BY id
+                FOR UPDATE
+            ), changed AS (
+                UPDATE orders o SET status = ?, version = o.version + 1
+                FROM prev WHERE o.id = prev.id AND o.created_at = prev.created_at
+                RETURNING o.id, prev.status AS old_status, prev.customer_id, prev.amount, o.status AS new_status
+            ), moves AS (
+                SELECT customer_id, old_status, new_status, count(*) AS order_count, sum(amount) AS total_amount
+                FROM changed GROUP BY customer_id, old_status, new_status
+            ), moved_out AS (
+                UPDATE customer_order_summary s
+                SET order_count = s.order_count - moves.order_count, total_amount = s.total_amount - moves.total_amount,
+                    updated_at = CURRENT_TIMESTAMP
+                FROM moves
+                WHERE s.customer_id = moves.customer_id AND s.status = moves.old_status
+            ), moved_in AS (
+                INSERT INTO customer_order_summary (customer_id, status, order_count, total_amount, updated_at)
+                SELECT customer_id, new_status, sum(order_count), sum(total_amount), CURRENT_TIMESTAMP
+                FROM moves GROUP BY customer_id, new_status
+                ON CONFLICT (customer_id, status) DO UPDATE
+                SET order_count = customer_order_summary.order_count + EXCLUDED.order_count,
+                    total_amount = customer_order_summary.total_amount + EXCLUDED.total_amount,
+                    updated_at = EXCLUDED.updated_at
+            )
+            SELECT id FROM changed
+            """;
+
+    private static final String ADD_TO_SUMMARY_SQL = """
+            INSERT INTO customer_order_summary (customer_id, status, order_count, total_amount, updated_at)
+            VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (customer_id, status) DO UPDATE
+            SET order_count = customer_order_summary.order_count + EXCLUDED.order_count,
+                total_amount = customer_order_summary.total_amount + EXCLUDED.total_amount,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    /**
+     * Shared transaction lock on the rebuild chunks of the given customers, taken in chunk order,
+     * so {@code CustomerSummaryService.rebuild} cannot overwrite the increments that follow.
+     * Parameters: chunks, customer ids.
+     */
+    private static final String LOCK_SUMMARY_CHUNKS_SQL = """
+            SELECT pg_advisory_xact_lock_shared(hashtext('customer_order_summary'), chunk)
+            FROM (SELECT DISTINCT mod(hashtext(customer_id) & 2147483647, ?) AS chunk
+                  FROM unnest(?::text[]) AS customer_id) chunks
+            ORDER BY chunk
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @Value("${customer-summary.rebuild.chunks:16}")
+    private int summaryChunks;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Order> orders) {
+        for (int i = 0; i < orders.size(); i++) {
+            entityManager.persist(orders.get(i));
+            // Flush each full JDBC batch and release it from the persistence context
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+    }
+
+    @Override
+    public void addToSummary(List<Order> orders) {
+        // Aggregate per customer first: a bulk insert for one customer becomes a single upsert,
+        // and upserting in customer order avoids deadlocks between concurrent bulk inserts
+        Map<String, List<Order>> byCustomer = orders.stream()
+            .collect(Collectors.groupingBy(Order::getCustomerId, TreeMap::new, Collectors.toList()));
+
+        String[] customerIds = byCustomer.keySet().toArray(new String[0]);
+        jdbcTemplate.query(LOCK_SUMMARY_CHUNKS_SQL, ps -> {
+            ps.setInt(1, summaryChunks);
+            ps.setArray(2, ps.getConnection().createArrayOf("text", customerIds));
+        }, rs -> {});
+
+        List<Object[]> args = new ArrayList<>(byCustomer.size());
+        byCustomer.forEach((customerId, customerOrders) -> args.add(new Object[] {
+            customerId,
+            Order.OrderStatus.PENDING.name(),
+            customerOrders.size(),
+            customerOrders.stream().map(Order::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)
+        }));
+        jdbcTemplate.batchUpdate(ADD_TO_SUMMARY_SQL, args);
+    }
+
+    @Override
+    public int transition(String id, Collection<Order.OrderStatus> expected, Order.OrderStatus target) {
+        if (expected.isEmpty()) {
+            return 0;
+        }
+        // Pending JPA changes must reach the database before the JDBC update reads it
+        entityManager.flush();
+        return jdbcTemplate.update(transitionSql(expected.size()), transitionArgs(id, expected, target));
+    }
+
+    @Override
+    public boolean[] transitionAll(List<StatusTransition> transitions) {
+        boolean[] applied = new boolean[transitions.size()];
+        // Pending JPA changes must reach the database before the JDBC updates read it
+        entityManager.flush();
+
+        // Consecutive transitions with the same target share one statement
+        int start = 0;
+        while (start < transitions.size()) {
+            Order.OrderStatus target = transitions.get(start).target();
+            int end = start + 1;
+            while (end < transitions.size() && transitions.get(end).target() == target) {
+                end++;
+            }
+            applyRun(transitions.subList(start, end), target, applied, start);
+            start = end;
+        }
+        return applied;
+    }
+
+    private void applyRun(List<StatusTransition> run, Order.OrderStatus target, boolean[] applied, int offset) {
+        Set<Order.OrderStatus> expected = target.predecessors();
+        if (expected.isEmpty()) {
+            return;
+        }
+
+        String[] ids = run.stream().map(StatusTransition::orderId).toArray(String[]::new);
+        String sql = String.format(TRANSITION_RUN_SQL, String.join(", ", Collections.nCopies(expected.size(), "?")));
+        // The changed ids come back from the statement itself, so no update count has to be trusted
+        Set<String> changed = new HashSet<>(jdbcTemplate.query(sql, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("text", ids));
+            int i = 2;
+            for (Order.OrderStatus status : expected) {
+                ps.setString(i++, status.name());
+            }
+            ps.setString(i, target.name());
+        }, (rs, rowNum) -> rs.getString(1)));
+
+        for (int i = 0; i < run.size(); i++) {
+            // A repeated order in the run was changed once, by its first transition
+            applied[offset + i] = changed.remove(run.get(i).orderId());
+        }
+    }
+
+    private static String transitionSql(int expectedCount) {
+        return String.format(TRANSITION_SQL, String.join(", ", Collections.nCopies(expectedCount, "?")));
+    }
+
+    private static Object[] transitionArgs(String id, Collection<Order.OrderStatus> expected, Order.OrderStatus target) {
+        Object[] row = new Object[2 + expected.size()];
+        row[0] = id;
+        int i = 1;
+        for (Order.OrderStatus status : expected) {
+            row[i++] = status.name();
+        }
+        row[i] = target.name();
+        return row;
+    }
+}
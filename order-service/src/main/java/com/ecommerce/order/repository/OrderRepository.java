@@ -1,9 +1,72 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
-}
\ No newline at end of file
+public interface OrderRepository extends JpaRepository<Order, String>, OrderBatchRepository {
+
+    /** Listing columns of {@link OrderView}; every listing query below starts with it. */
+    String LIST_VIEW = """
+            select o.id as id, o.customerId as customerId, o.amount as amount,
+                   o.status as status, o.sagaId as sagaId, o.createdAt as createdAt
+            from Order o
+            """;
+
+    /**
+     * Keyset condition strictly after the ({@code createdAt}, {@code id}) cursor.
+     * The redundant {@code createdAt <= :createdAt} bound lets the planner start the index scan
+     * at the cursor instead of filtering from the top of the index.
+     */
+    String AFTER_CURSOR = " o.createdAt <= :createdAt and (o.createdAt < :createdAt or o.id < :id) ";
+
+    String NEWEST_FIRST = " order by o.createdAt desc, o.id desc";
+
+    // Keyset listing, newest first. Each filter combination has its own query, so the plan is
+    // built for the predicate actually used and can seek the matching (..., created_at, id) index.
+
+    @Query(LIST_VIEW + NEWEST_FIRST)
+    List<OrderView> findFirstPage(Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.status = :status" + NEWEST_FIRST)
+    List<OrderView> findFirstPageByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.customerId = :customerId" + NEWEST_FIRST)
+    List<OrderView> findFirstPageByCustomer(@Param("customerId") String customerId, Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.customerId = :customerId and o.status = :status" + NEWEST_FIRST)
+    List<OrderView> findFirstPageByCustomerAndStatus(@Param("customerId") String customerId,
+                                                     @Param("status") Order.OrderStatus status,
+                                                     Pageable pageable);
+
+    @Query(LIST_VIEW + "where" + AFTER_CURSOR + NEWEST_FIRST)
+    List<OrderView> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") String id,
+                                  Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.status = :status and" + AFTER_CURSOR + NEWEST_FIRST)
+    List<OrderView> findPageByStatusAfter(@Param("status") Order.OrderStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") String id,
+                                          Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.customerId = :customerId and" + AFTER_CURSOR + NEWEST_FIRST)
+    List<OrderView> findPageByCustomerAfter(@Param("customerId") String customerId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") String id,
+                                            Pageable pageable);
+
+    @Query(LIST_VIEW + "where o.customerId = :customerId and o.status = :status and" + AFTER_CURSOR + NEWEST_FIRST)
+    List<OrderView> findPageByCustomerAndStatusAfter(@Param("customerId") String customerId,
+                                                     @Param("status") Order.OrderStatus status,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") String id,
+                                                     Pageable pageable);
+}
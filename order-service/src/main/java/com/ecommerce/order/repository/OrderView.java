@@ -0,0 +1,19 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over the orders table used by listing queries.
+ * Rows are read as tuples and never hydrated into managed {@link Order} entities.
+ */
+public interface OrderView {
+    String getId();
+    String getCustomerId();
+    BigDecimal getAmount();
+    Order.OrderStatus getStatus();
+    String getSagaId();
+    LocalDateTime getCreatedAt();
+}
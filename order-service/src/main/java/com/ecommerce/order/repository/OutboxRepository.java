@@ -0,0 +1,41 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest pending row of each order that is due for an attempt. SKIP LOCKED lets
+     * several relay instances drain the outbox concurrently without publishing the same row twice.
+     * A later row of an order waits until every earlier one is sent or parked, so events of an
+     * order reach Kafka in insertion order even when one of them keeps failing, and a row locked
+     * by another instance still holds back the rows behind it.
+     */
+    @Query(value = """
+           SELECT * FROM outbox_events e
+           WHERE e.sent_at IS NULL AND e.parked_at IS NULL
+             AND (e.retry_at IS NULL OR e.retry_at <= :now)
+             AND NOT EXISTS (SELECT 1 FROM outbox_events p
+                             WHERE p.aggregate_id = e.aggregate_id AND p.id < e.id
+                               AND p.sent_at IS NULL AND p.parked_at IS NULL)
+           ORDER BY e.id LIMIT :limit FOR UPDATE SKIP LOCKED""",
+           nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.sentAt = :sentAt where e.id in :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.SagaInstance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SagaInstanceRepository extends JpaRepository<SagaInstance, String> {
+
+    /**
+     * Locks the sagas that are overdue the longest. SKIP LOCKED lets every node sweep at the
+     * same time without two nodes recovering the same saga.
+     */
+    @Query(value = "SELECT * FROM saga_instances WHERE deadline <= :now ORDER BY deadline LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<SagaInstance> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM saga_instances WHERE order_id = :orderId AND deadline <= :now FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<SagaInstance> lockExpiredByOrderId(@Param("orderId") String orderId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+
+/**
+ * A requested move of one order into {@code target}, guarded by {@link Order.OrderStatus#predecessors()}.
+ */
+public record StatusTransition(String orderId, Order.OrderStatus target) {}
@@ -1,14 +1,31 @@
 package com.ecommerce.order.saga;
 
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
 import com.ecommerce.common.events.*;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.SagaInstance;
+import com.ecommerce.order.erp.ErpClient;
 import com.ecommerce.order.event.OrderCreatedApplicationEvent;
+import com.ecommerce.order.event.OrdersCreatedApplicationEvent;
+import com.ecommerce.order.outbox.OutboxPublisher;
+import com.ecommerce.order.repository.StatusTransition;
 import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
@@ -19,63 +36,252 @@ public class OrderSaga {
     
     private final OrderService orderService;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxPublisher outboxPublisher;
+    private final KeyOrderedExecutor paymentResponsesExecutor;
+    private final ErpClient erpClient;
+    private final SagaStateTracker sagaStateTracker;
+    private final SagaTimings sagaTimings;
+    private final TransactionTemplate transactionTemplate;
+    private final io.github.resilience4j.retry.Retry sagaRetry;
+    
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchTimer;
+    private final Counter batchFallbackCounter;
+    private final Counter failedRecordCounter;
     
-    public OrderSaga(OrderService orderService, KafkaTemplate<String, Object> kafkaTemplate) {
+    public OrderSaga(OrderService orderService, KafkaTemplate<String, Object> kafkaTemplate,
+                     OutboxPublisher outboxPublisher, KeyOrderedExecutor paymentResponsesExecutor,
+                     ErpClient erpClient, SagaStateTracker sagaStateTracker, SagaTimings sagaTimings,
+                     TransactionTemplate transactionTemplate, RetryRegistry retryRegistry, MeterRegistry meterRegistry) {
         this.orderService = orderService;
         this.kafkaTemplate = kafkaTemplate;
+        this.outboxPublisher = outboxPublisher;
+        this.paymentResponsesExecutor = paymentResponsesExecutor;
+        this.erpClient = erpClient;
+        this.sagaStateTracker = sagaStateTracker;
+        this.sagaTimings = sagaTimings;
+        this.transactionTemplate = transactionTemplate;
+        this.sagaRetry = retryRegistry.retry("saga-operations");
+        this.batchSizeSummary = DistributionSummary.builder("saga.payment_responses.batch.size")
+            .description("Records per payment-responses poll in batch mode")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("saga.payment_responses.batch.duration")
+            .description("Time to apply one payment-responses batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.batchFallbackCounter = Counter.builder("saga.payment_responses.batch.fallback")
+            .description("Batches that fell back to per-record processing")
+            .register(meterRegistry);
+        this.failedRecordCounter = Counter.builder("saga.payment_responses.failed")
+            .description("Payment responses that could not be applied")
+            .register(meterRegistry);
     }
     
+    /**
+     * Runs synchronously inside OrderService's transaction, so the payment request and the
+     * saga's state row are committed atomically with the order; OutboxRelay sends the request.
+     */
     @EventListener
-    @Retry(name = "saga-operations", fallbackMethod = "onOrderCreatedFallback")
     public void onOrderCreated(OrderCreatedApplicationEvent event) {
         startSaga(event.getOrder());
     }
     
-    public void onOrderCreatedFallback(OrderCreatedApplicationEvent event, Exception ex) {
-        Order order = event.getOrder();
-        OrderCreatedEvent orderEvent = new OrderCreatedEvent(
-            order.getId(), order.getSagaId(), order.getCustomerId(), order.getAmount()
-        );
-        kafkaTemplate.send("saga-operations-dlq", orderEvent);
-        orderService.cancelOrder(order.getId(), "Saga start failed after retries: " + ex.getMessage());
+    @EventListener
+    public void onOrdersCreated(OrdersCreatedApplicationEvent event) {
+        outboxPublisher.enqueueAll("payment-requests", event.getOrders(), this::toOrderCreatedEvent);
+        sagaStateTracker.started(event.getOrders());
     }
     
     private void startSaga(Order order) {
-        OrderCreatedEvent event = new OrderCreatedEvent(
+        outboxPublisher.enqueue("payment-requests", order, toOrderCreatedEvent(order));
+        sagaStateTracker.started(List.of(order));
+    }
+    
+    private OrderCreatedEvent toOrderCreatedEvent(Order order) {
+        return new OrderCreatedEvent(
             order.getId(), order.getSagaId(), order.getCustomerId(), order.getAmount()
         );
-        kafkaTemplate.send("payment-requests", event);
     }
     
 
-    
-    @KafkaListener(topics = "payment-responses", concurrency = "1")
+    /**
+     * Default single-record mode ({@code saga.payment-responses.mode=single}).
+     */
+    @KafkaListener(topics = "payment-responses", concurrency = "1",
+        autoStartup = "#{'${saga.payment-responses.mode:single}' == 'single'}")
     @Retry(name = "saga-operations", fallbackMethod = "handlePaymentResponseFallback")
     public void handlePaymentResponse(OrderEvent event) {
         if (event instanceof PaymentProcessedEvent) {
-            orderService.updateStatus(event.getOrderId(), "PAYMENT_PROCESSING");
-            // Call ERP service directly via HTTP
-            callERPService(event.getOrderId());
+            if (!orderService.updateStatus(event.getOrderId(), "PAYMENT_PROCESSING")) {
+                // Duplicate or late response for an order that already moved on
+                System.err.println("Ignoring payment response for order " + event.getOrderId() + ": transition not allowed");
+                return;
+            }
+            callERPService(event.getOrderId(), event.getSagaId());
         } else if (event instanceof PaymentFailedEvent) {
             orderService.cancelOrder(event.getOrderId(), ((PaymentFailedEvent) event).getReason());
+            sagaStateTracker.finished(event.getOrderId());
+            sagaTimings.ended(event.getOrderId(), SagaTimings.CANCELLED);
         }
     }
     
-    private void callERPService(String orderId) {
+    /**
+     * Batch mode for payment-responses ({@code saga.payment-responses.mode=batch}).
+     * All transitions of one poll are applied in a single transaction with batched UPDATEs.
+     * If that transaction fails, the batch is replayed record by record so one poison event
+     * only affects itself.
+     */
+    @KafkaListener(id = "payment-responses-batch", topics = "payment-responses", batch = "true",
+        concurrency = "${saga.payment-responses.concurrency:1}",
+        autoStartup = "#{'${saga.payment-responses.mode:single}' == 'batch'}")
+    public void handlePaymentResponses(List<ConsumerRecord<String, OrderEvent>> records) {
+        Timer.Sample sample = Timer.start();
+        batchSizeSummary.record(records.size());
+        
+        List<OrderEvent> events = new ArrayList<>(records.size());
+        List<StatusTransition> transitions = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OrderEvent> record : records) {
+            OrderEvent event = record.value();
+            if (event == null || event.getOrderId() == null) {
+                // Undeserializable record (ErrorHandlingDeserializer yields null) or missing key field
+                failedRecordCounter.increment();
+                System.err.println("Skipping unreadable payment response at " + record.topic() + "-"
+                    + record.partition() + "@" + record.offset());
+            } else if (event instanceof PaymentProcessedEvent) {
+                events.add(event);
+                transitions.add(new StatusTransition(event.getOrderId(), Order.OrderStatus.PAYMENT_PROCESSING));
+            } else if (event instanceof PaymentFailedEvent) {
+                events.add(event);
+                transitions.add(new StatusTransition(event.getOrderId(), Order.OrderStatus.CANCELLED));
+            }
+        }
+        
+        boolean[] applied;
         try {
-            // TODO: Make actual HTTP call to ERP service
-            // For now, simulate ERP success
-            orderService.completeOrder(orderId);
+            applied = orderService.transitionAll(transitions);
         } catch (Exception ex) {
-            // ERP failed, compensate payment
-            kafkaTemplate.send("payment-compensations", new ERPFailedEvent(orderId, "", "ERP service failed"));
-            orderService.cancelOrder(orderId, "ERP service failed: " + ex.getMessage());
+            batchFallbackCounter.increment();
+            events.forEach(this::handlePaymentResponseIsolated);
+            sample.stop(batchTimer);
+            return;
+        }
+        
+        List<String> cancelled = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            if (applied[i] && events.get(i) instanceof PaymentProcessedEvent) {
+                callERPService(events.get(i).getOrderId(), events.get(i).getSagaId());
+            } else if (applied[i]) {
+                cancelled.add(events.get(i).getOrderId());
+            }
+        }
+        sagaStateTracker.finishedAll(cancelled);
+        cancelled.forEach(orderId -> sagaTimings.ended(orderId, SagaTimings.CANCELLED));
+        sample.stop(batchTimer);
+    }
+    
+    /**
+     * Key-ordered mode ({@code saga.payment-responses.mode=key-ordered}).
+     * Records are processed in parallel across orders on a worker pool, in order within an order,
+     * and acknowledged as they finish; the container commits only up to the lowest unfinished offset.
+     */
+    @KafkaListener(id = "payment-responses-key-ordered", topics = "payment-responses",
+        containerFactory = "keyOrderedListenerContainerFactory",
+        concurrency = "${saga.payment-responses.concurrency:1}",
+        autoStartup = "#{'${saga.payment-responses.mode:single}' == 'key-ordered'}")
+    public void handlePaymentResponseKeyOrdered(ConsumerRecord<String, OrderEvent> record, Acknowledgment ack)
+            throws InterruptedException {
+        OrderEvent event = record.value();
+        if (event == null || event.getOrderId() == null) {
+            failedRecordCounter.increment();
+            System.err.println("Skipping unreadable payment response at " + record.topic() + "-"
+                + record.partition() + "@" + record.offset());
+            ack.acknowledge();
+            return;
+        }
+        paymentResponsesExecutor.submit(event.getOrderId(), () -> handlePaymentResponseIsolated(event))
+            .whenComplete((result, ex) -> ack.acknowledge());
+    }
+    
+    private void handlePaymentResponseIsolated(OrderEvent event) {
+        try {
+            io.github.resilience4j.retry.Retry.decorateRunnable(sagaRetry, () -> handlePaymentResponse(event)).run();
+        } catch (Exception ex) {
+            failedRecordCounter.increment();
+            handlePaymentResponseFallback(event, ex);
+        }
+    }
+    
+    /**
+     * Starts the ERP update without blocking the listener thread. The order is completed or
+     * compensated from the client's completion callback.
+     */
+    private void callERPService(String orderId, String sagaId) {
+        if (!orderService.transition(orderId, Order.OrderStatus.ERP_PROCESSING)) {
+            System.err.println("Skipping ERP call for order " + orderId + ": transition not allowed");
+            return;
+        }
+        sagaStateTracker.advanced(orderId, SagaInstance.SagaStep.ERP);
+        updateErp(orderId, sagaId);
+    }
+    
+    /**
+     * Re-drives the ERP step of a saga whose deadline passed; called by {@link SagaRecovery}.
+     * An order still in PAYMENT_PROCESSING never started the step.
+     */
+    public void retryErp(String orderId, String sagaId, Order.OrderStatus status) {
+        if (status == Order.OrderStatus.PAYMENT_PROCESSING) {
+            callERPService(orderId, sagaId);
+        } else {
+            updateErp(orderId, sagaId);
+        }
+    }
+    
+    private void updateErp(String orderId, String sagaId) {
+        long start = System.nanoTime();
+        erpClient.updateOrder(orderId).whenComplete((ignored, ex) -> {
+            sagaTimings.erpUpdated(start, ex == null);
+            if (ex == null) {
+                // Rejected if recovery cancelled the order meanwhile, or a duplicate ERP call completed it
+                if (orderService.completeOrder(orderId)) {
+                    sagaStateTracker.finished(orderId);
+                    sagaTimings.ended(orderId, SagaTimings.COMPLETED);
+                } else {
+                    System.err.println("Not completing order " + orderId + ": transition not allowed");
+                }
+            } else {
+                compensateERPFailure(orderId, sagaId, ex);
+            }
+        });
+    }
+    
+    /**
+     * Cancels the order and, only if that applied, enqueues the refund in the same transaction.
+     * A late or duplicate ERP failure for an order that already ended refunds nothing.
+     */
+    private void compensateERPFailure(String orderId, String sagaId, Throwable ex) {
+        Throwable cause = ex instanceof java.util.concurrent.CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        String reason = "ERP service failed: " + cause;
+        Boolean cancelled = transactionTemplate.execute(status -> {
+            if (!orderService.cancelOrder(orderId, reason)) {
+                return false;
+            }
+            Order order = orderService.getOrder(orderId).orElseThrow();
+            outboxPublisher.enqueue("payment-compensations", order, new ERPFailedEvent(orderId, sagaId, reason));
+            sagaStateTracker.finished(orderId);
+            return true;
+        });
+        if (Boolean.TRUE.equals(cancelled)) {
+            sagaTimings.ended(orderId, SagaTimings.CANCELLED);
+        } else {
+            System.err.println("Not compensating order " + orderId + ": transition not allowed");
         }
     }
     
     public void handlePaymentResponseFallback(OrderEvent event, Exception ex) {
-        kafkaTemplate.send("saga-operations-dlq", event);
+        kafkaTemplate.send("saga-operations-dlq", event.getOrderId(), event);
         orderService.cancelOrder(event.getOrderId(), "Payment response handling failed after retries: " + ex.getMessage());
+        sagaStateTracker.finished(event.getOrderId());
+        sagaTimings.ended(event.getOrderId(), SagaTimings.DLQ);
     }
     
 
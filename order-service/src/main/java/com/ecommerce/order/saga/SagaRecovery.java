@@ -0,0 +1,155 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.common.events.OrderCancelledEvent;
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.SagaInstance;
+import com.ecommerce.order.event.SagaDeadlineExpiredEvent;
+import com.ecommerce.order.outbox.OutboxPublisher;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.SagaInstanceRepository;
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Re-drives or compensates sagas whose deadline passed, e.g. because a payment response was lost
+ * or the node driving the ERP call stopped. Triggered per saga by {@link SagaStateTracker}'s
+ * timing wheel and by a periodic sweep over the deadline index; both lock the saga row with
+ * SKIP LOCKED, so any number of nodes can recover concurrently without handling a saga twice.
+ *
+ * <p>An expired step is retried until it has been attempted {@code saga.recovery.max-attempts}
+ * times; then the order is cancelled and, if the cancellation applied, a refund is requested on
+ * {@code payment-compensations}.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class SagaRecovery {
+    
+    private final SagaInstanceRepository sagaInstanceRepository;
+    private final SagaStateTracker sagaStateTracker;
+    private final SagaTimings sagaTimings;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final OutboxPublisher outboxPublisher;
+    private final OrderSaga orderSaga;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final int batchSize;
+    
+    public SagaRecovery(SagaInstanceRepository sagaInstanceRepository, SagaStateTracker sagaStateTracker,
+                        SagaTimings sagaTimings, OrderRepository orderRepository, OrderService orderService, OutboxPublisher outboxPublisher,
+                        OrderSaga orderSaga, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                        @Value("${saga.recovery.max-attempts:3}") int maxAttempts,
+                        @Value("${saga.recovery.batch-size:200}") int batchSize) {
+        this.sagaInstanceRepository = sagaInstanceRepository;
+        this.sagaStateTracker = sagaStateTracker;
+        this.sagaTimings = sagaTimings;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.outboxPublisher = outboxPublisher;
+        this.orderSaga = orderSaga;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.batchSize = batchSize;
+    }
+    
+    @EventListener
+    public void onDeadlineExpired(SagaDeadlineExpiredEvent event) {
+        List<Runnable> afterCommit = new ArrayList<>(1);
+        transactionTemplate.executeWithoutResult(status ->
+            sagaInstanceRepository.lockExpiredByOrderId(event.getOrderId(), LocalDateTime.now())
+                .ifPresent(saga -> recover(saga, afterCommit)));
+        afterCommit.forEach(Runnable::run);
+    }
+    
+    /**
+     * Recovers overdue sagas in batches of {@code saga.recovery.batch-size}, each in its own
+     * transaction. Only reads rows past their deadline through the deadline index.
+     *
+     * @return number of sagas recovered
+     */
+    @Scheduled(fixedDelayString = "${saga.recovery.sweep-interval-ms:30000}",
+        initialDelayString = "${saga.recovery.sweep-interval-ms:30000}")
+    public int sweep() {
+        int total = 0;
+        int recovered;
+        do {
+            List<Runnable> afterCommit = new ArrayList<>();
+            Integer count = transactionTemplate.execute(status -> {
+                List<SagaInstance> expired = sagaInstanceRepository.lockExpired(LocalDateTime.now(), batchSize);
+                expired.forEach(saga -> recover(saga, afterCommit));
+                return expired.size();
+            });
+            afterCommit.forEach(Runnable::run);
+            recovered = count != null ? count : 0;
+            total += recovered;
+        } while (recovered == batchSize);
+        return total;
+    }
+    
+    /**
+     * Decides from the order's current status. ERP calls are collected in {@code afterCommit}
+     * and started once the saga's new deadline is committed.
+     */
+    void recover(SagaInstance saga, List<Runnable> afterCommit) {
+        String orderId = saga.getOrderId();
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty() || order.get().getStatus().isTerminal()) {
+            // Ended without the saga noticing, e.g. cancelled by an operator
+            sagaStateTracker.finished(orderId);
+            count("cleaned", saga.getStep());
+            return;
+        }
+        
+        Order.OrderStatus status = order.get().getStatus();
+        if (saga.getAttempts() >= maxAttempts) {
+            String reason = "Saga timed out in step " + saga.getStep() + " after " + saga.getAttempts() + " attempts";
+            if (!orderService.cancelOrder(orderId, reason)) {
+                // The order moved on since it was read, e.g. a resent payment response landed; the next sweep decides again
+                System.err.println("Not compensating order " + orderId + ", it is no longer " + status);
+                return;
+            }
+            System.err.println("Compensating order " + orderId + ": " + reason);
+            outboxPublisher.enqueue("payment-compensations", order.get(), new OrderCancelledEvent(orderId, saga.getSagaId(), reason));
+            sagaStateTracker.finished(orderId);
+            sagaTimings.ended(orderId, SagaTimings.CANCELLED,
+                order.get().getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            count("compensated", saga.getStep());
+            return;
+        }
+        
+        if (status == Order.OrderStatus.PENDING) {
+            // Payment request or response lost. payment-service deduplicates by order and saga id:
+            // a request it already answered is answered again from the stored result, not charged
+            Order pending = order.get();
+            outboxPublisher.enqueue("payment-requests", pending, new OrderCreatedEvent(
+                orderId, saga.getSagaId(), pending.getCustomerId(), pending.getAmount()));
+            sagaStateTracker.retried(orderId, SagaInstance.SagaStep.PAYMENT);
+        } else {
+            // Paid, but the ERP step was never started or its outcome was lost
+            sagaStateTracker.retried(orderId, SagaInstance.SagaStep.ERP);
+            afterCommit.add(() -> orderSaga.retryErp(orderId, saga.getSagaId(), status));
+        }
+        count("retried", saga.getStep());
+    }
+    
+    private void count(String outcome, SagaInstance.SagaStep step) {
+        meterRegistry.counter("saga.recovery", "outcome", outcome, "step", step.name()).increment();
+    }
+}
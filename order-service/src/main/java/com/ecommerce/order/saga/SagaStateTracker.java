@@ -0,0 +1,139 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.common.concurrent.TimingWheel;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.SagaInstance;
+import com.ecommerce.order.event.SagaDeadlineExpiredEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persists the step, attempt count and deadline of every in-flight saga in {@code saga_instances}
+ * and tracks the deadlines of the sagas this node drives in a {@link TimingWheel}, so a lost
+ * response is noticed about when it times out, without polling the table. When the wheel is
+ * full ({@code saga.timeouts.max-tracked}), deadlines are left to the periodic sweep in
+ * {@link SagaRecovery}, which also covers sagas of nodes that stopped.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class SagaStateTracker implements DisposableBean {
+    
+    private static final String INSERT_SQL = """
+            INSERT INTO saga_instances (saga_id, order_id, step, attempts, deadline, updated_at)
+            VALUES (?, ?, ?, 1, ?, CURRENT_TIMESTAMP)
+            """;
+    
+    private static final String ADVANCE_SQL = """
+            UPDATE saga_instances SET step = ?, attempts = 1, deadline = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE order_id = ?
+            """;
+    
+    private static final String RETRY_SQL = """
+            UPDATE saga_instances SET step = ?, attempts = attempts + 1, deadline = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE order_id = ?
+            """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration paymentTimeout;
+    private final Duration erpTimeout;
+    private final ExecutorService expiryExecutor;
+    private final TimingWheel<String> deadlines;
+    private final Counter untrackedCounter;
+    
+    public SagaStateTracker(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                            @Value("${saga.timeouts.payment:5m}") Duration paymentTimeout,
+                            @Value("${saga.timeouts.erp:2m}") Duration erpTimeout,
+                            @Value("${saga.timeouts.tick:100ms}") Duration tick,
+                            @Value("${saga.timeouts.wheel-size:4096}") int wheelSize,
+                            @Value("${saga.timeouts.max-tracked:500000}") int maxTracked,
+                            @Value("${saga.timeouts.expiry-threads:4}") int expiryThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.paymentTimeout = paymentTimeout;
+        this.erpTimeout = erpTimeout;
+        this.expiryExecutor = Executors.newFixedThreadPool(expiryThreads,
+            Thread.ofPlatform().name("saga-deadline-", 1).daemon().factory());
+        this.deadlines = new TimingWheel<>(tick, wheelSize, maxTracked, expiryExecutor,
+            orderId -> eventPublisher.publishEvent(new SagaDeadlineExpiredEvent(this, orderId)), "saga-deadlines");
+        this.untrackedCounter = Counter.builder("saga.deadlines.untracked")
+            .description("Saga deadlines left to the recovery sweep because the timing wheel was full")
+            .register(meterRegistry);
+        Gauge.builder("saga.deadlines.tracked", deadlines, TimingWheel::size)
+            .description("Saga deadlines held in memory")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Records new sagas waiting for payment. Runs in the transaction that creates the orders.
+     */
+    public void started(List<Order> orders) {
+        LocalDateTime deadline = LocalDateTime.now().plus(paymentTimeout);
+        List<Object[]> args = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            String sagaId = order.getSagaId() != null ? order.getSagaId() : order.getId();
+            args.add(new Object[] {sagaId, order.getId(), SagaInstance.SagaStep.PAYMENT.name(), Timestamp.valueOf(deadline)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        orders.forEach(order -> track(order.getId(), paymentTimeout));
+    }
+    
+    /** The saga moved on to {@code step}; its attempt count starts over. */
+    public void advanced(String orderId, SagaInstance.SagaStep step) {
+        Duration timeout = timeout(step);
+        jdbcTemplate.update(ADVANCE_SQL, step.name(), Timestamp.valueOf(LocalDateTime.now().plus(timeout)), orderId);
+        track(orderId, timeout);
+    }
+    
+    /** {@code step} is attempted again by recovery. */
+    public void retried(String orderId, SagaInstance.SagaStep step) {
+        Duration timeout = timeout(step);
+        jdbcTemplate.update(RETRY_SQL, step.name(), Timestamp.valueOf(LocalDateTime.now().plus(timeout)), orderId);
+        track(orderId, timeout);
+    }
+    
+    public void finished(String orderId) {
+        jdbcTemplate.update("DELETE FROM saga_instances WHERE order_id = ?", orderId);
+        deadlines.cancel(orderId);
+    }
+    
+    public void finishedAll(List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM saga_instances WHERE order_id = ?",
+            orderIds.stream().map(orderId -> new Object[] {orderId}).toList());
+        orderIds.forEach(deadlines::cancel);
+    }
+    
+    Duration timeout(SagaInstance.SagaStep step) {
+        return step == SagaInstance.SagaStep.PAYMENT ? paymentTimeout : erpTimeout;
+    }
+    
+    private void track(String orderId, Duration timeout) {
+        if (!deadlines.schedule(orderId, timeout)) {
+            untrackedCounter.increment();
+        }
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        deadlines.close();
+        expiryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.common.saga.SagaTimers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Order-service side of the saga latency metrics ({@link SagaTimers}). As a listener interceptor,
+ * which Spring Boot applies to every container factory, it sees each payment response before
+ * {@link OrderSaga} in all three listener modes: it records how long the response waited in
+ * Kafka and keeps the saga's start from its headers until the saga ends. Starts are held for
+ * {@code saga.metrics.started-at-ttl}; a saga finished by another node's recovery is not timed.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "kafka.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class SagaTimings implements RecordInterceptor<Object, Object>, BatchInterceptor<Object, Object> {
+
+    static final String PAYMENT_RESPONSES = "payment-responses";
+
+    public static final String COMPLETED = "completed";
+    public static final String CANCELLED = "cancelled";
+    public static final String DLQ = "dlq";
+
+    private final SagaTimers sagaTimers;
+    private final Cache<String, Long> startedAt;
+
+    public SagaTimings(MeterRegistry meterRegistry,
+                       @Value("${saga.metrics.started-at-ttl:15m}") Duration ttl,
+                       @Value("${saga.timeouts.max-tracked:500000}") long maxTracked) {
+        this.sagaTimers = new SagaTimers(meterRegistry);
+        this.startedAt = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxTracked)
+            .build();
+    }
+
+    @Override
+    public ConsumerRecord<Object, Object> intercept(ConsumerRecord<Object, Object> record, Consumer<Object, Object> consumer) {
+        received(record);
+        return record;
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        records.forEach(this::received);
+        return records;
+    }
+
+    void received(ConsumerRecord<?, ?> record) {
+        if (!PAYMENT_RESPONSES.equals(record.topic())) {
+            return;
+        }
+        sagaTimers.stageSince(PAYMENT_RESPONSES + ".queue", "received", SagaHeaders.sentAt(record.headers()));
+        long started = SagaHeaders.startedAt(record.headers());
+        if (started > 0 && record.key() instanceof String orderId) {
+            startedAt.put(orderId, started);
+        }
+    }
+
+    /** The ERP call started at {@code startNanos} ({@link System#nanoTime()}) finished. */
+    public void erpUpdated(long startNanos, boolean success) {
+        sagaTimers.stage("erp.update", success ? "updated" : "failed", System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The saga of {@code orderId} ended with {@code outcome}; records it end to end if this node
+     * saw its start.
+     */
+    public void ended(String orderId, String outcome) {
+        Long started = startedAt.asMap().remove(orderId);
+        if (started != null) {
+            sagaTimers.endToEnd(outcome, started);
+        }
+    }
+
+    /** As {@link #ended(String, String)}, for callers that know when the saga started. */
+    public void ended(String orderId, String outcome, long startedAtEpochMillis) {
+        startedAt.invalidate(orderId);
+        sagaTimers.endToEnd(outcome, startedAtEpochMillis);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.order.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of loaded users for {@code DaoAuthenticationProvider}, so a login skips the
+ * user query and role parsing. When the password check fails against a cached user, the provider
+ * reloads the user once, so a changed password takes effect immediately; other changes are
+ * evicted by {@link UserCacheInvalidationListener} or expire after the TTL.
+ *
+ * <p>Entries are copies: the provider hands the cached object out as the principal, and
+ * {@code ProviderManager} erases its password after authentication.
+ */
+public class CaffeineUserCache implements UserCache {
+    
+    private final Cache<String, UserDetails> cache;
+    
+    public CaffeineUserCache(Duration ttl, long maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+    
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = cache.getIfPresent(username);
+        return user != null ? copy(user) : null;
+    }
+    
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), copy(user));
+    }
+    
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+    
+    private static UserDetails copy(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+}
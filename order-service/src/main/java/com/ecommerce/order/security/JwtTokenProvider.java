@@ -1,68 +1,169 @@
 package com.ecommerce.order.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret:my-secret-key-for-jwt-token-generation-min-256-bits-required}")
-    private String jwtSecret;
+    /**
+     * Subject, granted authorities (e.g. {@code ROLE_ADMIN}) and expiry of a token whose signature
+     * and expiry have been checked.
+     */
+    public record VerifiedToken(String username, List<String> authorities, Instant expiresAt) {}
 
-    @Value("${jwt.expiration:86400000}")
-    private long jwtExpirationMs;
+    static final String AUTHORITIES_CLAIM = "authorities";
 
-    public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpirationMs;
 
-        return Jwts.builder()
-                .subject(username)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
-                .compact();
+    /**
+     * Tokens that already passed verification, keyed by their SHA-256 digest so raw bearer tokens
+     * are not kept in memory. Each entry expires together with its token. Failed verifications
+     * are never cached.
+     */
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtTokenProvider(
+            @Value("${jwt.secret:my-secret-key-for-jwt-token-generation-min-256-bits-required}") String jwtSecret,
+            @Value("${jwt.expiration:86400000}") long jwtExpirationMs,
+            @Value("${jwt.verified-cache.maximum-size:10000}") long verifiedCacheSize,
+            MeterRegistry meterRegistry) {
+        // Key and parser are immutable and thread-safe; build them once instead of per call
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(verifiedCacheSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
     }
 
+    public String generateToken(Authentication authentication) {
+        return generateToken(authentication.getName(), authentication.getAuthorities());
+    }
+
+    /**
+     * A token without authorities; it passes {@code authenticated()} but no role check.
+     */
     public String generateToken(String username) {
+        return generateToken(username, List.of());
+    }
+
+    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
                 .subject(username)
+                .claim(AUTHORITIES_CLAIM, authorities.stream().map(GrantedAuthority::getAuthority).toList())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+    /**
+     * Parses and verifies the token in one pass.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies the token, skipping signature checks for tokens already verified and not yet expired.
+     *
+     * @return the verified subject, or empty if the token is invalid
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        ByteBuffer digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = parseClaims(token);
+            if (claims.getExpiration() == null) {
+                // Never expires: valid, but not cached since nothing would evict it
+                return Optional.of(new VerifiedToken(claims.getSubject(), authorities(claims), Instant.MAX));
+            }
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), authorities(claims),
+                claims.getExpiration().toInstant());
+            verifiedTokens.put(digest, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(ByteBuffer digest, VerifiedToken token, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(token.expiresAt().toEpochMilli() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static List<String> authorities(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (!(authorities instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
+    }
+
+    private static ByteBuffer digest(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
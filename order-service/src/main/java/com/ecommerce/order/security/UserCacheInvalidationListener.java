@@ -0,0 +1,27 @@
+package com.ecommerce.order.security;
+
+import com.ecommerce.order.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User}: drops the cached copy when a user is updated or deleted
+ * through this instance. Other replicas pick the change up when their entry expires.
+ */
+@Component
+public class UserCacheInvalidationListener {
+    
+    private final UserCache userCache;
+    
+    public UserCacheInvalidationListener(UserCache userCache) {
+        this.userCache = userCache;
+    }
+    
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userCache.removeUserFromCache(user.getUsername());
+    }
+}
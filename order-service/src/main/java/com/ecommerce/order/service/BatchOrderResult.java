@@ -0,0 +1,24 @@
+package com.ecommerce.order.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingestion request, with one item per submitted order in request order.
+ */
+public record BatchOrderResult(int accepted, int rejected, List<ItemResult> items) {
+    
+    public enum ItemStatus {
+        CREATED, REJECTED
+    }
+    
+    public record ItemResult(int index, String orderId, ItemStatus status, String error) {
+        
+        public static ItemResult created(int index, String orderId) {
+            return new ItemResult(index, orderId, ItemStatus.CREATED, null);
+        }
+        
+        public static ItemResult rejected(int index, String error) {
+            return new ItemResult(index, null, ItemStatus.REJECTED, error);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Order statistics of one customer.
+ *
+ * @param lifetimeSpend total amount of COMPLETED orders
+ */
+public record CustomerSummary(String customerId, long orderCount, BigDecimal totalAmount, BigDecimal lifetimeSpend,
+                              Map<Order.OrderStatus, StatusTotal> byStatus) {
+    
+    public record StatusTotal(long orderCount, BigDecimal totalAmount) {}
+}
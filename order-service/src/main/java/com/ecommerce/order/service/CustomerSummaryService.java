@@ -0,0 +1,200 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.CustomerOrderSummary;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.CustomerOrderSummaryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the {@code customer_order_summary} projection and rebuilds it from {@code orders} and
+ * {@code archived_order_totals}.
+ * At most one rebuild runs per instance; across instances the chunk locks keep concurrent
+ * rebuilds correct, they only repeat the work.
+ */
+@Service
+public class CustomerSummaryService {
+    
+    private static final String CHUNK_PREDICATE = "mod(hashtext(customer_id) & 2147483647, ?) = ?";
+    
+    /**
+     * Exclusive transaction lock on one chunk. {@code OrderBatchRepositoryImpl.addToSummary} takes the
+     * same lock in shared mode for the chunks of the customers it increments, so a new order either
+     * commits before the chunk is recomputed (and is counted) or waits and adds on top of the result.
+     */
+    private static final String LOCK_CHUNK_SQL = "SELECT pg_advisory_xact_lock(hashtext('customer_order_summary'), ?)";
+    
+    /**
+     * Recomputes one chunk of customers from the live orders plus the totals of archived ones, and
+     * overwrites their summary rows. Runs under {@link #LOCK_CHUNK_SQL}, so no order insert of the
+     * chunk is in flight. FOR SHARE waits for in-flight transitions of the chunk's orders and blocks
+     * new ones until the chunk commits, so the recomputed totals cannot be overtaken by an
+     * incremental update based on an older status.
+     */
+    private static final String REBUILD_CHUNK_SQL = """
+            WITH locked AS (
+                SELECT customer_id, status, amount FROM orders
+                WHERE %1$s
+                FOR SHARE
+            ), totals AS (
+                SELECT customer_id, status, COUNT(*) AS order_count, SUM(amount) AS total_amount
+                FROM locked
+                GROUP BY customer_id, status
+                UNION ALL
+                SELECT customer_id, status, order_count, total_amount
+                FROM archived_order_totals
+                WHERE %1$s
+            )
+            INSERT INTO customer_order_summary (customer_id, status, order_count, total_amount, updated_at)
+            SELECT customer_id, status, SUM(order_count), SUM(total_amount), CURRENT_TIMESTAMP
+            FROM totals
+            GROUP BY customer_id, status
+            ON CONFLICT (customer_id, status) DO UPDATE
+            SET order_count = EXCLUDED.order_count,
+                total_amount = EXCLUDED.total_amount,
+                updated_at = EXCLUDED.updated_at
+            """.formatted(CHUNK_PREDICATE);
+    
+    private static final String DELETE_STALE_SQL = """
+            DELETE FROM customer_order_summary s
+            WHERE %s
+              AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.customer_id = s.customer_id AND o.status = s.status)
+              AND NOT EXISTS (SELECT 1 FROM archived_order_totals a WHERE a.customer_id = s.customer_id AND a.status = s.status)
+            """.formatted(CHUNK_PREDICATE.replace("customer_id", "s.customer_id"));
+    
+    private final CustomerOrderSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<SummaryRebuild> lastRebuild = new AtomicReference<>();
+    
+    @Value("${customer-summary.rebuild.chunks:16}")
+    private int chunks;
+    
+    @Value("${customer-summary.rebuild.parallelism:4}")
+    private int parallelism;
+    
+    public CustomerSummaryService(CustomerOrderSummaryRepository summaryRepository, JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+    
+    /**
+     * Primary-key lookup of at most one row per status; never touches {@code orders}.
+     * A customer without orders gets an all-zero summary.
+     */
+    @Transactional(readOnly = true)
+    public CustomerSummary getSummary(String customerId) {
+        Map<Order.OrderStatus, CustomerSummary.StatusTotal> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        long orderCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (CustomerOrderSummary row : summaryRepository.findByCustomerId(customerId)) {
+            if (row.getOrderCount() == 0) {
+                continue;
+            }
+            byStatus.put(row.getStatus(), new CustomerSummary.StatusTotal(row.getOrderCount(), row.getTotalAmount()));
+            orderCount += row.getOrderCount();
+            totalAmount = totalAmount.add(row.getTotalAmount());
+        }
+        CustomerSummary.StatusTotal completed = byStatus.get(Order.OrderStatus.COMPLETED);
+        BigDecimal lifetimeSpend = completed != null ? completed.totalAmount() : BigDecimal.ZERO;
+        return new CustomerSummary(customerId, orderCount, totalAmount, lifetimeSpend, byStatus);
+    }
+    
+    /**
+     * Regenerates the projection from {@code orders}. Customers are split into {@code chunks} hash
+     * buckets that are rebuilt in parallel, each in its own short transaction; concurrent sequential
+     * scans of {@code orders} are synchronized by PostgreSQL, so the chunks share most of the I/O.
+     *
+     * @return number of summary rows written
+     */
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Integer>> results = new ArrayList<>(chunks);
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int current = chunk;
+                results.add(CompletableFuture.supplyAsync(() -> rebuildChunk(current), executor));
+            }
+        }
+        long rows = results.stream().mapToLong(CompletableFuture::join).sum();
+        System.out.println("Rebuilt customer_order_summary: " + rows + " rows in " + chunks + " chunks, "
+            + (System.currentTimeMillis() - start) + "ms");
+        return rows;
+    }
+    
+    /**
+     * Runs {@link #rebuild()} on a background thread and returns its status, which
+     * {@link #lastRebuild()} keeps reporting once it finishes.
+     *
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public SummaryRebuild startRebuild() {
+        SummaryRebuild run = claimRebuild();
+        if (run == null) {
+            throw new IllegalStateException("Customer summary rebuild already running");
+        }
+        Thread.ofPlatform().name("customer-summary-rebuild").daemon().start(() -> runRebuild(run));
+        return run;
+    }
+    
+    /** The running rebuild, or the last one started on this instance. */
+    public Optional<SummaryRebuild> lastRebuild() {
+        return Optional.ofNullable(lastRebuild.get());
+    }
+    
+    @Scheduled(cron = "${customer-summary.rebuild.cron:-}")
+    public void scheduledRebuild() {
+        SummaryRebuild run = claimRebuild();
+        if (run == null) {
+            System.out.println("Skipping scheduled customer_order_summary rebuild: one is already running");
+            return;
+        }
+        runRebuild(run);
+    }
+    
+    /** Registers a new run, or returns null if the current one has not finished. */
+    private SummaryRebuild claimRebuild() {
+        SummaryRebuild previous = lastRebuild.get();
+        if (previous != null && !previous.isFinished()) {
+            return null;
+        }
+        SummaryRebuild run = new SummaryRebuild();
+        return lastRebuild.compareAndSet(previous, run) ? run : null;
+    }
+    
+    private void runRebuild(SummaryRebuild run) {
+        try {
+            run.completed(rebuild());
+        } catch (Exception e) {
+            System.err.println("Customer summary rebuild failed: " + e.getMessage());
+            run.failed(e.getMessage());
+        }
+    }
+    
+    int rebuildChunk(int chunk) {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(LOCK_CHUNK_SQL, rs -> {}, chunk);
+            int written = jdbcTemplate.update(REBUILD_CHUNK_SQL, chunks, chunk, chunks, chunk);
+            jdbcTemplate.update(DELETE_STALE_SQL, chunks, chunk);
+            return written;
+        });
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.order.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One order of a bulk ingestion request.
+ */
+public record NewOrder(String customerId, BigDecimal amount) {}
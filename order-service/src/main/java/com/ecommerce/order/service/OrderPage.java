@@ -0,0 +1,10 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.repository.OrderView;
+
+import java.util.List;
+
+/**
+ * One page of the order listing. {@code nextCursor} is null on the last page.
+ */
+public record OrderPage(List<OrderView> items, String nextCursor) {}
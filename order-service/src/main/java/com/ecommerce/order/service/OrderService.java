@@ -1,63 +1,224 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.archive.OrderArchive;
+import com.ecommerce.order.cache.OrderCache;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.event.OrderCreatedApplicationEvent;
+import com.ecommerce.order.event.OrdersChangedApplicationEvent;
+import com.ecommerce.order.event.OrdersCreatedApplicationEvent;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderView;
+import com.ecommerce.order.repository.StatusTransition;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService {
     
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 5000;
+    public static final int MAX_MULTI_GET_SIZE = 500;
+    
     private final OrderRepository orderRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final OrderCache orderCache;
+    private final OrderArchive orderArchive;
     
-    public OrderService(OrderRepository orderRepository, ApplicationEventPublisher eventPublisher) {
+    public OrderService(OrderRepository orderRepository, ApplicationEventPublisher eventPublisher,
+                        OrderCache orderCache, OrderArchive orderArchive) {
         this.orderRepository = orderRepository;
         this.eventPublisher = eventPublisher;
+        this.orderCache = orderCache;
+        this.orderArchive = orderArchive;
     }
     
     public Order createOrder(String customerId, BigDecimal amount) {
         Order order = new Order(UUID.randomUUID().toString(), customerId, amount);
         order.setSagaId(UUID.randomUUID().toString());
         order = orderRepository.save(order);
+        orderRepository.addToSummary(List.of(order));
         
         // Publish event to initiate saga
         eventPublisher.publishEvent(new OrderCreatedApplicationEvent(this, order));
         return order;
     }
     
-    public void updateStatus(String orderId, String status) {
-        orderRepository.findById(orderId).ifPresent(order -> {
-            order.setStatus(Order.OrderStatus.valueOf(status));
-            orderRepository.save(order);
-        });
+    /**
+     * Bulk ingestion: valid orders are inserted with JDBC batching in one transaction and
+     * their sagas started with a single event. Invalid items are rejected individually.
+     */
+    public BatchOrderResult createOrders(List<NewOrder> newOrders) {
+        List<BatchOrderResult.ItemResult> items = new ArrayList<>(newOrders.size());
+        List<Order> orders = new ArrayList<>(newOrders.size());
+        
+        for (int i = 0; i < newOrders.size(); i++) {
+            NewOrder newOrder = newOrders.get(i);
+            String error = validate(newOrder);
+            if (error != null) {
+                items.add(BatchOrderResult.ItemResult.rejected(i, error));
+                continue;
+            }
+            Order order = new Order(UUID.randomUUID().toString(), newOrder.customerId(), newOrder.amount());
+            order.setSagaId(UUID.randomUUID().toString());
+            orders.add(order);
+            items.add(BatchOrderResult.ItemResult.created(i, order.getId()));
+        }
+        
+        if (!orders.isEmpty()) {
+            orderRepository.insertAll(orders);
+            orderRepository.addToSummary(orders);
+            eventPublisher.publishEvent(new OrdersCreatedApplicationEvent(this, orders));
+        }
+        return new BatchOrderResult(orders.size(), newOrders.size() - orders.size(), items);
     }
     
-    public void completeOrder(String orderId) {
-        orderRepository.findById(orderId).ifPresent(order -> {
-            order.setStatus(Order.OrderStatus.COMPLETED);
-            orderRepository.save(order);
-        });
+    private String validate(NewOrder newOrder) {
+        if (newOrder == null) {
+            return "Order is required";
+        }
+        if (newOrder.customerId() == null || newOrder.customerId().isBlank()) {
+            return "customerId is required";
+        }
+        if (newOrder.amount() == null || newOrder.amount().signum() <= 0) {
+            return "amount must be positive";
+        }
+        return null;
     }
     
-    public void cancelOrder(String orderId, String reason) {
-        orderRepository.findById(orderId).ifPresent(order -> {
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            orderRepository.save(order);
-        });
+    /**
+     * Moves the order to {@code status} if the state machine of {@link Order.OrderStatus} allows it.
+     * Runs as one conditional UPDATE, so a late or duplicate event cannot overwrite a terminal status.
+     *
+     * @return true if the transition was applied
+     */
+    public boolean transition(String orderId, Order.OrderStatus status) {
+        boolean applied = orderRepository.transition(orderId, status.predecessors(), status) == 1;
+        if (applied) {
+            eventPublisher.publishEvent(new OrdersChangedApplicationEvent(this, List.of(orderId)));
+        }
+        return applied;
+    }
+    
+    /**
+     * Applies many transitions in one transaction with batched SQL.
+     *
+     * @return per-transition flags, true where the transition was applied
+     */
+    public boolean[] transitionAll(List<StatusTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return new boolean[0];
+        }
+        boolean[] applied = orderRepository.transitionAll(transitions);
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < applied.length; i++) {
+            if (applied[i]) {
+                changed.add(transitions.get(i).orderId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new OrdersChangedApplicationEvent(this, changed));
+        }
+        return applied;
+    }
+    
+    public boolean updateStatus(String orderId, String status) {
+        return transition(orderId, Order.OrderStatus.valueOf(status));
+    }
+    
+    public boolean completeOrder(String orderId) {
+        return transition(orderId, Order.OrderStatus.COMPLETED);
     }
     
-    public java.util.List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public boolean cancelOrder(String orderId, String reason) {
+        return transition(orderId, Order.OrderStatus.CANCELLED);
     }
     
-    public java.util.Optional<Order> getOrder(String id) {
-        return orderRepository.findById(id);
+    /**
+     * Keyset-paginated listing ordered by ({@code createdAt}, {@code id}) descending.
+     * Fetches one extra row to decide whether another page exists.
+     */
+    @Transactional(readOnly = true)
+    public OrderPage listOrders(String cursor, int limit, Order.OrderStatus status, String customerId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        
+        List<OrderView> rows = cursor == null || cursor.isBlank()
+            ? firstPage(status, customerId, window)
+            : pageAfter(OrderCursor.decode(cursor), status, customerId, window);
+        
+        if (rows.size() <= pageSize) {
+            return new OrderPage(rows, null);
+        }
+        List<OrderView> page = rows.subList(0, pageSize);
+        OrderView last = page.get(pageSize - 1);
+        return new OrderPage(page, new OrderCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+    
+    private List<OrderView> firstPage(Order.OrderStatus status, String customerId, PageRequest window) {
+        if (customerId != null) {
+            return status != null
+                ? orderRepository.findFirstPageByCustomerAndStatus(customerId, status, window)
+                : orderRepository.findFirstPageByCustomer(customerId, window);
+        }
+        return status != null
+            ? orderRepository.findFirstPageByStatus(status, window)
+            : orderRepository.findFirstPage(window);
+    }
+    
+    private List<OrderView> pageAfter(OrderCursor after, Order.OrderStatus status, String customerId, PageRequest window) {
+        if (customerId != null) {
+            return status != null
+                ? orderRepository.findPageByCustomerAndStatusAfter(customerId, status, after.createdAt(), after.id(), window)
+                : orderRepository.findPageByCustomerAfter(customerId, after.createdAt(), after.id(), window);
+        }
+        return status != null
+            ? orderRepository.findPageByStatusAfter(status, after.createdAt(), after.id(), window)
+            : orderRepository.findPageAfter(after.createdAt(), after.id(), window);
+    }
+    
+    /**
+     * Served from {@link OrderCache}. Misses load in a read-write transaction on purpose: that
+     * keeps them on the primary, since a lagging replica would put stale orders back into the
+     * cache right after an invalidation. The connection is only borrowed on a miss, through
+     * the lazy connection proxy in {@link com.ecommerce.order.config.DatabaseConfig}.
+     * Orders no longer in the live table are looked up in {@link OrderArchive}.
+     */
+    public Optional<Order> getOrder(String id) {
+        return orderCache.get(id, key -> orderRepository.findById(key).or(() -> orderArchive.find(key)));
+    }
+    
+    /**
+     * Multi-get in request order, duplicates removed. Cached orders are served from memory and
+     * all misses are fetched from the primary with a single {@code IN} query. Unknown ids are left out.
+     */
+    public List<Order> getOrders(List<String> ids) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(ids);
+        Map<String, Order> found = orderCache.getAll(distinct, misses -> {
+            Map<String, Order> loaded = orderRepository.findAllById(List.<String>copyOf(misses)).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a, HashMap::new));
+            if (loaded.size() < misses.size()) {
+                loaded.putAll(orderArchive.findAll(misses.stream().filter(id -> !loaded.containsKey(id)).toList()));
+            }
+            return loaded;
+        });
+        return distinct.stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 }
\ No newline at end of file
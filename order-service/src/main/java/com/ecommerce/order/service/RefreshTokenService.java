@@ -0,0 +1,89 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.RefreshToken;
+import com.ecommerce.order.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Opaque, single-use refresh tokens. A client exchanges one for a new access and refresh token
+ * pair at {@code /auth/refresh} instead of sending its password again, which skips the BCrypt
+ * verify that dominates {@code /auth/login}.
+ */
+@Service
+public class RefreshTokenService {
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+    
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${auth.refresh-token.ttl:30d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = ttl;
+    }
+    
+    @Transactional
+    public String issue(String username) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(token), username, LocalDateTime.now().plus(ttl)));
+        return token;
+    }
+    
+    /**
+     * Redeems the token: it is deleted, so each token works once even under concurrent use.
+     *
+     * @return the token's username, or empty if the token is unknown, expired or already used
+     */
+    @Transactional
+    public Optional<String> consume(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(token);
+        Optional<RefreshToken> stored = refreshTokenRepository.findById(tokenHash);
+        if (stored.isEmpty() || refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
+        }
+        if (stored.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(stored.get().getUsername());
+    }
+    
+    @Transactional
+    public void revoke(String token) {
+        if (token != null && !token.isBlank()) {
+            refreshTokenRepository.deleteByTokenHash(hash(token));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${auth.refresh-token.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+    }
+    
+    static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
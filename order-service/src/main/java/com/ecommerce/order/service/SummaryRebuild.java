@@ -0,0 +1,43 @@
+package com.ecommerce.order.service;
+
+import java.time.Instant;
+
+/**
+ * One run of {@link CustomerSummaryService#rebuild()} started in the background. Updated by the
+ * rebuild thread and read by the admin endpoint while it runs.
+ */
+public class SummaryRebuild {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final Instant startedAt = Instant.now();
+    private volatile State state = State.RUNNING;
+    private volatile long rows;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    SummaryRebuild() {}
+
+    public State getState() { return state; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    /** Summary rows written; set once the rebuild completes. */
+    public long getRows() { return rows; }
+    public String getError() { return error; }
+
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    void completed(long rows) {
+        this.rows = rows;
+        this.finishedAt = Instant.now();
+        this.state = State.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = State.FAILED;
+    }
+}
@@ -0,0 +1,20 @@
+-- In-flight order sagas; a row is deleted when its saga completes or is compensated
+CREATE TABLE saga_instances (
+    saga_id VARCHAR(255) PRIMARY KEY,
+    order_id VARCHAR(255) NOT NULL UNIQUE,
+    step VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL,
+    deadline TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Recovery sweep reads only overdue sagas, oldest deadline first
+CREATE INDEX idx_saga_instances_deadline ON saga_instances (deadline);
+
+-- Orders already in flight get a saga with an immediate deadline, so recovery picks them up
+INSERT INTO saga_instances (saga_id, order_id, step, attempts, deadline, updated_at)
+SELECT COALESCE(saga_id, id), id,
+       CASE WHEN status = 'PENDING' THEN 'PAYMENT' ELSE 'ERP' END,
+       1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+FROM orders
+WHERE status IN ('PENDING', 'PAYMENT_PROCESSING', 'ERP_PROCESSING');
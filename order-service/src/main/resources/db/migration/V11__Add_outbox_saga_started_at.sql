@@ -0,0 +1,2 @@
+-- Saga start carried by each outbox row, so recovery retries keep the order's creation as the start
+ALTER TABLE outbox_events ADD COLUMN saga_started_at TIMESTAMP;
@@ -0,0 +1,12 @@
+-- Retry state for rows that fail to publish: backoff between attempts, parked after too many
+ALTER TABLE outbox_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN retry_at TIMESTAMP;
+ALTER TABLE outbox_events ADD COLUMN parked_at TIMESTAMP;
+
+-- Parked rows are left for an operator and no longer scanned by the relay
+DROP INDEX idx_outbox_events_unsent;
+CREATE INDEX idx_outbox_events_unsent ON outbox_events (id) WHERE sent_at IS NULL AND parked_at IS NULL;
+
+-- Finds an earlier pending row of the same order, which holds back the later ones
+CREATE INDEX idx_outbox_events_unsent_aggregate ON outbox_events (aggregate_id, id)
+    WHERE sent_at IS NULL AND parked_at IS NULL;
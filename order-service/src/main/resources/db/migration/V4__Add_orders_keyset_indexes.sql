@@ -0,0 +1,12 @@
+-- Keyset pagination on (created_at, id) requires a non-null sort key
+UPDATE orders SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE orders ALTER COLUMN created_at SET NOT NULL;
+
+-- Unfiltered listing, newest first
+CREATE INDEX idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+
+-- Listing filtered by status
+CREATE INDEX idx_orders_status_created_at_id ON orders (status, created_at DESC, id DESC);
+
+-- Listing filtered by customer
+CREATE INDEX idx_orders_customer_created_at_id ON orders (customer_id, created_at DESC, id DESC);
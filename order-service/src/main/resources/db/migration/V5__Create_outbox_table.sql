@@ -0,0 +1,18 @@
+-- Transactional outbox for saga events, written in the same transaction as the order
+CREATE SEQUENCE outbox_events_seq INCREMENT BY 50;
+
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY,
+    aggregate_id VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Relay scans only unsent rows, in insertion order
+CREATE INDEX idx_outbox_events_unsent ON outbox_events (id) WHERE sent_at IS NULL;
+
+-- Retention cleanup of relayed rows
+CREATE INDEX idx_outbox_events_sent_at ON outbox_events (sent_at) WHERE sent_at IS NOT NULL;
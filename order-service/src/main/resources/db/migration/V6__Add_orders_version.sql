@@ -0,0 +1,2 @@
+-- Optimistic concurrency for orders; incremented by every status transition
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Per-customer, per-status order counts and totals, maintained with every order insert and transition
+CREATE TABLE customer_order_summary (
+    customer_id VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    order_count BIGINT NOT NULL,
+    total_amount DECIMAL(19,2) NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (customer_id, status)
+);
+
+-- Backfill from existing orders
+INSERT INTO customer_order_summary (customer_id, status, order_count, total_amount, updated_at)
+SELECT customer_id, status, COUNT(*), SUM(amount), CURRENT_TIMESTAMP
+FROM orders
+GROUP BY customer_id, status;
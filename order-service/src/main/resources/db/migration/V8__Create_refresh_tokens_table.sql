@@ -0,0 +1,10 @@
+-- Single-use refresh tokens, stored as SHA-256 hashes of the opaque token
+CREATE TABLE refresh_tokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Purge of expired tokens
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,59 @@
+-- Range-partition orders by month of created_at. Each month has its own small indexes, and old
+-- months are archived by detaching the partition (OrderArchiver) instead of deleting row by row.
+-- The primary key must contain the partition key; order ids are UUIDs, so id stays unique in practice.
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE orders_unpartitioned RENAME CONSTRAINT orders_pkey TO orders_unpartitioned_pkey;
+DROP INDEX idx_orders_created_at_id;
+DROP INDEX idx_orders_status_created_at_id;
+DROP INDEX idx_orders_customer_created_at_id;
+
+CREATE TABLE orders (
+    id VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    saga_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- One partition per month from the oldest order through three months ahead.
+-- OrderPartitionManager keeps creating future months; there is no default partition.
+DO $$
+DECLARE
+    next_month TIMESTAMP := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM orders_unpartitioned), CURRENT_TIMESTAMP));
+    last_month TIMESTAMP := date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months';
+BEGIN
+    WHILE next_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+            'orders_p' || to_char(next_month, 'YYYYMM'), next_month, next_month + INTERVAL '1 month');
+        next_month := next_month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO orders (id, customer_id, amount, status, saga_id, created_at, version)
+SELECT id, customer_id, amount, status, saga_id, created_at, version FROM orders_unpartitioned;
+
+DROP TABLE orders_unpartitioned;
+
+-- Same keyset indexes as V4, now created on every partition
+CREATE INDEX idx_orders_created_at_id ON orders (created_at DESC, id DESC);
+CREATE INDEX idx_orders_status_created_at_id ON orders (status, created_at DESC, id DESC);
+CREATE INDEX idx_orders_customer_created_at_id ON orders (customer_id, created_at DESC, id DESC);
+
+-- Where each archived order lives: archive file and byte offset of its compressed block
+CREATE TABLE archived_orders (
+    id VARCHAR(255) PRIMARY KEY,
+    archive VARCHAR(64) NOT NULL,
+    block_offset BIGINT NOT NULL
+);
+
+-- Per-customer totals of archived orders, so the customer summary rebuild still counts them
+CREATE TABLE archived_order_totals (
+    customer_id VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    order_count BIGINT NOT NULL,
+    total_amount DECIMAL(19,2) NOT NULL,
+    PRIMARY KEY (customer_id, status)
+);
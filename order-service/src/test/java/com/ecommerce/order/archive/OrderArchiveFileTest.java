@@ -0,0 +1,78 @@
+package com.ecommerce.order.archive;
+
+import com.ecommerce.order.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderArchiveFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readBlock_ShouldDecompressOnlyTheBlockAtOffset() throws IOException {
+        // Given
+        Path file = dir.resolve("orders_p202401.dat.gz");
+        Order first = order("order-1", null);
+        Order second = order("order-2", "saga-2");
+        Order third = order("order-3", "saga-3");
+        long firstOffset;
+        long secondOffset;
+        try (OrderArchiveFile.Writer writer = new OrderArchiveFile.Writer(file)) {
+            firstOffset = writer.append(List.of(first));
+            secondOffset = writer.append(List.of(second, third));
+        }
+
+        // When
+        List<Order> block = OrderArchiveFile.readBlock(file, secondOffset);
+
+        // Then
+        assertEquals(0, firstOffset);
+        assertEquals(List.of("order-2", "order-3"), block.stream().map(Order::getId).toList());
+        Order restored = block.get(0);
+        assertEquals("customer-1", restored.getCustomerId());
+        assertEquals(new BigDecimal("12.50"), restored.getAmount());
+        assertEquals(Order.OrderStatus.COMPLETED, restored.getStatus());
+        assertEquals("saga-2", restored.getSagaId());
+        assertEquals(second.getCreatedAt(), restored.getCreatedAt());
+        assertEquals(3L, restored.getVersion());
+        assertNull(OrderArchiveFile.readBlock(file, firstOffset).get(0).getSagaId());
+    }
+
+    @Test
+    void writer_ShouldProduceAFileThatIsValidGzipAsAWhole() throws IOException {
+        // Given
+        Path file = dir.resolve("orders_p202402.dat.gz");
+        try (OrderArchiveFile.Writer writer = new OrderArchiveFile.Writer(file)) {
+            writer.append(List.of(order("order-1", null)));
+            writer.append(List.of(order("order-2", null)));
+        }
+
+        // When
+        byte[] content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            content = in.readAllBytes();
+        }
+
+        // Then
+        assertTrue(content.length > 0);
+    }
+
+    private static Order order(String id, String sagaId) {
+        Order order = new Order(id, "customer-1", new BigDecimal("12.50"));
+        order.setStatus(Order.OrderStatus.COMPLETED);
+        order.setSagaId(sagaId);
+        order.setVersion(3L);
+        return order;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.order.cache;
+
+import com.ecommerce.order.entity.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCacheTest {
+
+    private final OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Test
+    void getAll_ShouldCacheLoadedOrders() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        orderCache.getAll(List.of("order-1", "order-2"), misses -> {
+            loads.incrementAndGet();
+            return Map.of("order-1", order("order-1"), "order-2", order("order-2"));
+        });
+
+        // When
+        Map<String, Order> found = orderCache.getAll(List.of("order-1", "order-2"), misses -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void getAll_ShouldNotCacheOrderInvalidatedDuringLoad() {
+        // Given
+        Order stale = order("order-1");
+
+        // When
+        Map<String, Order> found = orderCache.getAll(List.of("order-1"), misses -> {
+            // The transition commits after the load read the row
+            orderCache.invalidateAll(List.of("order-1"));
+            return Map.of("order-1", stale);
+        });
+
+        // Then
+        assertSame(stale, found.get("order-1"));
+        assertTrue(orderCache.get("order-1", id -> Optional.empty()).isEmpty());
+    }
+
+    private Order order(String id) {
+        return new Order(id, "customer-1", new BigDecimal("10.00"));
+    }
+}
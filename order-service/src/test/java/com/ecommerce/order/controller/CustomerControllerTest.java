@@ -0,0 +1,111 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.config.SecurityConfig;
+import com.ecommerce.order.security.JwtTokenProvider;
+import com.ecommerce.order.service.CustomerSummaryService;
+import com.ecommerce.order.service.SummaryRebuild;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CustomerController.class)
+@Import({SecurityConfig.class, JwtTokenProvider.class, CustomerControllerTest.Metrics.class})
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @MockBean
+    private CustomerSummaryService customerSummaryService;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void rebuildSummaries_ShouldStartInBackgroundForAdminToken() throws Exception {
+        // Given
+        SummaryRebuild rebuild = mock(SummaryRebuild.class);
+        when(rebuild.getState()).thenReturn(SummaryRebuild.State.RUNNING);
+        when(customerSummaryService.startRebuild()).thenReturn(rebuild);
+
+        // When & Then
+        mockMvc.perform(post("/customers/summary/rebuild").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        verify(customerSummaryService, never()).rebuild();
+    }
+
+    @Test
+    void rebuildSummaries_ShouldConflictWhileRebuildIsRunning() throws Exception {
+        // Given
+        when(customerSummaryService.startRebuild()).thenThrow(new IllegalStateException("already running"));
+
+        // When & Then
+        mockMvc.perform(post("/customers/summary/rebuild").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getRebuild_ShouldReportLastRebuild() throws Exception {
+        // Given
+        SummaryRebuild rebuild = mock(SummaryRebuild.class);
+        when(rebuild.getState()).thenReturn(SummaryRebuild.State.COMPLETED);
+        when(rebuild.getRows()).thenReturn(42L);
+        when(customerSummaryService.lastRebuild()).thenReturn(Optional.of(rebuild));
+
+        // When & Then
+        mockMvc.perform(get("/customers/summary/rebuild").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.rows").value(42));
+    }
+
+    @Test
+    void getRebuild_ShouldReturnNotFoundBeforeFirstRebuild() throws Exception {
+        // Given
+        when(customerSummaryService.lastRebuild()).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/customers/summary/rebuild").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rebuildSummaries_ShouldForbidUserToken() throws Exception {
+        // Given
+        String token = tokenProvider.generateToken("user", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        // When & Then
+        mockMvc.perform(post("/customers/summary/rebuild").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(customerSummaryService);
+    }
+
+    private String adminToken() {
+        return tokenProvider.generateToken("admin", AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+    }
+}
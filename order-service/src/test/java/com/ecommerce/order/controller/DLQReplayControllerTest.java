@@ -0,0 +1,76 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.config.SecurityConfig;
+import com.ecommerce.order.replay.DLQReplayService;
+import com.ecommerce.order.replay.ReplayJob;
+import com.ecommerce.order.replay.ReplayRequest;
+import com.ecommerce.order.security.JwtTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DLQReplayController.class)
+@Import({SecurityConfig.class, JwtTokenProvider.class, DLQReplayControllerTest.Metrics.class})
+class DLQReplayControllerTest {
+
+    private static final String REQUEST = "{\"topic\":\"saga-operations-dlq\",\"dryRun\":true}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @MockBean
+    private DLQReplayService replayService;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void startReplay_ShouldAcceptAdminToken() throws Exception {
+        // Given
+        String token = tokenProvider.generateToken("admin", AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+        when(replayService.start(any(ReplayRequest.class))).thenReturn(mock(ReplayJob.class));
+
+        // When & Then
+        mockMvc.perform(post("/admin/dlq/replays")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void startReplay_ShouldForbidUserToken() throws Exception {
+        // Given
+        String token = tokenProvider.generateToken("user", AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        // When & Then
+        mockMvc.perform(post("/admin/dlq/replays")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(replayService);
+    }
+}
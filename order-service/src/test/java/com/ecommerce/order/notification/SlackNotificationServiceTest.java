@@ -0,0 +1,100 @@
+package com.ecommerce.order.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackNotificationServiceTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SlackNotificationService slackService;
+
+    @BeforeEach
+    void setUp() {
+        slackService = new SlackNotificationService(restTemplate, meterRegistry, "https://hooks.example/test",
+            Duration.ofHours(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slackService.destroy();
+    }
+
+    @Test
+    void sendDLQAlert_ShouldAggregateBurstIntoOneDigest() {
+        // Given
+        for (int i = 0; i < 1000; i++) {
+            slackService.sendDLQAlert("payment-responses-dlq", "order-" + i, "Payment processing failed permanently");
+        }
+        slackService.sendDLQAlert("erp-responses-dlq", "order-x", "ERP processing failed permanently");
+        verifyNoInteractions(restTemplate);
+
+        // When
+        slackService.flush();
+
+        // Then
+        @SuppressWarnings("rawtypes")
+        ArgumentCaptor<HttpEntity> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(eq("https://hooks.example/test"), request.capture(), eq(String.class));
+        String text = request.getValue().getBody().toString();
+        assertTrue(text.contains("1001 events"));
+        assertTrue(text.contains("`payment-responses-dlq`: 1000"));
+        assertTrue(text.contains("and 998 more"));
+        assertEquals(998.0, meterRegistry.get("dlq.alerts.unsampled").counter().count());
+        assertEquals(1000.0, meterRegistry.get("dlq.alerts.received").tag("topic", "payment-responses-dlq").counter().count());
+    }
+
+    @Test
+    void flush_ShouldNotPostEmptyDigestAndShouldCountFailures() {
+        // Given
+        slackService.flush();
+        verifyNoInteractions(restTemplate);
+        slackService.sendDLQAlert("saga-start-dlq", "order-1", "Saga start failed permanently");
+        when(restTemplate.postForEntity(any(String.class), any(), eq(String.class)))
+            .thenThrow(new IllegalStateException("webhook down"));
+
+        // When
+        slackService.flush();
+        slackService.flush();
+
+        // Then - the failed digest is not retried
+        verify(restTemplate, times(1)).postForEntity(any(String.class), any(), eq(String.class));
+        assertEquals(1.0, meterRegistry.get("dlq.alerts.digests").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void drain_ShouldStartNewWindowWithFreshSamples() {
+        // Given
+        DLQAlertDigest digest = new DLQAlertDigest(1);
+        digest.add("topic-a", "order-1", "failed");
+        digest.add("topic-a", "order-2", "failed");
+        digest.drain();
+
+        // When
+        digest.add("topic-a", "order-3", "failed");
+        List<DLQAlertDigest.TopicSummary> summaries = digest.drain();
+
+        // Then
+        assertEquals(List.of(new DLQAlertDigest.TopicSummary("topic-a", 1, List.of("order-3"), "failed")), summaries);
+        assertTrue(digest.drain().isEmpty());
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.order.outbox;
+
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.order.entity.OutboxEvent;
+import com.ecommerce.order.repository.OutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxPublisher outboxPublisher;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxPublisher = new OutboxPublisher(outboxRepository, objectMapper);
+        outboxRelay = new OutboxRelay(outboxRepository, kafkaTemplate, objectMapper,
+            new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 10);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxRelay, "retryBackoffMs", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "maxRetryBackoffMs", 60000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldPublishKeyedRecordsAndMarkThemSentInBulk() {
+        // Given
+        OutboxEvent first = outboxRow(1L, "order-1");
+        OutboxEvent second = outboxRow(2L, "order-2");
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of(first, second));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        int sent = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(2, sent);
+        ArgumentCaptor<ProducerRecord<String, Object>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        ProducerRecord<String, Object> record = recordCaptor.getAllValues().get(0);
+        assertEquals("payment-requests", record.topic());
+        assertEquals("order-1", record.key());
+        assertInstanceOf(OrderCreatedEvent.class, record.value());
+        assertEquals(first.getSagaStartedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+            SagaHeaders.startedAt(record.headers()));
+        assertEquals("order-2", recordCaptor.getAllValues().get(1).key());
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any());
+        assertEquals(2.0, meterRegistry.get("outbox.relay.published").counter().count());
+        assertEquals(2, meterRegistry.get("saga.stage").tag("stage", "payment-requests.outbox").timer().count());
+    }
+
+    @Test
+    void relayBatch_ShouldLeaveFailedRowsUnsentAndBackOff() {
+        // Given
+        OutboxEvent first = outboxRow(1L, "order-1");
+        OutboxEvent second = outboxRow(2L, "order-2");
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of(first, second));
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")))
+            .when(kafkaTemplate).send(argThat((ProducerRecord<String, Object> record) -> "order-1".equals(record.key())));
+        doReturn(CompletableFuture.completedFuture(null))
+            .when(kafkaTemplate).send(argThat((ProducerRecord<String, Object> record) -> "order-2".equals(record.key())));
+
+        // When
+        int sent = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(1, sent);
+        verify(outboxRepository).markSent(eq(List.of(2L)), any());
+        verify(outboxRepository).saveAll(List.of(first));
+        assertEquals(1, first.getAttempts());
+        assertNotNull(first.getRetryAt());
+        assertNull(first.getParkedAt());
+        assertEquals(0, second.getAttempts());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldDoubleBackoffUpToTheCap() {
+        // Given
+        OutboxEvent row = outboxRow(1L, "order-1");
+        row.setAttempts(1);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 10);
+        ReflectionTestUtils.setField(outboxRelay, "maxRetryBackoffMs", 1500L);
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of(row));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(2, row.getAttempts());
+        assertFalse(row.getRetryAt().isBefore(before.plusNanos(1_500_000_000L)));
+        assertTrue(row.getRetryAt().isBefore(before.plusSeconds(2)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldParkRowAfterMaxAttempts() {
+        // Given
+        OutboxEvent row = outboxRow(1L, "order-1");
+        row.setAttempts(2);
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of(row));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("record too large")));
+
+        // When
+        int sent = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(0, sent);
+        assertEquals(3, row.getAttempts());
+        assertNotNull(row.getParkedAt());
+        verify(outboxRepository).saveAll(List.of(row));
+        verify(outboxRepository, never()).markSent(any(), any());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.parked").counter().count());
+        assertEquals(0.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldStampSagaStartOfRowEnqueuedLater() {
+        // Given
+        LocalDateTime sagaStartedAt = LocalDateTime.now().minusMinutes(5);
+        OutboxEvent retry = outboxRow(1L, "order-1", sagaStartedAt);
+        OutboxEvent legacy = outboxRow(2L, "order-2", null);
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of(retry, legacy));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        outboxRelay.relayBatch();
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, Object>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        assertEquals(sagaStartedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+            SagaHeaders.startedAt(recordCaptor.getAllValues().get(0).headers()));
+        assertEquals(legacy.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+            SagaHeaders.startedAt(recordCaptor.getAllValues().get(1).headers()));
+    }
+
+    @Test
+    void relayBatch_ShouldDoNothingWhenOutboxIsEmpty() {
+        // Given
+        when(outboxRepository.lockNextBatch(any(), eq(10))).thenReturn(List.of());
+
+        // When
+        int sent = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(0, sent);
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxRepository, never()).markSent(any(), any());
+        verify(outboxRepository, never()).saveAll(any());
+    }
+
+    private OutboxEvent outboxRow(Long id, String orderId) {
+        return outboxRow(id, orderId, LocalDateTime.now().minusSeconds(1));
+    }
+
+    private OutboxEvent outboxRow(Long id, String orderId, LocalDateTime sagaStartedAt) {
+        OutboxEvent row = outboxPublisher.toOutboxEvent("payment-requests",
+            new OrderCreatedEvent(orderId, "saga-" + orderId, "customer-123", new BigDecimal("99.99")), sagaStartedAt);
+        row.setId(id);
+        return row;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.order.replay;
+
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DLQReplayServiceTest {
+
+    private static final String DLQ = "saga-operations-dlq";
+
+    @Mock
+    private ConsumerFactory<Object, Object> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private OrderService orderService;
+
+    private final MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private DLQReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        replayService = new DLQReplayService(consumerFactory, kafkaTemplate, orderService, new SimpleMeterRegistry(),
+            1, 50, 500, 10, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayService.destroy();
+    }
+
+    @Test
+    void start_ShouldRepublishOnlyEventsOfOrdersStillInFlight() throws Exception {
+        // Given
+        TopicPartition partition = new TopicPartition(DLQ, 0);
+        consumer.updatePartitions(DLQ, List.of(new PartitionInfo(DLQ, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, 5L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1")));
+            consumer.addRecord(record(1, new PaymentProcessedEvent("order-2", "saga-2", "payment-2")));
+            consumer.addRecord(record(2, new PaymentProcessedEvent("order-3", "saga-3", "payment-3")));
+            consumer.addRecord(record(3, null));
+            consumer.addRecord(record(4, new PaymentProcessedEvent("order-1", "saga-1", "payment-1")));
+        });
+        when(consumerFactory.createConsumer(startsWith("dlq-replay-"), any(), isNull(), any(Properties.class))).thenReturn(consumer);
+        when(orderService.getOrders(anyList())).thenReturn(List.of(
+            order("order-1", Order.OrderStatus.PAYMENT_PROCESSING),
+            order("order-2", Order.OrderStatus.COMPLETED)));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, Object>>any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        ReplayJob job = replayService.start(new ReplayRequest(DLQ, null, null, null, null, null, null, null, 100, false));
+        awaitFinished(job);
+
+        // Then
+        assertEquals(ReplayJob.State.COMPLETED, job.getState());
+        assertEquals(5, job.getTotal());
+        assertEquals(5, job.getScanned());
+        assertEquals(1, job.getRepublished());
+        assertEquals(Map.of("duplicate", 1L, "missing", 1L, "terminal", 1L, "unreadable", 1L), job.getSkipped());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        assertEquals("payment-responses", sent.getValue().topic());
+        assertEquals("order-1", sent.getValue().key());
+        assertNotNull(sent.getValue().headers().lastHeader(DLQReplayService.REPLAY_JOB_HEADER));
+    }
+
+    @Test
+    void start_ShouldRejectTargetThatIsNotSourceTopic() {
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(
+            new ReplayRequest(DLQ, "inventory-commands", null, null, null, null, null, null, null, false)));
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(
+            new ReplayRequest(DLQ, DLQ, null, null, null, null, null, null, null, false)));
+        verifyNoInteractions(consumerFactory, kafkaTemplate);
+    }
+
+    @Test
+    void start_ShouldRejectUnknownTopicAndExcessiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(
+            new ReplayRequest("payment-requests", null, null, null, null, null, null, null, null, false)));
+        assertThrows(IllegalArgumentException.class, () -> replayService.start(
+            new ReplayRequest(DLQ, null, null, null, null, null, null, null, 10_000, false)));
+        verifyNoInteractions(consumerFactory);
+    }
+
+    private ConsumerRecord<Object, Object> record(long offset, OrderEvent event) {
+        return new ConsumerRecord<>(DLQ, 0, offset, event != null ? event.getOrderId() : null, event);
+    }
+
+    private Order order(String id, Order.OrderStatus status) {
+        Order order = new Order(id, "customer-1", new BigDecimal("10.00"));
+        order.setStatus(status);
+        return order;
+    }
+
+    private void awaitFinished(ReplayJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
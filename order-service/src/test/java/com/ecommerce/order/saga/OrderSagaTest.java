@@ -0,0 +1,263 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
+import com.ecommerce.common.events.ERPFailedEvent;
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.SagaInstance;
+import com.ecommerce.order.erp.ErpCallException;
+import com.ecommerce.order.erp.ErpClient;
+import com.ecommerce.order.outbox.OutboxPublisher;
+import com.ecommerce.order.repository.StatusTransition;
+import com.ecommerce.order.service.OrderService;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSagaTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private ErpClient erpClient;
+
+    @Mock
+    private SagaStateTracker sagaStateTracker;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(4, 100, "test-payment-responses");
+
+    private SagaTimings sagaTimings;
+
+    private OrderSaga orderSaga;
+
+    @BeforeEach
+    void setUp() {
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build());
+        lenient().when(orderService.transition(any(), eq(Order.OrderStatus.ERP_PROCESSING))).thenReturn(true);
+        lenient().when(erpClient.updateOrder(any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(orderService.completeOrder(any())).thenReturn(true);
+        sagaTimings = new SagaTimings(meterRegistry, Duration.ofMinutes(15), 1000);
+        orderSaga = new OrderSaga(orderService, kafkaTemplate, outboxPublisher, executor, erpClient,
+            sagaStateTracker, sagaTimings, new TransactionTemplate(transactionManager), retryRegistry, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.close();
+    }
+
+    @Test
+    void handlePaymentResponses_ShouldApplyAllTransitionsInOneBatch() {
+        // Given
+        List<ConsumerRecord<String, OrderEvent>> records = List.of(
+            record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1")),
+            record(1, new PaymentFailedEvent("order-2", "saga-2", "declined")),
+            record(2, null)
+        );
+        when(orderService.transitionAll(List.of(
+                new StatusTransition("order-1", Order.OrderStatus.PAYMENT_PROCESSING),
+                new StatusTransition("order-2", Order.OrderStatus.CANCELLED))))
+            .thenReturn(new boolean[] {true, true});
+
+        // When
+        orderSaga.handlePaymentResponses(records);
+
+        // Then
+        verify(orderService).completeOrder("order-1");
+        verify(orderService, never()).updateStatus(any(), any());
+        verify(sagaStateTracker).advanced("order-1", SagaInstance.SagaStep.ERP);
+        verify(sagaStateTracker).finished("order-1");
+        verify(sagaStateTracker).finishedAll(List.of("order-2"));
+        assertEquals(3.0, meterRegistry.get("saga.payment_responses.batch.size").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("saga.payment_responses.failed").counter().count());
+    }
+
+    @Test
+    void handlePaymentResponses_ShouldSkipErpForRejectedTransitions() {
+        // Given
+        List<ConsumerRecord<String, OrderEvent>> records = List.of(
+            record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1"))
+        );
+        when(orderService.transitionAll(any())).thenReturn(new boolean[] {false});
+
+        // When
+        orderSaga.handlePaymentResponses(records);
+
+        // Then
+        verify(orderService, never()).completeOrder(any());
+    }
+
+    @Test
+    void handlePaymentResponses_ShouldFallBackToPerRecordProcessingWhenBatchFails() {
+        // Given
+        List<ConsumerRecord<String, OrderEvent>> records = List.of(
+            record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1")),
+            record(1, new PaymentProcessedEvent("order-2", "saga-2", "payment-2"))
+        );
+        when(orderService.transitionAll(any())).thenThrow(new IllegalStateException("batch failed"));
+        when(orderService.updateStatus("order-1", "PAYMENT_PROCESSING")).thenReturn(true);
+        when(orderService.updateStatus("order-2", "PAYMENT_PROCESSING")).thenThrow(new IllegalStateException("poison"));
+
+        // When
+        orderSaga.handlePaymentResponses(records);
+
+        // Then - the healthy record completes, only the poison record goes to the DLQ
+        verify(orderService).completeOrder("order-1");
+        verify(kafkaTemplate).send(eq("saga-operations-dlq"), eq("order-2"), any(OrderEvent.class));
+        verify(orderService).cancelOrder(eq("order-2"), any());
+        assertEquals(1.0, meterRegistry.get("saga.payment_responses.batch.fallback").counter().count());
+    }
+
+    @Test
+    void handlePaymentResponseKeyOrdered_ShouldAcknowledgeAfterProcessing() throws Exception {
+        // Given
+        Acknowledgment ack = mock(Acknowledgment.class);
+        when(orderService.updateStatus("order-1", "PAYMENT_PROCESSING")).thenReturn(true);
+
+        // When
+        orderSaga.handlePaymentResponseKeyOrdered(
+            record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1")), ack);
+
+        // Then
+        verify(ack, timeout(5000)).acknowledge();
+        verify(orderService).completeOrder("order-1");
+    }
+
+    @Test
+    void handlePaymentResponse_ShouldCompensateWhenErpCallFails() {
+        // Given
+        CompletableFuture<Void> erpCall = new CompletableFuture<>();
+        when(orderService.updateStatus("order-1", "PAYMENT_PROCESSING")).thenReturn(true);
+        when(erpClient.updateOrder("order-1")).thenReturn(erpCall);
+        Order order = new Order("order-1", "customer-1", new BigDecimal("10.00"));
+        when(orderService.cancelOrder(eq("order-1"), any())).thenReturn(true);
+        when(orderService.getOrder("order-1")).thenReturn(Optional.of(order));
+
+        // When - the listener returns before ERP answers
+        orderSaga.handlePaymentResponse(new PaymentProcessedEvent("order-1", "saga-1", "payment-1"));
+        verify(orderService, never()).cancelOrder(any(), any());
+        erpCall.completeExceptionally(new ErpCallException(503));
+
+        // Then
+        verify(outboxPublisher).enqueue(eq("payment-compensations"), same(order), any(ERPFailedEvent.class));
+        verify(kafkaTemplate, never()).send(eq("payment-compensations"), any(), any());
+        verify(orderService, never()).completeOrder(any());
+        verify(sagaStateTracker).finished("order-1");
+        assertEquals(1, meterRegistry.get("saga.stage").tags("stage", "erp.update", "outcome", "failed").timer().count());
+    }
+
+    @Test
+    void retryErp_ShouldNotRefundCompletedOrderOnLateErpFailure() {
+        // Given - a duplicate ERP call fails after the order was already completed
+        when(erpClient.updateOrder("order-1")).thenReturn(CompletableFuture.failedFuture(new ErpCallException(503)));
+        when(orderService.cancelOrder(eq("order-1"), any())).thenReturn(false);
+
+        // When
+        orderSaga.retryErp("order-1", "saga-1", Order.OrderStatus.ERP_PROCESSING);
+
+        // Then
+        verifyNoInteractions(outboxPublisher);
+        verify(kafkaTemplate, never()).send(eq("payment-compensations"), any(), any());
+        verify(sagaStateTracker, never()).finished(any());
+        assertThrows(Exception.class, () -> meterRegistry.get("saga.end_to_end").tag("outcome", "cancelled").timer());
+    }
+
+    @Test
+    void retryErp_ShouldNotFinishSagaWhenCompletionIsRejected() {
+        // Given - recovery cancelled the order while the ERP call was running
+        when(orderService.completeOrder("order-1")).thenReturn(false);
+
+        // When
+        orderSaga.retryErp("order-1", "saga-1", Order.OrderStatus.ERP_PROCESSING);
+
+        // Then
+        verify(sagaStateTracker, never()).finished(any());
+        assertThrows(Exception.class, () -> meterRegistry.get("saga.end_to_end").tag("outcome", "completed").timer());
+    }
+
+    @Test
+    void handlePaymentResponse_ShouldTimeSagaFromStartHeaderToCompletion() {
+        // Given
+        when(orderService.updateStatus("order-1", "PAYMENT_PROCESSING")).thenReturn(true);
+        ConsumerRecord<String, OrderEvent> response = record(0, new PaymentProcessedEvent("order-1", "saga-1", "payment-1"));
+        long now = System.currentTimeMillis();
+        SagaHeaders.stamp(response.headers(), now - 2_000);
+
+        // When - the listener interceptor sees the record before the saga handles it
+        sagaTimings.received(response);
+        orderSaga.handlePaymentResponse(response.value());
+
+        // Then
+        assertEquals(1, meterRegistry.get("saga.stage").tag("stage", "payment-responses.queue").timer().count());
+        assertEquals(1, meterRegistry.get("saga.stage").tags("stage", "erp.update", "outcome", "updated").timer().count());
+        assertTrue(meterRegistry.get("saga.end_to_end").tag("outcome", "completed").timer()
+            .totalTime(TimeUnit.MILLISECONDS) >= 2_000);
+    }
+
+    @Test
+    void retryErp_ShouldResendErpUpdateWithoutRepeatingTransition() {
+        // When
+        orderSaga.retryErp("order-1", "saga-1", Order.OrderStatus.ERP_PROCESSING);
+
+        // Then
+        verify(orderService, never()).transition(any(), any());
+        verify(erpClient).updateOrder("order-1");
+        verify(orderService).completeOrder("order-1");
+        verify(sagaStateTracker).finished("order-1");
+    }
+
+    @Test
+    void handlePaymentResponse_ShouldNotCallErpWhenErpTransitionIsRejected() {
+        // Given
+        when(orderService.updateStatus("order-1", "PAYMENT_PROCESSING")).thenReturn(true);
+        when(orderService.transition("order-1", Order.OrderStatus.ERP_PROCESSING)).thenReturn(false);
+
+        // When
+        orderSaga.handlePaymentResponse(new PaymentProcessedEvent("order-1", "saga-1", "payment-1"));
+
+        // Then
+        verify(erpClient, never()).updateOrder(any());
+    }
+
+    private ConsumerRecord<String, OrderEvent> record(long offset, OrderEvent event) {
+        return new ConsumerRecord<>("payment-responses", 0, offset, event != null ? event.getOrderId() : null, event);
+    }
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.common.events.OrderCancelledEvent;
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.SagaInstance;
+import com.ecommerce.order.outbox.OutboxPublisher;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.SagaInstanceRepository;
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SagaRecoveryTest {
+
+    @Mock
+    private SagaInstanceRepository sagaInstanceRepository;
+
+    @Mock
+    private SagaStateTracker sagaStateTracker;
+
+    @Mock
+    private SagaTimings sagaTimings;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private OrderSaga orderSaga;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SagaRecovery sagaRecovery;
+
+    @BeforeEach
+    void setUp() {
+        sagaRecovery = new SagaRecovery(sagaInstanceRepository, sagaStateTracker, sagaTimings, orderRepository, orderService,
+            outboxPublisher, orderSaga, transactionTemplate, meterRegistry, 3, 200);
+    }
+
+    @Test
+    void recover_ShouldResendPaymentRequestForPendingOrder() {
+        // Given
+        Order order = order(Order.OrderStatus.PENDING);
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+        List<Runnable> afterCommit = new ArrayList<>();
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.PAYMENT, 1), afterCommit);
+
+        // Then
+        verify(outboxPublisher).enqueue(eq("payment-requests"), same(order), any(OrderCreatedEvent.class));
+        verify(sagaStateTracker).retried("order-1", SagaInstance.SagaStep.PAYMENT);
+        assertTrue(afterCommit.isEmpty());
+        assertEquals(1.0, meterRegistry.get("saga.recovery").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void recover_ShouldRetryErpOnlyAfterCommit() {
+        // Given
+        Order order = order(Order.OrderStatus.ERP_PROCESSING);
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+        List<Runnable> afterCommit = new ArrayList<>();
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.ERP, 2), afterCommit);
+
+        // Then
+        verify(sagaStateTracker).retried("order-1", SagaInstance.SagaStep.ERP);
+        verifyNoInteractions(orderSaga);
+        afterCommit.forEach(Runnable::run);
+        verify(orderSaga).retryErp("order-1", "saga-1", Order.OrderStatus.ERP_PROCESSING);
+    }
+
+    @Test
+    void recover_ShouldCompensateAfterMaxAttempts() {
+        // Given
+        Order order = order(Order.OrderStatus.ERP_PROCESSING);
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+        when(orderService.cancelOrder(eq("order-1"), any())).thenReturn(true);
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.ERP, 3), new ArrayList<>());
+
+        // Then
+        verify(orderService).cancelOrder(eq("order-1"), any());
+        verify(outboxPublisher).enqueue(eq("payment-compensations"), same(order), any(OrderCancelledEvent.class));
+        verify(sagaStateTracker).finished("order-1");
+        verify(sagaTimings).ended(eq("order-1"), eq(SagaTimings.CANCELLED), anyLong());
+        verifyNoInteractions(orderSaga);
+    }
+
+    @Test
+    void recover_ShouldResendRequestAfterLostResponseWithoutCompensating() {
+        // Given - payment-service processed the request, but its response was lost
+        Order order = order(Order.OrderStatus.PENDING);
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.PAYMENT, 2), new ArrayList<>());
+
+        // Then - the resent request is answered from payment-service's stored result
+        verify(outboxPublisher).enqueue(eq("payment-requests"), same(order), any(OrderCreatedEvent.class));
+        verify(outboxPublisher, never()).enqueue(eq("payment-compensations"), any(), any());
+        verify(orderService, never()).cancelOrder(any(), any());
+        verify(sagaStateTracker, never()).finished(any());
+    }
+
+    @Test
+    void recover_ShouldNotRefundWhenCancellationIsRejected() {
+        // Given - the resent payment response moved the order on after it was read
+        Order order = order(Order.OrderStatus.PENDING);
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+        when(orderService.cancelOrder(eq("order-1"), any())).thenReturn(false);
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.PAYMENT, 3), new ArrayList<>());
+
+        // Then
+        verifyNoInteractions(outboxPublisher);
+        verify(sagaStateTracker, never()).finished(any());
+        verify(sagaTimings, never()).ended(any(), any(), anyLong());
+    }
+
+    @Test
+    void recover_ShouldOnlyCleanUpSagaOfTerminalOrder() {
+        // Given
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order(Order.OrderStatus.COMPLETED)));
+
+        // When
+        sagaRecovery.recover(saga(SagaInstance.SagaStep.ERP, 3), new ArrayList<>());
+
+        // Then
+        verify(sagaStateTracker).finished("order-1");
+        verifyNoInteractions(orderService, outboxPublisher, orderSaga);
+    }
+
+    private SagaInstance saga(SagaInstance.SagaStep step, int attempts) {
+        return new SagaInstance("saga-1", "order-1", step, attempts, LocalDateTime.now().minusMinutes(1));
+    }
+
+    private Order order(Order.OrderStatus status) {
+        Order order = new Order("order-1", "customer-1", new BigDecimal("100.00"));
+        order.setSagaId("saga-1");
+        order.setStatus(status);
+        return order;
+    }
+}
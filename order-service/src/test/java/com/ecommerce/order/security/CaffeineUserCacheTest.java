@@ -0,0 +1,44 @@
+package com.ecommerce.order.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineUserCacheTest {
+
+    private final CaffeineUserCache userCache = new CaffeineUserCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+
+    @Test
+    void getUserFromCache_ShouldKeepPasswordWhenReturnedCopyIsErased() {
+        // Given
+        userCache.putUserInCache(User.withUsername("user").password("{bcrypt}hash").roles("USER").build());
+
+        // When
+        UserDetails first = userCache.getUserFromCache("user");
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = userCache.getUserFromCache("user");
+
+        // Then
+        assertNull(first.getPassword());
+        assertEquals("{bcrypt}hash", second.getPassword());
+        assertEquals(1, second.getAuthorities().size());
+    }
+
+    @Test
+    void removeUserFromCache_ShouldEvictUser() {
+        // Given
+        userCache.putUserInCache(User.withUsername("user").password("hash").roles("USER").build());
+
+        // When
+        userCache.removeUserFromCache("user");
+
+        // Then
+        assertNull(userCache.getUserFromCache("user"));
+    }
+}
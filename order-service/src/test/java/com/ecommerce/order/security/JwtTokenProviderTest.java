@@ -0,0 +1,68 @@
+package com.ecommerce.order.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-for-hs512-signatures-must-be-at-least-64-bytes-long!!!!";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100, meterRegistry);
+
+    @Test
+    void verify_ShouldReturnSubjectAndServeRepeatTokensFromCache() {
+        // Given
+        String token = provider.generateToken("user");
+
+        // When
+        Optional<JwtTokenProvider.VerifiedToken> first = provider.verify(token);
+        Optional<JwtTokenProvider.VerifiedToken> second = provider.verify(token);
+
+        // Then
+        assertEquals("user", first.orElseThrow().username());
+        assertSame(first.get(), second.orElseThrow());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt-verified-tokens")
+            .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void verify_ShouldReturnAuthoritiesGrantedAtLogin() {
+        // Given
+        String admin = provider.generateToken("admin", AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+
+        // When & Then
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), provider.verify(admin).orElseThrow().authorities());
+        assertEquals(List.of(), provider.verify(provider.generateToken("user")).orElseThrow().authorities());
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedAndForeignTokens() {
+        // Given
+        String token = provider.generateToken("user");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        JwtTokenProvider otherKey = new JwtTokenProvider(SECRET.replace('t', 'x'), 60_000, 100, meterRegistry);
+
+        // When & Then
+        assertTrue(provider.verify(tampered).isEmpty());
+        assertTrue(provider.verify(otherKey.generateToken("user")).isEmpty());
+        assertTrue(provider.verify("not-a-jwt").isEmpty());
+        assertFalse(provider.validateToken(tampered));
+    }
+
+    @Test
+    void verify_ShouldRejectExpiredTokens() {
+        // Given
+        JwtTokenProvider expiring = new JwtTokenProvider(SECRET, -1_000, 100, meterRegistry);
+
+        // When & Then
+        assertTrue(provider.verify(expiring.generateToken("user")).isEmpty());
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.CustomerOrderSummary;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.CustomerOrderSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSummaryServiceTest {
+
+    @Mock
+    private CustomerOrderSummaryRepository summaryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CustomerSummaryService customerSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        customerSummaryService = new CustomerSummaryService(summaryRepository, jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    void getSummary_ShouldAggregateStatusRowsWithoutScanningOrders() {
+        // Given
+        when(summaryRepository.findByCustomerId("customer-1")).thenReturn(List.of(
+            new CustomerOrderSummary("customer-1", Order.OrderStatus.COMPLETED, 3, new BigDecimal("300.00")),
+            new CustomerOrderSummary("customer-1", Order.OrderStatus.CANCELLED, 1, new BigDecimal("50.00")),
+            new CustomerOrderSummary("customer-1", Order.OrderStatus.PENDING, 0, BigDecimal.ZERO)
+        ));
+
+        // When
+        CustomerSummary summary = customerSummaryService.getSummary("customer-1");
+
+        // Then
+        assertEquals(4, summary.orderCount());
+        assertEquals(new BigDecimal("350.00"), summary.totalAmount());
+        assertEquals(new BigDecimal("300.00"), summary.lifetimeSpend());
+        assertEquals(2, summary.byStatus().size());
+        assertEquals(1, summary.byStatus().get(Order.OrderStatus.CANCELLED).orderCount());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getSummary_ShouldReturnZerosForCustomerWithoutOrders() {
+        // Given
+        when(summaryRepository.findByCustomerId("customer-2")).thenReturn(List.of());
+
+        // When
+        CustomerSummary summary = customerSummaryService.getSummary("customer-2");
+
+        // Then
+        assertEquals(0, summary.orderCount());
+        assertEquals(BigDecimal.ZERO, summary.lifetimeSpend());
+        assertTrue(summary.byStatus().isEmpty());
+    }
+
+    @Test
+    void rebuildChunk_ShouldTakeChunkLockBeforeRecomputing() {
+        // Given
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        when(jdbcTemplate.update(contains("INSERT INTO customer_order_summary"), any(Object[].class))).thenReturn(7);
+
+        // When
+        int rows = customerSummaryService.rebuildChunk(3);
+
+        // Then
+        assertEquals(7, rows);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).query(contains("pg_advisory_xact_lock"), any(RowCallbackHandler.class), eq(3));
+        inOrder.verify(jdbcTemplate).update(contains("INSERT INTO customer_order_summary"), any(Object[].class));
+        inOrder.verify(jdbcTemplate).update(contains("DELETE FROM customer_order_summary"), any(Object[].class));
+    }
+
+    @Test
+    void startRebuild_ShouldRunInBackgroundAndRejectSecondRebuildWhileRunning() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(customerSummaryService, "chunks", 1);
+        ReflectionTestUtils.setField(customerSummaryService, "parallelism", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return 5;
+        });
+
+        // When
+        SummaryRebuild rebuild = customerSummaryService.startRebuild();
+
+        // Then
+        assertEquals(SummaryRebuild.State.RUNNING, rebuild.getState());
+        assertThrows(IllegalStateException.class, () -> customerSummaryService.startRebuild());
+        release.countDown();
+        await().atMost(10, TimeUnit.SECONDS).until(rebuild::isFinished);
+        assertEquals(SummaryRebuild.State.COMPLETED, rebuild.getState());
+        assertEquals(5, rebuild.getRows());
+        assertSame(rebuild, customerSummaryService.lastRebuild().orElseThrow());
+        assertNotSame(rebuild, customerSummaryService.startRebuild());
+    }
+}
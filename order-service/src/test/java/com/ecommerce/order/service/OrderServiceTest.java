@@ -1,17 +1,28 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.archive.OrderArchive;
+import com.ecommerce.order.cache.OrderCache;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.event.OrderCreatedApplicationEvent;
+import com.ecommerce.order.event.OrdersChangedApplicationEvent;
+import com.ecommerce.order.event.OrdersCreatedApplicationEvent;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,11 +38,19 @@ class OrderServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
     
+    @Mock
+    private OrderArchive orderArchive;
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private OrderCache orderCache;
+    
     private OrderService orderService;
 
     @BeforeEach
     void setUp() {
-        orderService = new OrderService(orderRepository, eventPublisher);
+        orderCache = new OrderCache(100, Duration.ofMinutes(1), meterRegistry);
+        orderService = new OrderService(orderRepository, eventPublisher, orderCache, orderArchive);
     }
 
     @Test
@@ -62,34 +81,238 @@ class OrderServiceTest {
     }
 
     @Test
-    void updateStatus_ShouldUpdateOrderStatus() {
+    void updateStatus_ShouldApplyConditionalTransition() {
         // Given
         String orderId = "order-1";
-        Order order = new Order(orderId, "customer-123", new BigDecimal("99.99"));
-        
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.transition(orderId, EnumSet.of(Order.OrderStatus.PENDING), Order.OrderStatus.PAYMENT_PROCESSING))
+            .thenReturn(1);
 
         // When
-        orderService.updateStatus(orderId, "PAYMENT_PROCESSING");
+        boolean applied = orderService.updateStatus(orderId, "PAYMENT_PROCESSING");
 
         // Then
-        verify(orderRepository).save(order);
-        assertEquals(Order.OrderStatus.PAYMENT_PROCESSING, order.getStatus());
+        assertTrue(applied);
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any(Order.class));
+        ArgumentCaptor<OrdersChangedApplicationEvent> eventCaptor = ArgumentCaptor.forClass(OrdersChangedApplicationEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(List.of(orderId), eventCaptor.getValue().getOrderIds());
     }
 
     @Test
     void completeOrder_ShouldSetStatusToCompleted() {
         // Given
         String orderId = "order-1";
-        Order order = new Order(orderId, "customer-123", new BigDecimal("99.99"));
-        
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.transition(orderId,
+                EnumSet.of(Order.OrderStatus.PAYMENT_PROCESSING, Order.OrderStatus.ERP_PROCESSING),
+                Order.OrderStatus.COMPLETED))
+            .thenReturn(1);
+
+        // When
+        boolean applied = orderService.completeOrder(orderId);
+
+        // Then
+        assertTrue(applied);
+    }
+
+    @Test
+    void updateStatus_ShouldReportRejectedTransition() {
+        // Given - order is already CANCELLED, so the guarded UPDATE matches no row
+        String orderId = "order-1";
+        when(orderRepository.transition(eq(orderId), any(), eq(Order.OrderStatus.PAYMENT_PROCESSING)))
+            .thenReturn(0);
+
+        // When
+        boolean applied = orderService.updateStatus(orderId, "PAYMENT_PROCESSING");
+
+        // Then
+        assertFalse(applied);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void orderStatus_TerminalStatusesShouldHaveNoSuccessors() {
+        for (Order.OrderStatus target : Order.OrderStatus.values()) {
+            assertFalse(target.predecessors().contains(Order.OrderStatus.COMPLETED));
+            assertFalse(target.predecessors().contains(Order.OrderStatus.CANCELLED));
+        }
+        assertTrue(Order.OrderStatus.CANCELLED.predecessors().contains(Order.OrderStatus.PAYMENT_PROCESSING));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOrders_ShouldBulkInsertValidOrdersAndRejectInvalidOnes() {
+        // Given
+        List<NewOrder> newOrders = java.util.Arrays.asList(
+            new NewOrder("customer-1", new BigDecimal("10.00")),
+            new NewOrder("", new BigDecimal("5.00")),
+            new NewOrder("customer-2", BigDecimal.ZERO),
+            null,
+            new NewOrder("customer-3", new BigDecimal("30.00"))
+        );
+
+        // When
+        BatchOrderResult result = orderService.createOrders(newOrders);
+
+        // Then
+        assertEquals(2, result.accepted());
+        assertEquals(3, result.rejected());
+        assertEquals(5, result.items().size());
+        assertEquals(BatchOrderResult.ItemStatus.CREATED, result.items().get(0).status());
+        assertEquals(BatchOrderResult.ItemStatus.REJECTED, result.items().get(1).status());
+        assertEquals("amount must be positive", result.items().get(2).error());
+        assertEquals(BatchOrderResult.ItemStatus.REJECTED, result.items().get(3).status());
+        assertEquals(4, result.items().get(4).index());
+
+        ArgumentCaptor<List<Order>> ordersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository).insertAll(ordersCaptor.capture());
+        assertEquals(2, ordersCaptor.getValue().size());
+        assertEquals(result.items().get(0).orderId(), ordersCaptor.getValue().get(0).getId());
+        verify(orderRepository).addToSummary(ordersCaptor.getValue());
+        verify(orderRepository, never()).save(any(Order.class));
+
+        ArgumentCaptor<OrdersCreatedApplicationEvent> eventCaptor = ArgumentCaptor.forClass(OrdersCreatedApplicationEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(2, eventCaptor.getValue().getOrders().size());
+    }
+
+    @Test
+    void getOrder_ShouldServeRepeatedReadsFromCacheUntilInvalidated() {
+        // Given
+        Order order = new Order("order-1", "customer-1", new BigDecimal("10.00"));
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(order));
+
+        // When
+        orderService.getOrder("order-1");
+        Optional<Order> cached = orderService.getOrder("order-1");
+        orderCache.onOrdersChanged(new OrdersChangedApplicationEvent(this, List.of("order-1")));
+        orderService.getOrder("order-1");
+
+        // Then
+        assertSame(order, cached.orElseThrow());
+        verify(orderRepository, times(2)).findById("order-1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void getOrder_ShouldNotCacheMissingOrders() {
+        // Given
+        when(orderRepository.findById("missing")).thenReturn(Optional.empty());
 
         // When
-        orderService.completeOrder(orderId);
+        orderService.getOrder("missing");
+        Optional<Order> result = orderService.getOrder("missing");
 
         // Then
-        verify(orderRepository).save(order);
-        assertEquals(Order.OrderStatus.COMPLETED, order.getStatus());
+        assertTrue(result.isEmpty());
+        verify(orderRepository, times(2)).findById("missing");
+    }
+
+    @Test
+    void getOrder_ShouldFallBackToArchiveForOrdersNotInLiveTable() {
+        // Given
+        Order archived = new Order("order-old", "customer-1", new BigDecimal("5.00"));
+        archived.setStatus(Order.OrderStatus.COMPLETED);
+        when(orderRepository.findById("order-old")).thenReturn(Optional.empty());
+        when(orderArchive.find("order-old")).thenReturn(Optional.of(archived));
+
+        // When
+        orderService.getOrder("order-old");
+        Optional<Order> result = orderService.getOrder("order-old");
+
+        // Then
+        assertSame(archived, result.orElseThrow());
+        verify(orderArchive, times(1)).find("order-old");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getOrders_ShouldFetchOnlyMissesInOneQuery() {
+        // Given - order-1 is already cached
+        Order first = new Order("order-1", "customer-1", new BigDecimal("10.00"));
+        Order second = new Order("order-2", "customer-1", new BigDecimal("20.00"));
+        when(orderRepository.findById("order-1")).thenReturn(Optional.of(first));
+        orderService.getOrder("order-1");
+        when(orderRepository.findAllById(any())).thenReturn(List.of(second));
+
+        // When
+        List<Order> result = orderService.getOrders(List.of("order-2", "order-1", "missing", "order-2"));
+
+        // Then
+        assertEquals(List.of(second, first), result);
+        ArgumentCaptor<Iterable<String>> idsCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(orderRepository).findAllById(idsCaptor.capture());
+        List<String> queried = new java.util.ArrayList<>();
+        idsCaptor.getValue().forEach(queried::add);
+        assertEquals(2, queried.size());
+        assertTrue(queried.containsAll(List.of("order-2", "missing")));
+        verify(orderArchive).findAll(List.of("missing"));
+    }
+
+    @Test
+    void listOrders_ShouldReturnNextCursorWhenMoreRowsExist() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        OrderView first = orderView("order-2", now);
+        OrderView second = orderView("order-1", now.minusSeconds(1));
+        OrderView extra = orderView("order-0", now.minusSeconds(2));
+        when(orderRepository.findFirstPageByCustomer(eq("customer-123"), any(Pageable.class)))
+            .thenReturn(List.of(first, second, extra));
+
+        // When
+        OrderPage page = orderService.listOrders(null, 2, null, "customer-123");
+
+        // Then
+        assertEquals(2, page.items().size());
+        assertNotNull(page.nextCursor());
+        OrderCursor cursor = OrderCursor.decode(page.nextCursor());
+        assertEquals("order-1", cursor.id());
+        assertEquals(now.minusSeconds(1), cursor.createdAt());
+    }
+
+    @Test
+    void listOrders_ShouldSeekPastCursorAndEndOnShortPage() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String cursor = new OrderCursor(createdAt, "order-5").encode();
+        OrderView next = orderView("order-4", createdAt);
+        when(orderRepository.findPageByStatusAfter(eq(Order.OrderStatus.PENDING), eq(createdAt), eq("order-5"), any(Pageable.class)))
+            .thenReturn(List.of(next));
+
+        // When
+        OrderPage page = orderService.listOrders(cursor, 10, Order.OrderStatus.PENDING, null);
+
+        // Then
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+        verify(orderRepository, never()).findFirstPageByStatus(any(), any());
+    }
+
+    @Test
+    void listOrders_ShouldQueryTheFilterCombinationGiven() {
+        // Given
+        when(orderRepository.findFirstPageByCustomerAndStatus(eq("customer-123"), eq(Order.OrderStatus.ERP_PROCESSING), any(Pageable.class)))
+            .thenReturn(List.of());
+
+        // When
+        OrderPage page = orderService.listOrders(null, 10, Order.OrderStatus.ERP_PROCESSING, "customer-123");
+
+        // Then
+        assertTrue(page.items().isEmpty());
+        verify(orderRepository, never()).findFirstPageByCustomer(any(), any());
+        verify(orderRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    void listOrders_ShouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+            () -> orderService.listOrders("not-a-cursor", 10, null, null));
+    }
+
+    private OrderView orderView(String id, LocalDateTime createdAt) {
+        OrderView view = mock(OrderView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        lenient().when(view.getCreatedAt()).thenReturn(createdAt);
+        return view;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.RefreshToken;
+import com.ecommerce.order.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, Duration.ofDays(30));
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheTokenHash() {
+        // Given
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        String token = refreshTokenService.issue("user");
+
+        // Then
+        ArgumentCaptor<RefreshToken> stored = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(stored.capture());
+        assertEquals(RefreshTokenService.hash(token), stored.getValue().getTokenHash());
+        assertNotEquals(token, stored.getValue().getTokenHash());
+        assertEquals("user", stored.getValue().getUsername());
+        assertTrue(stored.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusDays(29)));
+    }
+
+    @Test
+    void consume_ShouldReturnUsernameOnlyForTheCallThatDeletesTheToken() {
+        // Given
+        String hash = RefreshTokenService.hash("token");
+        when(refreshTokenRepository.findById(hash))
+            .thenReturn(Optional.of(new RefreshToken(hash, "user", LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.deleteByTokenHash(hash)).thenReturn(1, 0);
+
+        // When
+        Optional<String> first = refreshTokenService.consume("token");
+        Optional<String> replayed = refreshTokenService.consume("token");
+
+        // Then
+        assertEquals(Optional.of("user"), first);
+        assertTrue(replayed.isEmpty());
+    }
+
+    @Test
+    void consume_ShouldRejectExpiredAndUnknownTokens() {
+        // Given
+        String expiredHash = RefreshTokenService.hash("expired");
+        when(refreshTokenRepository.findById(expiredHash))
+            .thenReturn(Optional.of(new RefreshToken(expiredHash, "user", LocalDateTime.now().minusMinutes(1))));
+        when(refreshTokenRepository.deleteByTokenHash(expiredHash)).thenReturn(1);
+        when(refreshTokenRepository.findById(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        // When & Then
+        assertTrue(refreshTokenService.consume("expired").isEmpty());
+        assertTrue(refreshTokenService.consume("unknown").isEmpty());
+        assertTrue(refreshTokenService.consume(null).isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.payment.config;
+
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
+import com.ecommerce.common.concurrent.PartitionPipeline;
+import com.ecommerce.common.config.KeyOrderedKafkaConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+@Configuration
+@Import(KeyOrderedKafkaConfig.class)
+public class KafkaConsumerConfig {
+
+    static final String PAYMENT_REQUESTS_PIPELINED = "payment-requests-pipelined";
+
+    @Bean(destroyMethod = "close")
+    public KeyOrderedExecutor paymentRequestsExecutor(
+            @Value("${payment.requests.key-ordered.threads:32}") int threads,
+            @Value("${payment.requests.key-ordered.max-in-flight:1000}") int maxInFlight,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        return KeyOrderedKafkaConfig.keyOrderedExecutor("payment-requests", threads, maxInFlight, virtualThreads, meterRegistry);
+    }
+
+    /**
+     * Pipelined mode ({@code payment.requests.mode=pipelined}): runs on {@code paymentRequestsExecutor}
+     * and pauses a partition of the {@code payment-requests-pipelined} container while it has
+     * {@code max-in-flight-per-partition} payments unfinished.
+     */
+    @Bean
+    public PartitionPipeline<TopicPartition> paymentRequestsPipeline(
+            KeyOrderedExecutor paymentRequestsExecutor,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            @Value("${payment.requests.pipelined.max-in-flight-per-partition:64}") int maxInFlightPerPartition,
+            MeterRegistry meterRegistry) {
+        PartitionPipeline<TopicPartition> pipeline = new PartitionPipeline<>(paymentRequestsExecutor,
+            maxInFlightPerPartition, new PartitionPipeline.FlowControl<>() {
+                @Override
+                public void pause(TopicPartition partition) {
+                    MessageListenerContainer container = listenerRegistry.getListenerContainer(PAYMENT_REQUESTS_PIPELINED);
+                    if (container != null) {
+                        container.pausePartition(partition);
+                    }
+                }
+
+                @Override
+                public void resume(TopicPartition partition) {
+                    MessageListenerContainer container = listenerRegistry.getListenerContainer(PAYMENT_REQUESTS_PIPELINED);
+                    if (container != null) {
+                        container.resumePartition(partition);
+                    }
+                }
+            });
+        Gauge.builder("kafka.pipeline.paused_partitions", pipeline, PartitionPipeline::pausedPartitions)
+            .description("Partitions paused because they have the maximum number of unfinished records")
+            .tag("listener", "payment-requests")
+            .register(meterRegistry);
+        return pipeline;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.payment.controller;
+
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.repository.PaymentRepository;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Payment history for audits. Served from the read replica when one is configured.
+ */
+@RestController
+@RequestMapping("/payments")
+public class PaymentAuditController {
+
+    private final PaymentRepository paymentRepository;
+
+    public PaymentAuditController(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    @GetMapping(params = "orderId")
+    public ResponseEntity<List<Payment>> getByOrder(@RequestParam String orderId) {
+        return ResponseEntity.ok(paymentRepository.findByOrderIdOrderByCreatedAtDesc(orderId));
+    }
+
+    @GetMapping(params = "sagaId")
+    public ResponseEntity<List<Payment>> getBySaga(@RequestParam String sagaId) {
+        return ResponseEntity.ok(paymentRepository.findBySagaIdOrderByCreatedAtDesc(sagaId));
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.payment.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payments")
+public class Payment {
+    @Id
+    private String id;
+    
+    @Column(nullable = false)
+    private String orderId;
+    
+    @Column(nullable = false)
+    private String sagaId;
+    
+    @Column(nullable = false)
+    private BigDecimal amount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentStatus status;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public Payment() {}
+    
+    public Payment(String id, String orderId, String sagaId, BigDecimal amount, PaymentStatus status) {
+        this.id = id;
+        this.orderId = orderId;
+        this.sagaId = sagaId;
+        this.amount = amount;
+        this.status = status;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+    public String getSagaId() { return sagaId; }
+    public void setSagaId(String sagaId) { this.sagaId = sagaId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public PaymentStatus getStatus() { return status; }
+    public void setStatus(PaymentStatus status) { this.status = status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public enum PaymentStatus {
+        PROCESSED, FAILED, REFUNDED
+    }
+}
@@ -0,0 +1,342 @@
+package com.ecommerce.payment.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compact storage mode for {@link PaymentIdempotencyService} ({@code payment.idempotency.storage=compact}).
+ *
+ * <p>Instead of one string key per payment, each idempotency key is reduced to a 10-byte SHA-256
+ * digest and stored as a field of a small Redis hash {@code payment:idem:{shard}:generation}.
+ * Time is cut into generations of half the 24-hour retention. A claim writes to the current
+ * generation and looks at the last three, and each hash expires as a whole once its generation is
+ * older than that. With {@code shards} chosen so a hash stays under Redis'
+ * {@code hash-max-listpack-entries}, a key costs a few dozen bytes instead of well over a hundred.
+ * Fixed results are stored as one letter, payment results as {@code P<paymentId>} or
+ * {@code F<reason>}, and an in-progress claim as {@code I<lease deadline>:<token>}.
+ *
+ * <p>A {@link RotatingBloomFilter} over the same generations remembers the keys this instance has
+ * claimed. It is consulted before every claim, but a negative does not skip Redis: the claim
+ * already reads and writes in one round trip, and only Redis knows what other instances claimed.
+ * It measures how often the filter was wrong, as
+ * {@code payment.idempotency.filter{result=false_positive|missed}}.
+ */
+@Component
+@org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(
+    name = "payment.idempotency.storage",
+    havingValue = "compact")
+public class CompactIdempotencyStore {
+
+    private static final String BUCKET_PREFIX = "payment:idem:";
+    private static final long RETENTION_MILLIS = Duration.ofHours(24).toMillis();
+    private static final long GENERATION_MILLIS = RETENTION_MILLIS / 2;
+    private static final int GENERATIONS = 3;
+    private static final long BUCKET_TTL_SECONDS = GENERATIONS * GENERATION_MILLIS / 1000;
+    private static final int FIELD_BYTES = 10;
+    private static final RedisSerializer<Long> COUNT = new GenericToStringSerializer<>(Long.class);
+
+    /** KEYS: buckets, newest first. ARGV: field, in-progress marker, now (ms), bucket TTL (s). */
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScript.of("""
+        for i = 1, #KEYS do
+            local prior = redis.call('HGET', KEYS[i], ARGV[1])
+            if prior and (string.sub(prior, 1, 1) ~= 'I'
+                    or tonumber(string.match(prior, '^I(%d+):')) > tonumber(ARGV[3])) then
+                return prior
+            end
+        end
+        redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+        redis.call('EXPIRE', KEYS[1], ARGV[4])
+        return false
+        """, String.class);
+
+    /** KEYS: buckets, newest first. ARGV: field, now (ms). Skips claims whose lease is over. */
+    private static final RedisScript<String> LOOKUP_SCRIPT = RedisScript.of("""
+        for i = 1, #KEYS do
+            local prior = redis.call('HGET', KEYS[i], ARGV[1])
+            if prior and (string.sub(prior, 1, 1) ~= 'I'
+                    or tonumber(string.match(prior, '^I(%d+):')) > tonumber(ARGV[2])) then
+                return prior
+            end
+        end
+        return false
+        """, String.class);
+
+    /** KEYS: the current bucket. ARGV: field, value, bucket TTL (s). */
+    private static final RedisScript<Long> RECORD_SCRIPT = RedisScript.of("""
+        redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+        return redis.call('EXPIRE', KEYS[1], ARGV[3])
+        """, Long.class);
+
+    /** KEYS: buckets. ARGV: field, expected value or empty to remove unconditionally. */
+    private static final RedisScript<Long> REMOVE_SCRIPT = RedisScript.of("""
+        local removed = 0
+        for i = 1, #KEYS do
+            if ARGV[2] == '' or redis.call('HGET', KEYS[i], ARGV[1]) == ARGV[2] then
+                removed = removed + redis.call('HDEL', KEYS[i], ARGV[1])
+            end
+        end
+        return removed
+        """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long leaseMillis;
+    private final int shards;
+    private final RotatingBloomFilter filter;
+    private final Counter filterNegatives;
+    private final Counter filterTruePositives;
+    private final Counter filterFalsePositives;
+    private final Counter filterMissed;
+
+    private volatile double memoryPerKey = Double.NaN;
+
+    public CompactIdempotencyStore(RedisTemplate<String, String> redisTemplate,
+                                   @Value("${payment.idempotency.lease:60s}") Duration lease,
+                                   @Value("${payment.idempotency.compact.shards:4096}") int shards,
+                                   @Value("${payment.idempotency.filter.expected-keys-per-generation:1000000}") long expectedKeys,
+                                   @Value("${payment.idempotency.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.leaseMillis = lease.toMillis();
+        this.shards = shards;
+        this.filter = new RotatingBloomFilter(expectedKeys, falsePositiveRate, GENERATIONS);
+        this.filterNegatives = filterCounter(meterRegistry, "negative");
+        this.filterTruePositives = filterCounter(meterRegistry, "true_positive");
+        this.filterFalsePositives = filterCounter(meterRegistry, "false_positive");
+        this.filterMissed = filterCounter(meterRegistry, "missed");
+        Gauge.builder("payment.idempotency.filter.expected_false_positive_rate", this,
+                store -> store.filter.expectedFalsePositiveRate(generation(System.currentTimeMillis())))
+            .description("False-positive rate the local Bloom filter expects at its current fill")
+            .register(meterRegistry);
+        Gauge.builder("payment.idempotency.filter.size", filter, RotatingBloomFilter::sizeInBytes)
+            .description("Heap held by the local Bloom filter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("payment.idempotency.memory_per_key", this, store -> store.memoryPerKey)
+            .description("Redis memory per stored idempotency key, sampled from a few buckets every minute")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    PaymentIdempotencyService.Claim claim(String idempotencyKey) {
+        long now = System.currentTimeMillis();
+        Digest digest = Digest.of(idempotencyKey, shards);
+        String marker = marker(now);
+        boolean maybeSeen = filter.mightContain(generation(now), digest.hash1, digest.hash2);
+        String prior = redisTemplate.execute(CLAIM_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.string(),
+            buckets(digest, now), digest.field, bytes(marker), bytes(Long.toString(now)), bytes(Long.toString(BUCKET_TTL_SECONDS)));
+        return claimed(idempotencyKey, digest, marker, prior, maybeSeen, now);
+    }
+
+    List<PaymentIdempotencyService.Claim> claimAll(List<String> idempotencyKeys) {
+        long now = System.currentTimeMillis();
+        List<Digest> digests = new ArrayList<>(idempotencyKeys.size());
+        List<String> markers = new ArrayList<>(idempotencyKeys.size());
+        for (String idempotencyKey : idempotencyKeys) {
+            digests.add(Digest.of(idempotencyKey, shards));
+            markers.add(marker(now));
+        }
+        byte[] script = bytes(CLAIM_SCRIPT.getScriptAsString());
+        // EVAL rather than EVALSHA: a NOSCRIPT error cannot be retried inside a pipeline
+        List<Object> priors = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < digests.size(); i++) {
+                List<String> buckets = buckets(digests.get(i), now);
+                byte[][] keysAndArgs = new byte[GENERATIONS + 4][];
+                for (int b = 0; b < GENERATIONS; b++) {
+                    keysAndArgs[b] = bytes(buckets.get(b));
+                }
+                keysAndArgs[GENERATIONS] = digests.get(i).field;
+                keysAndArgs[GENERATIONS + 1] = bytes(markers.get(i));
+                keysAndArgs[GENERATIONS + 2] = bytes(Long.toString(now));
+                keysAndArgs[GENERATIONS + 3] = bytes(Long.toString(BUCKET_TTL_SECONDS));
+                connection.scriptingCommands().eval(script, ReturnType.VALUE, GENERATIONS, keysAndArgs);
+            }
+            return null;
+        });
+        List<PaymentIdempotencyService.Claim> claims = new ArrayList<>(idempotencyKeys.size());
+        for (int i = 0; i < idempotencyKeys.size(); i++) {
+            Digest digest = digests.get(i);
+            boolean maybeSeen = filter.mightContain(generation(now), digest.hash1, digest.hash2);
+            claims.add(claimed(idempotencyKeys.get(i), digest, markers.get(i), (String) priors.get(i), maybeSeen, now));
+        }
+        return claims;
+    }
+
+    void release(PaymentIdempotencyService.Claim claim) {
+        Digest digest = Digest.of(claim.idempotencyKey(), shards);
+        redisTemplate.execute(REMOVE_SCRIPT, RedisSerializer.byteArray(), COUNT,
+            buckets(digest, System.currentTimeMillis()), digest.field, bytes(claim.token()));
+    }
+
+    void record(String idempotencyKey, String result) {
+        long now = System.currentTimeMillis();
+        Digest digest = Digest.of(idempotencyKey, shards);
+        redisTemplate.execute(RECORD_SCRIPT, RedisSerializer.byteArray(), COUNT,
+            buckets(digest, now).subList(0, 1), digest.field, bytes(encode(result)), bytes(Long.toString(BUCKET_TTL_SECONDS)));
+        filter.put(generation(now), digest.hash1, digest.hash2);
+    }
+
+    /**
+     * @return the stored result, {@code IN_PROGRESS:...} while claimed, or null
+     */
+    String lookup(String idempotencyKey) {
+        long now = System.currentTimeMillis();
+        Digest digest = Digest.of(idempotencyKey, shards);
+        String stored = redisTemplate.execute(LOOKUP_SCRIPT, RedisSerializer.byteArray(), RedisSerializer.string(),
+            buckets(digest, now), digest.field, bytes(Long.toString(now)));
+        return decode(stored);
+    }
+
+    void remove(String idempotencyKey) {
+        Digest digest = Digest.of(idempotencyKey, shards);
+        redisTemplate.execute(REMOVE_SCRIPT, RedisSerializer.byteArray(), COUNT,
+            buckets(digest, System.currentTimeMillis()), digest.field, new byte[0]);
+    }
+
+    private PaymentIdempotencyService.Claim claimed(String idempotencyKey, Digest digest, String marker, String prior,
+                                                    boolean maybeSeen, long now) {
+        if (prior == null) {
+            (maybeSeen ? filterFalsePositives : filterNegatives).increment();
+            filter.put(generation(now), digest.hash1, digest.hash2);
+        } else {
+            // A key another instance stored is the case a trusted local filter would get wrong
+            (maybeSeen ? filterTruePositives : filterMissed).increment();
+        }
+        return new PaymentIdempotencyService.Claim(idempotencyKey, marker, decode(prior));
+    }
+
+    /**
+     * Buckets a key can be in, current generation first. The shard is a hash tag, so all of them
+     * live in the same cluster slot and one script can read them.
+     */
+    List<String> buckets(Digest digest, long nowMillis) {
+        long generation = generation(nowMillis);
+        List<String> buckets = new ArrayList<>(GENERATIONS);
+        for (int i = 0; i < GENERATIONS; i++) {
+            buckets.add(BUCKET_PREFIX + "{" + digest.shard + "}:" + (generation - i));
+        }
+        return buckets;
+    }
+
+    /**
+     * Refreshes the value the {@code memory_per_key} gauge reports, off the scrape thread. A failed
+     * sample propagates to the scheduler's error handler and the gauge keeps the last value.
+     */
+    @Scheduled(fixedDelayString = "${payment.idempotency.compact.memory-sample-interval-ms:60000}")
+    void sampleMemory() {
+        memoryPerKey = sampleMemoryPerKey(System.currentTimeMillis());
+    }
+
+    /**
+     * {@code MEMORY USAGE} over {@code HLEN} of the current and previous buckets of a few random
+     * shards; NaN while they are empty.
+     */
+    private double sampleMemoryPerKey(long now) {
+        long generation = generation(now);
+        List<byte[]> sampled = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int shard = ThreadLocalRandom.current().nextInt(shards);
+            sampled.add(bytes(BUCKET_PREFIX + "{" + shard + "}:" + generation));
+            sampled.add(bytes(BUCKET_PREFIX + "{" + shard + "}:" + (generation - 1)));
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] bucket : sampled) {
+                connection.execute("MEMORY", bytes("USAGE"), bucket);
+                connection.hashCommands().hLen(bucket);
+            }
+            return null;
+        });
+        long bytes = 0;
+        long keys = 0;
+        for (int i = 0; i < results.size(); i += 2) {
+            if (results.get(i) instanceof Long usage && results.get(i + 1) instanceof Long entries && entries > 0) {
+                bytes += usage;
+                keys += entries;
+            }
+        }
+        return keys == 0 ? Double.NaN : (double) bytes / keys;
+    }
+
+    private String marker(long now) {
+        return "I" + (now + leaseMillis) + ":" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    }
+
+    static String encode(String result) {
+        if (result.startsWith(PaymentIdempotencyService.PROCESSED_PREFIX)) {
+            return "P" + result.substring(PaymentIdempotencyService.PROCESSED_PREFIX.length());
+        }
+        if (result.startsWith(PaymentIdempotencyService.FAILED_PREFIX)) {
+            return "F" + result.substring(PaymentIdempotencyService.FAILED_PREFIX.length());
+        }
+        return switch (result) {
+            case "PROCESSED" -> "P";
+            case "COMPENSATED" -> "C";
+            default -> "R" + result;
+        };
+    }
+
+    /** Maps stored values back to what the string mode returns. */
+    static String decode(String stored) {
+        if (stored == null || stored.isEmpty()) {
+            return null;
+        }
+        return switch (stored.charAt(0)) {
+            case 'P' -> stored.length() == 1 ? "PROCESSED" : PaymentIdempotencyService.PROCESSED_PREFIX + stored.substring(1);
+            case 'F' -> PaymentIdempotencyService.FAILED_PREFIX + stored.substring(1);
+            case 'C' -> "COMPENSATED";
+            case 'I' -> "IN_PROGRESS:" + stored.substring(1);
+            default -> stored.substring(1);
+        };
+    }
+
+    private static long generation(long nowMillis) {
+        return nowMillis / GENERATION_MILLIS;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Counter filterCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payment.idempotency.filter")
+            .description("Local Bloom filter answers, by whether Redis agreed")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /** Redis field, shard and Bloom filter hashes of one idempotency key, all from one SHA-256. */
+    record Digest(byte[] field, int shard, long hash1, long hash2) {
+
+        static Digest of(String idempotencyKey, int shards) {
+            byte[] sha;
+            try {
+                sha = MessageDigest.getInstance("SHA-256").digest(bytes(idempotencyKey));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            ByteBuffer rest = ByteBuffer.wrap(sha, FIELD_BYTES, sha.length - FIELD_BYTES);
+            byte[] field = new byte[FIELD_BYTES];
+            System.arraycopy(sha, 0, field, 0, FIELD_BYTES);
+            int shard = Math.floorMod(rest.getInt(), shards);
+            return new Digest(field, shard, rest.getLong(), rest.getLong() | 1);
+        }
+    }
+}
@@ -1,24 +1,186 @@
 package com.ecommerce.payment.idempotency;
 
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing payment idempotency keys to prevent duplicate charges.
  * Stores processed payment information in Redis with TTL of 24 hours.
+ *
+ * <p>Consumers call {@link #claim} before charging. In one round trip it either marks the key as
+ * in progress under a lease ({@code payment.idempotency.lease}) or returns what is already stored,
+ * so two deliveries of the same request can no longer both pass the check. A claim is completed
+ * with {@link #recordResponse} or given up with {@link #release}; if its holder dies, it
+ * expires with the lease and the request can be claimed again. A payment that was charged but not
+ * yet persisted is completed with {@link #recordCharged}, so later deliveries skip the charge.
+ *
+ * <p>A payment's result is stored with what its response carried, {@code P:<paymentId>} or
+ * {@code F:<reason>}, so a duplicate request can be answered with {@link Claim#priorResponse}
+ * even if the first response was lost.
+ *
+ * <p>With {@code payment.idempotency.storage=compact} every operation goes to
+ * {@link CompactIdempotencyStore} instead, which keeps hashed keys in shared Redis hashes.
  */
 @Service
 public class PaymentIdempotencyService {
     
     private static final String IDEMPOTENCY_KEY_PREFIX = "payment:idempotency:";
     private static final long TTL_HOURS = 24;
+    private static final String IN_PROGRESS_PREFIX = "IN_PROGRESS:";
+    private static final String CHARGED_PREFIX = "CHARGED:";
+    static final String PROCESSED_PREFIX = "P:";
+    static final String FAILED_PREFIX = "F:";
+    
+    /** Returns the stored value, or stores ARGV[1] for ARGV[2] ms and returns nil if there is none. */
+    private static final RedisScript<String> CLAIM_SCRIPT = RedisScript.of("""
+        local prior = redis.call('GET', KEYS[1])
+        if prior then
+            return prior
+        end
+        redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+        return false
+        """, String.class);
+    
+    /** Deletes the key only while it still holds the caller's claim. */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
     
     private final RedisTemplate<String, String> redisTemplate;
+    private final long leaseMillis;
+    private final CompactIdempotencyStore compactStore;
     
-    public PaymentIdempotencyService(RedisTemplate<String, String> redisTemplate) {
+    public PaymentIdempotencyService(RedisTemplate<String, String> redisTemplate,
+                                     @Value("${payment.idempotency.lease:60s}") Duration lease,
+                                     @Autowired(required = false) CompactIdempotencyStore compactStore) {
         this.redisTemplate = redisTemplate;
+        this.leaseMillis = lease.toMillis();
+        this.compactStore = compactStore;
+    }
+    
+    /**
+     * Outcome of {@link #claim}. {@code priorResult} is null when the caller now holds the claim;
+     * otherwise it is the stored result or another consumer's in-progress marker.
+     */
+    public record Claim(String idempotencyKey, String token, String priorResult) {
+        
+        public boolean acquired() {
+            return priorResult == null;
+        }
+        
+        public boolean inProgressElsewhere() {
+            return priorResult != null && priorResult.startsWith(IN_PROGRESS_PREFIX);
+        }
+        
+        /**
+         * @return the payment ID stored by {@link #recordCharged}, or null
+         */
+        public String chargedPaymentId() {
+            return priorResult != null && priorResult.startsWith(CHARGED_PREFIX)
+                ? priorResult.substring(CHARGED_PREFIX.length())
+                : null;
+        }
+        
+        /**
+         * @return the response sent for the stored result of {@code request}, or null if there is none
+         *         or it was stored without its payment ID or reason
+         */
+        public OrderEvent priorResponse(OrderCreatedEvent request) {
+            if (priorResult == null) {
+                return null;
+            }
+            if (priorResult.startsWith(PROCESSED_PREFIX)) {
+                return new PaymentProcessedEvent(request.getOrderId(), request.getSagaId(),
+                    priorResult.substring(PROCESSED_PREFIX.length()));
+            }
+            if (priorResult.startsWith(FAILED_PREFIX)) {
+                return new PaymentFailedEvent(request.getOrderId(), request.getSagaId(),
+                    priorResult.substring(FAILED_PREFIX.length()));
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Atomically claims a payment for processing, or returns its prior result, in one round trip.
+     *
+     * @param idempotencyKey unique key for the payment request
+     * @return the claim; process the payment only if {@link Claim#acquired()}
+     */
+    public Claim claim(String idempotencyKey) {
+        if (compactStore != null) {
+            return compactStore.claim(idempotencyKey);
+        }
+        String token = newToken();
+        String prior = redisTemplate.execute(CLAIM_SCRIPT, List.of(IDEMPOTENCY_KEY_PREFIX + idempotencyKey),
+            token, String.valueOf(leaseMillis));
+        return new Claim(idempotencyKey, token, prior);
+    }
+    
+    /**
+     * Claims several payments in one pipelined round trip, for batch consumers. Each key is
+     * claimed atomically on its own, so the keys may live in different cluster slots.
+     *
+     * @param idempotencyKeys unique keys for the payment requests
+     * @return one claim per key, in the same order
+     */
+    public List<Claim> claimAll(List<String> idempotencyKeys) {
+        if (compactStore != null) {
+            return compactStore.claimAll(idempotencyKeys);
+        }
+        List<String> tokens = new ArrayList<>(idempotencyKeys.size());
+        for (int i = 0; i < idempotencyKeys.size(); i++) {
+            tokens.add(newToken());
+        }
+        byte[] script = CLAIM_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[] lease = String.valueOf(leaseMillis).getBytes(StandardCharsets.UTF_8);
+        // EVAL rather than EVALSHA: a NOSCRIPT error cannot be retried inside a pipeline
+        List<Object> priors = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < idempotencyKeys.size(); i++) {
+                connection.scriptingCommands().eval(script, ReturnType.VALUE, 1,
+                    (IDEMPOTENCY_KEY_PREFIX + idempotencyKeys.get(i)).getBytes(StandardCharsets.UTF_8),
+                    tokens.get(i).getBytes(StandardCharsets.UTF_8), lease);
+            }
+            return null;
+        });
+        List<Claim> claims = new ArrayList<>(idempotencyKeys.size());
+        for (int i = 0; i < idempotencyKeys.size(); i++) {
+            claims.add(new Claim(idempotencyKeys.get(i), tokens.get(i), (String) priors.get(i)));
+        }
+        return claims;
+    }
+    
+    /**
+     * Gives up a claim without a result, e.g. when processing failed, so a redelivery can retry.
+     * Does nothing if the lease already expired and someone else claimed the key.
+     *
+     * @param claim a claim returned as {@link Claim#acquired() acquired}
+     */
+    public void release(Claim claim) {
+        if (compactStore != null) {
+            compactStore.release(claim);
+            return;
+        }
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(IDEMPOTENCY_KEY_PREFIX + claim.idempotencyKey()), claim.token());
     }
     
     /**
@@ -28,21 +190,56 @@ public class PaymentIdempotencyService {
      * @return true if payment was already processed, false otherwise
      */
     public boolean isPaymentProcessed(String idempotencyKey) {
+        if (compactStore != null) {
+            return compactStore.lookup(idempotencyKey) != null;
+        }
         String key = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
         return Boolean.TRUE.equals(redisTemplate.hasKey(key));
     }
     
     /**
-     * Records a payment as processed in Redis with TTL.
+     * Records a payment as processed in Redis with TTL. This completes a {@link #claim}.
      *
      * @param idempotencyKey unique key for the payment request
      * @param paymentResult the result/status of the payment processing
      */
     public void recordPaymentProcessed(String idempotencyKey, String paymentResult) {
+        if (compactStore != null) {
+            compactStore.record(idempotencyKey, paymentResult);
+            return;
+        }
         String key = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
         redisTemplate.opsForValue().set(key, paymentResult, TTL_HOURS, TimeUnit.HOURS);
     }
     
+    /**
+     * Completes a {@link #claim} with the response that was sent, so a duplicate request can
+     * send it again.
+     *
+     * @param idempotencyKey unique key for the payment request
+     * @param response the {@link PaymentProcessedEvent} or {@link PaymentFailedEvent} sent for it
+     */
+    public void recordResponse(String idempotencyKey, OrderEvent response) {
+        if (response instanceof PaymentProcessedEvent processed) {
+            recordPaymentProcessed(idempotencyKey, PROCESSED_PREFIX + processed.getPaymentId());
+        } else if (response instanceof PaymentFailedEvent failed) {
+            recordPaymentProcessed(idempotencyKey, FAILED_PREFIX + failed.getReason());
+        } else {
+            throw new IllegalArgumentException("Not a payment response: " + response.getClass().getSimpleName());
+        }
+    }
+    
+    /**
+     * Completes a {@link #claim} for a payment that was charged but whose row did not commit.
+     * Later claims return it as {@link Claim#chargedPaymentId()}, so only the write is retried.
+     *
+     * @param idempotencyKey unique key for the payment request
+     * @param paymentId ID of the charge, reused when the row is written
+     */
+    public void recordCharged(String idempotencyKey, String paymentId) {
+        recordPaymentProcessed(idempotencyKey, CHARGED_PREFIX + paymentId);
+    }
+    
     /**
      * Retrieves the stored result of a previously processed payment.
      *
@@ -50,6 +247,9 @@ public class PaymentIdempotencyService {
      * @return the payment result if found, null otherwise
      */
     public String getPaymentResult(String idempotencyKey) {
+        if (compactStore != null) {
+            return compactStore.lookup(idempotencyKey);
+        }
         String key = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
         return redisTemplate.opsForValue().get(key);
     }
@@ -60,7 +260,15 @@ public class PaymentIdempotencyService {
      * @param idempotencyKey unique key to remove
      */
     public void removePaymentKey(String idempotencyKey) {
+        if (compactStore != null) {
+            compactStore.remove(idempotencyKey);
+            return;
+        }
         String key = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
         redisTemplate.delete(key);
     }
+    
+    private static String newToken() {
+        return IN_PROGRESS_PREFIX + UUID.randomUUID();
+    }
 }
@@ -0,0 +1,123 @@
+package com.ecommerce.payment.idempotency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the same generations as {@link CompactIdempotencyStore}'s buckets. Keys are
+ * added to the current generation; a lookup checks the last {@code generations}, and the oldest
+ * generation is dropped when a new one starts, so the filter never fills up.
+ * Keys are given as two independent 64-bit hashes (double hashing).
+ */
+class RotatingBloomFilter {
+
+    private final int bits;
+    private final int hashes;
+    private final Generation[] slots;
+
+    /**
+     * @param expectedPerGeneration keys added per generation at which {@code falsePositiveRate} holds
+     */
+    RotatingBloomFilter(long expectedPerGeneration, double falsePositiveRate, int generations) {
+        long optimalBits = (long) Math.ceil(-expectedPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedPerGeneration * Math.log(2)));
+        this.slots = new Generation[generations];
+    }
+
+    boolean mightContain(long generation, long hash1, long hash2) {
+        for (long g = generation; g > generation - slots.length; g--) {
+            Generation slot = slots[slot(g)];
+            if (slot != null && slot.number == g && slot.contains(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void put(long generation, long hash1, long hash2) {
+        generation(generation).add(hash1, hash2);
+    }
+
+    /**
+     * False-positive rate a lookup can expect now: the chance that all probed bits are set in at
+     * least one live generation.
+     */
+    double expectedFalsePositiveRate(long generation) {
+        double allMiss = 1;
+        for (long g = generation; g > generation - slots.length; g--) {
+            Generation slot = slots[slot(g)];
+            if (slot != null && slot.number == g) {
+                allMiss *= 1 - Math.pow((double) slot.setBits.get() / bits, hashes);
+            }
+        }
+        return 1 - allMiss;
+    }
+
+    /** Bytes held by the bit arrays. */
+    long sizeInBytes() {
+        return (long) slots.length * (bits / 64 + 1) * Long.BYTES;
+    }
+
+    private Generation generation(long number) {
+        Generation slot = slots[slot(number)];
+        if (slot != null && slot.number == number) {
+            return slot;
+        }
+        synchronized (this) {
+            slot = slots[slot(number)];
+            // Never replace a newer generation with an older one when a caller's clock lags
+            if (slot == null || slot.number < number) {
+                slot = new Generation(number);
+                slots[slot(number)] = slot;
+            }
+            return slot;
+        }
+    }
+
+    private int slot(long generation) {
+        return (int) Math.floorMod(generation, (long) slots.length);
+    }
+
+    private final class Generation {
+
+        private final long number;
+        private final AtomicLongArray words = new AtomicLongArray(bits / 64 + 1);
+        private final AtomicLong setBits = new AtomicLong();
+
+        private Generation(long number) {
+            this.number = number;
+        }
+
+        private boolean contains(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash1, hash2, i);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash1, long hash2) {
+            for (int i = 0; i < hashes; i++) {
+                int bit = index(hash1, hash2, i);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(bit >>> 6);
+                    if ((word & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(bit >>> 6, word, word | mask));
+                if ((word & mask) == 0) {
+                    setBits.incrementAndGet();
+                }
+            }
+        }
+
+        private int index(long hash1, long hash2, int i) {
+            return (int) Long.remainderUnsigned(hash1 + i * hash2, bits);
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.ecommerce.payment.listener;
 
+import com.ecommerce.common.concurrent.KeyOrderedExecutor;
+import com.ecommerce.common.concurrent.PartitionPipeline;
 import com.ecommerce.common.events.OrderCreatedEvent;
 import com.ecommerce.common.events.OrderEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.common.saga.SagaTimers;
 import com.ecommerce.payment.idempotency.PaymentIdempotencyService;
+import com.ecommerce.payment.persistence.ChargeNotPersistedException;
 import com.ecommerce.payment.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -12,27 +22,121 @@ public class PaymentEventListener {
     
     private final PaymentService paymentService;
     private final PaymentIdempotencyService idempotencyService;
+    private final KeyOrderedExecutor paymentRequestsExecutor;
+    private final PartitionPipeline<TopicPartition> paymentRequestsPipeline;
+    private final SagaTimers sagaTimers;
     
-    public PaymentEventListener(PaymentService paymentService, PaymentIdempotencyService idempotencyService) {
+    public PaymentEventListener(PaymentService paymentService, PaymentIdempotencyService idempotencyService,
+                                KeyOrderedExecutor paymentRequestsExecutor,
+                                PartitionPipeline<TopicPartition> paymentRequestsPipeline, MeterRegistry meterRegistry) {
         this.paymentService = paymentService;
         this.idempotencyService = idempotencyService;
+        this.paymentRequestsExecutor = paymentRequestsExecutor;
+        this.paymentRequestsPipeline = paymentRequestsPipeline;
+        this.sagaTimers = new SagaTimers(meterRegistry);
     }
     
-    @KafkaListener(topics = "payment-requests")
-    public void handlePaymentRequest(OrderCreatedEvent event) {
+    @KafkaListener(topics = "payment-requests",
+        autoStartup = "#{'${payment.requests.mode:single}' == 'single'}")
+    public void onPaymentRequest(ConsumerRecord<String, OrderCreatedEvent> record) {
+        sagaTimers.stageSince("payment-requests.queue", "received", SagaHeaders.sentAt(record.headers()));
+        handlePaymentRequest(record.value(), SagaHeaders.startedAt(record.headers()));
+    }
+    
+    /**
+     * @param sagaStartedAt the saga's start from the request headers, passed on to the response (0 if unknown)
+     */
+    public void handlePaymentRequest(OrderCreatedEvent event, long sagaStartedAt) {
         // Generate idempotency key from order and saga ID
         String idempotencyKey = generateIdempotencyKey(event.getOrderId(), event.getSagaId());
         
-        // Check if payment was already processed
-        if (idempotencyService.isPaymentProcessed(idempotencyKey)) {
-            String result = idempotencyService.getPaymentResult(idempotencyKey);
-            // Payment already processed, skip to avoid duplicate charge
+        // Claim the key, or get its prior result, in one atomic round trip
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim(idempotencyKey);
+        if (!claim.acquired()) {
+            if (claim.chargedPaymentId() != null) {
+                // Charged by an earlier delivery whose row did not commit: retry only the write and the response
+                idempotencyService.recordResponse(idempotencyKey,
+                    paymentService.completePayment(event, claim.chargedPaymentId(), sagaStartedAt));
+                return;
+            }
+            OrderEvent priorResponse = claim.priorResponse(event);
+            if (priorResponse != null) {
+                // Already answered; the response may have been lost, so send it again instead of charging
+                paymentService.resendResponse(priorResponse, sagaStartedAt);
+                return;
+            }
+            // In progress on another consumer: skip to avoid duplicate charge
+            if (claim.inProgressElsewhere()) {
+                System.out.println("Payment for order " + event.getOrderId() + " is already in progress, skipping");
+            }
             return;
         }
         
         // Process payment and record as processed
-        paymentService.processPayment(event);
-        idempotencyService.recordPaymentProcessed(idempotencyKey, "PROCESSED");
+        long start = System.nanoTime();
+        OrderEvent response;
+        try {
+            response = paymentService.processPayment(event, sagaStartedAt);
+        } catch (ChargeNotPersistedException e) {
+            // Keep the key: a redelivery, or saga recovery's resend, must not charge again
+            idempotencyService.recordCharged(idempotencyKey, e.getPaymentId());
+            throw e;
+        } catch (RuntimeException e) {
+            // Let a redelivery retry instead of waiting for the lease to expire
+            idempotencyService.release(claim);
+            throw e;
+        }
+        sagaTimers.stage("payment.process", response instanceof PaymentProcessedEvent ? "processed" : "failed",
+            System.nanoTime() - start);
+        idempotencyService.recordResponse(idempotencyKey, response);
+    }
+    
+    /**
+     * Key-ordered mode ({@code payment.requests.mode=key-ordered}).
+     * Payments for different orders run in parallel on a worker pool, beyond the partition count,
+     * while requests for the same order stay in order. Offsets are committed by completion.
+     */
+    @KafkaListener(id = "payment-requests-key-ordered", topics = "payment-requests",
+        containerFactory = "keyOrderedListenerContainerFactory",
+        autoStartup = "#{'${payment.requests.mode:single}' == 'key-ordered'}")
+    public void handlePaymentRequestKeyOrdered(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment ack)
+            throws InterruptedException {
+        paymentRequestsExecutor.submit(keyOf(record), paymentTask(record))
+            .whenComplete((result, ex) -> acknowledge(record, ack, ex));
+    }
+    
+    /**
+     * Pipelined mode ({@code payment.requests.mode=pipelined}).
+     * Like key-ordered mode, but the consumer thread never waits for a worker: each partition may
+     * have {@code max-in-flight-per-partition} payments unfinished and is paused while it is full.
+     * Responses are published as each payment completes; offsets are committed by completion.
+     */
+    @KafkaListener(id = "payment-requests-pipelined", topics = "payment-requests",
+        containerFactory = "keyOrderedListenerContainerFactory",
+        autoStartup = "#{'${payment.requests.mode:single}' == 'pipelined'}")
+    public void handlePaymentRequestPipelined(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment ack)
+            throws InterruptedException {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        paymentRequestsPipeline.submit(partition, keyOf(record), paymentTask(record))
+            .whenComplete((result, ex) -> acknowledge(record, ack, ex));
+    }
+    
+    private Runnable paymentTask(ConsumerRecord<String, OrderCreatedEvent> record) {
+        OrderCreatedEvent event = record.value();
+        sagaTimers.stageSince("payment-requests.queue", "received", SagaHeaders.sentAt(record.headers()));
+        long sagaStartedAt = SagaHeaders.startedAt(record.headers());
+        return () -> handlePaymentRequest(event, sagaStartedAt);
+    }
+    
+    private static String keyOf(ConsumerRecord<String, ?> record) {
+        return record.key() != null ? record.key() : record.topic() + "-" + record.partition();
+    }
+    
+    private static void acknowledge(ConsumerRecord<String, OrderCreatedEvent> record, Acknowledgment ack, Throwable ex) {
+        if (ex != null) {
+            System.err.println("Payment request failed for order " + record.value().getOrderId() + ": " + ex.getMessage());
+        }
+        ack.acknowledge();
     }
     
     @KafkaListener(topics = "payment-compensations")
@@ -40,14 +144,20 @@ public class PaymentEventListener {
         // Generate idempotency key for compensation
         String compensationKey = generateCompensationKey(event.getOrderId());
         
-        // Check if compensation was already processed
-        if (idempotencyService.isPaymentProcessed(compensationKey)) {
-            // Compensation already processed, skip to avoid double refund
+        // Claim the key, or get its prior result, in one atomic round trip
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim(compensationKey);
+        if (!claim.acquired()) {
+            // Compensation already processed or in progress, skip to avoid double refund
             return;
         }
         
         // Process compensation and record as processed
-        paymentService.compensatePayment(event);
+        try {
+            paymentService.compensatePayment(event);
+        } catch (RuntimeException e) {
+            idempotencyService.release(claim);
+            throw e;
+        }
         idempotencyService.recordPaymentProcessed(compensationKey, "COMPENSATED");
     }
     
@@ -0,0 +1,19 @@
+package com.ecommerce.payment.persistence;
+
+/**
+ * The payment was charged, but its row could not be made durable. A retry must only write the
+ * row and send the response for {@link #getPaymentId()}, never charge again.
+ */
+public class ChargeNotPersistedException extends PaymentPersistenceException {
+
+    private final String paymentId;
+
+    public ChargeNotPersistedException(String paymentId, PaymentPersistenceException cause) {
+        super("Payment " + paymentId + " was charged but not persisted", cause);
+        this.paymentId = paymentId;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+}
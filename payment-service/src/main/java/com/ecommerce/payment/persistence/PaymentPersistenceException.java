@@ -0,0 +1,11 @@
+package com.ecommerce.payment.persistence;
+
+/**
+ * A payment row could not be made durable, so its response must not be sent.
+ */
+public class PaymentPersistenceException extends RuntimeException {
+
+    public PaymentPersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ecommerce.payment.persistence;
+
+import com.ecommerce.payment.entity.Payment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for payment rows. Callers queue a row and wait in {@link #persist}. One flusher
+ * thread writes everything queued as a single JDBC batch in one transaction. While that batch
+ * commits, new rows pile up for the next one, so concurrent payments share a commit and a lone
+ * payment is never held back waiting for company. A caller returns only once its row has
+ * committed, so a response is never sent for a payment the database does not have. Rows still
+ * queued at shutdown are flushed before the bean is destroyed.
+ */
+@Component
+public class PaymentWriteBehind implements DisposableBean {
+
+    /** A repeated write updates the row but keeps its first ID, the one the response carried. */
+    private static final String UPSERT_SQL = """
+            INSERT INTO payments (id, order_id, saga_id, amount, status, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (order_id, saga_id) DO UPDATE
+            SET amount = EXCLUDED.amount, status = EXCLUDED.status, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration ackTimeout;
+    private final Thread flusher;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    private volatile boolean running = true;
+
+    public PaymentWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.persistence.batch-size:200}") int batchSize,
+                              @Value("${payment.persistence.queue-capacity:10000}") int queueCapacity,
+                              @Value("${payment.persistence.ack-timeout:5s}") Duration ackTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.ackTimeout = ackTimeout;
+        this.batchSizes = DistributionSummary.builder("payment.persistence.batch.size")
+            .description("Payment rows committed per transaction")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("payment.persistence.flush")
+            .description("Time to write and commit one batch of payment rows")
+            .register(meterRegistry);
+        Gauge.builder("payment.persistence.queued", queue, BlockingQueue::size)
+            .description("Payment rows waiting for the next group commit")
+            .register(meterRegistry);
+        this.flusher = Thread.ofPlatform().name("payment-write-behind").daemon().start(this::run);
+    }
+
+    /**
+     * Queues {@code payment} and waits until the batch holding it has committed.
+     *
+     * @throws PaymentPersistenceException if the batch failed, the wait exceeded
+     *         {@code payment.persistence.ack-timeout}, or the service is shutting down
+     */
+    public void persist(Payment payment) {
+        CompletableFuture<Void> durable = write(payment);
+        try {
+            durable.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new PaymentPersistenceException("Payment for order " + payment.getOrderId() + " was not persisted",
+                e.getCause());
+        } catch (TimeoutException e) {
+            throw new PaymentPersistenceException("Payment for order " + payment.getOrderId()
+                + " not persisted within " + ackTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentPersistenceException("Interrupted persisting payment for order " + payment.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Queues {@code payment}, blocking while the queue is full.
+     *
+     * @return a future completed once the row has committed
+     */
+    CompletableFuture<Void> write(Payment payment) {
+        Pending pending = new Pending(payment, new CompletableFuture<>());
+        if (!running) {
+            pending.durable().completeExceptionally(new IllegalStateException("Payment write-behind is stopped"));
+            return pending.durable();
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.durable().completeExceptionally(e);
+        }
+        return pending.durable();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        // After shutdown starts, keep flushing until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            Payment payment = pending.payment();
+            args.add(new Object[] {
+                payment.getId(), payment.getOrderId(), payment.getSagaId(), payment.getAmount(),
+                payment.getStatus().name(), Timestamp.valueOf(payment.getCreatedAt()), Timestamp.valueOf(payment.getUpdatedAt())
+            });
+        }
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, args));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to persist " + batch.size() + " payments: " + e.getMessage());
+            batch.forEach(pending -> pending.durable().completeExceptionally(e));
+            return;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchSizes.record(batch.size());
+        batch.forEach(pending -> pending.durable().complete(null));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        // Rows queued after the flusher's last look would otherwise wait forever
+        Pending late;
+        while ((late = queue.poll()) != null) {
+            late.durable().completeExceptionally(new IllegalStateException("Payment write-behind is stopped"));
+        }
+    }
+
+    private record Pending(Payment payment, CompletableFuture<Void> durable) {}
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.entity.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads for audits and the refund update. Payment rows themselves are written in batches by
+ * {@link com.ecommerce.payment.persistence.PaymentWriteBehind}. The lookups run in read-only
+ * transactions, which go to the replica when {@code database.replica-url} is set, so audits do
+ * not compete with the hot path for primary connections.
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, String> {
+
+    @Transactional(readOnly = true)
+    List<Payment> findByOrderIdOrderByCreatedAtDesc(String orderId);
+
+    @Transactional(readOnly = true)
+    List<Payment> findBySagaIdOrderByCreatedAtDesc(String sagaId);
+
+    @Transactional
+    @Modifying
+    @Query("update Payment p set p.status = com.ecommerce.payment.entity.Payment.PaymentStatus.REFUNDED, "
+        + "p.updatedAt = :now where p.orderId = :orderId "
+        + "and p.status = com.ecommerce.payment.entity.Payment.PaymentStatus.PROCESSED")
+    int markRefunded(@Param("orderId") String orderId, @Param("now") LocalDateTime now);
+}
@@ -1,11 +1,19 @@
 package com.ecommerce.payment.service;
 
 import com.ecommerce.common.events.*;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.persistence.ChargeNotPersistedException;
+import com.ecommerce.payment.persistence.PaymentPersistenceException;
+import com.ecommerce.payment.persistence.PaymentWriteBehind;
+import com.ecommerce.payment.repository.PaymentRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.Random;
 import java.util.UUID;
 
@@ -13,15 +21,30 @@ import java.util.UUID;
 public class PaymentService {
     
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PaymentWriteBehind paymentWriteBehind;
+    private final PaymentRepository paymentRepository;
     private final Random random = new Random();
     
-    public PaymentService(KafkaTemplate<String, Object> kafkaTemplate) {
+    public PaymentService(KafkaTemplate<String, Object> kafkaTemplate, PaymentWriteBehind paymentWriteBehind,
+                          PaymentRepository paymentRepository) {
         this.kafkaTemplate = kafkaTemplate;
+        this.paymentWriteBehind = paymentWriteBehind;
+        this.paymentRepository = paymentRepository;
     }
     
+    /**
+     * The payment row is committed before the response is sent. If the charge went through but the
+     * row did not commit, a {@link ChargeNotPersistedException} is thrown. It is neither retried
+     * here nor turned into a failure response, since retrying would charge again; the caller retries
+     * only the write with {@link #completePayment}.
+     *
+     * @param sagaStartedAt the request's {@link SagaHeaders#STARTED_AT}, copied onto the response (0 if unknown)
+     * @return the response sent: {@link PaymentProcessedEvent} if the payment went through,
+     *         {@link PaymentFailedEvent} if the fallback reported it failed
+     */
     @CircuitBreaker(name = "payment-processor", fallbackMethod = "fallbackPayment")
     @Retry(name = "payment-processor")
-    public void processPayment(OrderCreatedEvent event) {
+    public OrderEvent processPayment(OrderCreatedEvent event, long sagaStartedAt) {
         // Simulate payment processing with potential failures
         if (random.nextDouble() < 0.2) { // 20% failure rate
             throw new RuntimeException("Payment gateway timeout");
@@ -34,21 +57,65 @@ public class PaymentService {
             Thread.currentThread().interrupt();
         }
         
-        PaymentProcessedEvent response = new PaymentProcessedEvent(
-            event.getOrderId(), event.getSagaId(), UUID.randomUUID().toString()
-        );
-        kafkaTemplate.send("payment-responses", response);
+        return completePayment(event, UUID.randomUUID().toString(), sagaStartedAt);
+    }
+    
+    /**
+     * Persists a charged payment and sends its response, without charging. Repeating it is safe:
+     * the row is upserted under the same payment ID.
+     *
+     * @return the response sent
+     * @throws ChargeNotPersistedException if the row did not commit; nothing was sent
+     */
+    public PaymentProcessedEvent completePayment(OrderCreatedEvent event, String paymentId, long sagaStartedAt) {
+        try {
+            persist(event, paymentId, Payment.PaymentStatus.PROCESSED);
+        } catch (PaymentPersistenceException e) {
+            throw new ChargeNotPersistedException(paymentId, e);
+        }
+        PaymentProcessedEvent response = new PaymentProcessedEvent(event.getOrderId(), event.getSagaId(), paymentId);
+        reply(response, sagaStartedAt);
+        return response;
+    }
+    
+    /**
+     * Sends a response again for a request that was already answered, e.g. when saga recovery
+     * resends a request whose response was lost. Nothing is charged or persisted.
+     */
+    public void resendResponse(OrderEvent response, long sagaStartedAt) {
+        reply(response, sagaStartedAt);
     }
     
-    public void fallbackPayment(OrderCreatedEvent event, Exception ex) {
+    public OrderEvent fallbackPayment(OrderCreatedEvent event, long sagaStartedAt, Exception ex) {
         PaymentFailedEvent response = new PaymentFailedEvent(
             event.getOrderId(), event.getSagaId(), "Payment service unavailable: " + ex.getMessage()
         );
-        kafkaTemplate.send("payment-responses", response);
+        persist(event, UUID.randomUUID().toString(), Payment.PaymentStatus.FAILED);
+        reply(response, sagaStartedAt);
+        return response;
+    }
+    
+    /**
+     * Chosen over {@link #fallbackPayment(OrderCreatedEvent, long, Exception)} for its more specific
+     * type: the payment was charged, so it must not be reported as failed.
+     */
+    public OrderEvent fallbackPayment(OrderCreatedEvent event, long sagaStartedAt, PaymentPersistenceException ex) {
+        throw ex;
     }
     
     public void compensatePayment(OrderEvent event) {
         // Simulate payment compensation (refund)
         System.out.println("Compensating payment for order: " + event.getOrderId());
+        paymentRepository.markRefunded(event.getOrderId(), LocalDateTime.now());
+    }
+    
+    private void persist(OrderCreatedEvent event, String paymentId, Payment.PaymentStatus status) {
+        paymentWriteBehind.persist(new Payment(paymentId, event.getOrderId(), event.getSagaId(), event.getAmount(), status));
+    }
+    
+    private void reply(OrderEvent response, long sagaStartedAt) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>("payment-responses", response.getOrderId(), response);
+        SagaHeaders.stamp(record.headers(), sagaStartedAt);
+        kafkaTemplate.send(record);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+-- One row per payment request; the write-behind upserts on it, so a redelivered request
+-- updates its row instead of adding a second one. Also serves lookups by order.
+CREATE UNIQUE INDEX idx_payments_order_saga ON payments (order_id, saga_id);
+
+-- Audit lookups by saga
+CREATE INDEX idx_payments_saga_id ON payments (saga_id);
@@ -49,7 +49,7 @@ class PaymentServiceIntegrationTest {
         // When & Then - Should not throw exception
         assertDoesNotThrow(() -> {
             try {
-                paymentService.processPayment(event);
+                paymentService.processPayment(event, 0L);
             } catch (RuntimeException e) {
                 // Random failures are expected in simulation
                 assertTrue(e.getMessage().contains("Payment gateway timeout"));
@@ -66,6 +66,6 @@ class PaymentServiceIntegrationTest {
         RuntimeException exception = new RuntimeException("Test failure");
 
         // When & Then
-        assertDoesNotThrow(() -> paymentService.fallbackPayment(event, exception));
+        assertDoesNotThrow(() -> paymentService.fallbackPayment(event, 0L, exception));
     }
 }
\ No newline at end of file
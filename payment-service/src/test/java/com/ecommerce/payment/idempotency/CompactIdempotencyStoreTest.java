@@ -0,0 +1,103 @@
+package com.ecommerce.payment.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompactIdempotencyStoreTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CompactIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CompactIdempotencyStore(redisTemplate, Duration.ofSeconds(60), 1024, 10_000, 0.01, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_ShouldWriteTenByteDigestToCurrentBucketOfOneShard() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+            anyList(), any(), any(), any(), any())).thenReturn(null);
+
+        // When
+        PaymentIdempotencyService.Claim claim = store.claim("order-123:saga-456");
+
+        // Then
+        ArgumentCaptor<List<String>> buckets = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object> field = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+            buckets.capture(), field.capture(), any(), any(), any());
+        CompactIdempotencyStore.Digest digest = CompactIdempotencyStore.Digest.of("order-123:saga-456", 1024);
+        assertEquals(3, buckets.getValue().size());
+        assertTrue(buckets.getValue().get(0).startsWith("payment:idem:{" + digest.shard() + "}:"));
+        assertArrayEquals(digest.field(), (byte[]) field.getValue());
+        assertEquals(10, digest.field().length);
+        assertTrue(claim.acquired());
+        assertTrue(claim.token().startsWith("I"));
+        assertEquals(1.0, meterRegistry.get("payment.idempotency.filter").tag("result", "negative").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_ShouldDecodeStoredResultAndCountKeyMissedByLocalFilter() {
+        // Given - stored by another instance, so this instance's filter has never seen it
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+            anyList(), any(), any(), any(), any())).thenReturn("P");
+
+        // When
+        PaymentIdempotencyService.Claim claim = store.claim("order-123:saga-456");
+
+        // Then
+        assertFalse(claim.acquired());
+        assertEquals("PROCESSED", claim.priorResult());
+        assertEquals(1.0, meterRegistry.get("payment.idempotency.filter").tag("result", "missed").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_ShouldReportOtherInstancesClaimAsInProgress() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+            anyList(), any(), any(), any(), any())).thenReturn("I1700000060000:9f2c");
+
+        // When
+        PaymentIdempotencyService.Claim claim = store.claim("order-123:saga-456");
+
+        // Then
+        assertTrue(claim.inProgressElsewhere());
+    }
+
+    @Test
+    void encode_ShouldStoreKnownResultsAsOneLetterAndRoundTripOthers() {
+        assertEquals("P", CompactIdempotencyStore.encode("PROCESSED"));
+        assertEquals("C", CompactIdempotencyStore.encode("COMPENSATED"));
+        assertEquals("COMPENSATED", CompactIdempotencyStore.decode("C"));
+        assertEquals("REFUNDED", CompactIdempotencyStore.decode(CompactIdempotencyStore.encode("REFUNDED")));
+        assertEquals("Ppayment-1", CompactIdempotencyStore.encode("P:payment-1"));
+        assertEquals("P:payment-1", CompactIdempotencyStore.decode("Ppayment-1"));
+        assertEquals("F:declined", CompactIdempotencyStore.decode(CompactIdempotencyStore.encode("F:declined")));
+        assertEquals("PROCESSED", CompactIdempotencyStore.decode("P"));
+        assertNull(CompactIdempotencyStore.decode(null));
+    }
+}
@@ -1,16 +1,26 @@
 package com.ecommerce.payment.idempotency;
 
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,7 +36,7 @@ class PaymentIdempotencyServiceTest {
     
     @BeforeEach
     void setUp() {
-        idempotencyService = new PaymentIdempotencyService(redisTemplate);
+        idempotencyService = new PaymentIdempotencyService(redisTemplate, Duration.ofSeconds(60), null);
     }
     
     @Test
@@ -77,6 +87,39 @@ class PaymentIdempotencyServiceTest {
         );
     }
     
+    @Test
+    void recordResponse_ShouldStorePaymentIdOrReason() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        
+        // When
+        idempotencyService.recordResponse("order-1:saga-1", new PaymentProcessedEvent("order-1", "saga-1", "payment-1"));
+        idempotencyService.recordResponse("order-2:saga-2", new PaymentFailedEvent("order-2", "saga-2", "declined"));
+        
+        // Then
+        verify(valueOperations).set("payment:idempotency:order-1:saga-1", "P:payment-1", 24, TimeUnit.HOURS);
+        verify(valueOperations).set("payment:idempotency:order-2:saga-2", "F:declined", 24, TimeUnit.HOURS);
+    }
+    
+    @Test
+    void priorResponse_ShouldRebuildStoredResponse() {
+        // Given
+        OrderCreatedEvent request = new OrderCreatedEvent("order-1", "saga-1", "customer-1", new BigDecimal("10.00"));
+        
+        // When
+        PaymentProcessedEvent processed = assertInstanceOf(PaymentProcessedEvent.class,
+            new PaymentIdempotencyService.Claim("order-1:saga-1", "t", "P:payment-1").priorResponse(request));
+        PaymentFailedEvent failed = assertInstanceOf(PaymentFailedEvent.class,
+            new PaymentIdempotencyService.Claim("order-1:saga-1", "t", "F:declined: card").priorResponse(request));
+        
+        // Then
+        assertEquals("payment-1", processed.getPaymentId());
+        assertEquals("saga-1", processed.getSagaId());
+        assertEquals("declined: card", failed.getReason());
+        assertNull(new PaymentIdempotencyService.Claim("order-1:saga-1", "t", "IN_PROGRESS:x").priorResponse(request));
+        assertNull(new PaymentIdempotencyService.Claim("order-1:saga-1", "t", null).priorResponse(request));
+    }
+    
     @Test
     void getPaymentResult_ShouldReturnStoredResult() {
         // Given
@@ -106,5 +149,82 @@ class PaymentIdempotencyServiceTest {
         // Then
         verify(redisTemplate).delete("payment:idempotency:" + idempotencyKey);
     }
+    
+    @Test
+    void claim_ShouldAcquireKeyWithLeaseWhenNothingStored() {
+        // Given
+        String idempotencyKey = "order-123:saga-456";
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("payment:idempotency:" + idempotencyKey)),
+            any(), any())).thenReturn(null);
+        
+        // When
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim(idempotencyKey);
+        
+        // Then
+        assertTrue(claim.acquired());
+        assertFalse(claim.inProgressElsewhere());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("payment:idempotency:" + idempotencyKey)),
+            eq(claim.token()), eq("60000"));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+    
+    @Test
+    void claim_ShouldReturnPriorResultWhenAlreadyProcessed() {
+        // Given
+        String idempotencyKey = "order-123:saga-456";
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn("PROCESSED");
+        
+        // When
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim(idempotencyKey);
+        
+        // Then
+        assertFalse(claim.acquired());
+        assertFalse(claim.inProgressElsewhere());
+        assertEquals("PROCESSED", claim.priorResult());
+    }
+    
+    @Test
+    void claim_ShouldReportOtherConsumersClaimAsInProgress() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn("IN_PROGRESS:other");
+        
+        // When
+        PaymentIdempotencyService.Claim claim = idempotencyService.claim("order-123:saga-456");
+        
+        // Then
+        assertFalse(claim.acquired());
+        assertTrue(claim.inProgressElsewhere());
+    }
+    
+    @Test
+    void claimAll_ShouldClaimEveryKeyInOnePipeline() {
+        // Given
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(Arrays.asList(null, "PROCESSED"));
+        
+        // When
+        List<PaymentIdempotencyService.Claim> claims = idempotencyService.claimAll(List.of("order-1:saga-1", "order-2:saga-2"));
+        
+        // Then
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertEquals(2, claims.size());
+        assertEquals("order-1:saga-1", claims.get(0).idempotencyKey());
+        assertTrue(claims.get(0).acquired());
+        assertEquals("PROCESSED", claims.get(1).priorResult());
+        assertNotEquals(claims.get(0).token(), claims.get(1).token());
+    }
+    
+    @Test
+    void release_ShouldDeleteOnlyWithOwnToken() {
+        // Given
+        PaymentIdempotencyService.Claim claim =
+            new PaymentIdempotencyService.Claim("order-123:saga-456", "IN_PROGRESS:mine", null);
+        
+        // When
+        idempotencyService.release(claim);
+        
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("payment:idempotency:order-123:saga-456")),
+            eq("IN_PROGRESS:mine"));
+        verify(redisTemplate, never()).delete(anyString());
+    }
 }
-
@@ -0,0 +1,62 @@
+package com.ecommerce.payment.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RotatingBloomFilterTest {
+
+    private final RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01, 3);
+
+    @Test
+    void mightContain_ShouldFindEveryKeyAddedInLiveGenerations() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        long[][] keys = new long[3_000][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new long[] {random.nextLong(), random.nextLong() | 1};
+            filter.put(100 + i % 3, keys[i][0], keys[i][1]);
+        }
+
+        // When / Then
+        for (long[] key : keys) {
+            assertTrue(filter.mightContain(102, key[0], key[1]));
+        }
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositivesNearConfiguredRate() {
+        // Given
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(100, random.nextLong(), random.nextLong() | 1);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(100, random.nextLong(), random.nextLong() | 1)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(100), 0.005);
+    }
+
+    @Test
+    void mightContain_ShouldForgetGenerationsOlderThanWindow() {
+        // Given
+        filter.put(100, 1234L, 5679L);
+
+        // When
+        filter.put(103, 1L, 3L);
+
+        // Then
+        assertFalse(filter.mightContain(103, 1234L, 5679L));
+        assertEquals(0, filter.expectedFalsePositiveRate(104), 1e-9);
+    }
+}
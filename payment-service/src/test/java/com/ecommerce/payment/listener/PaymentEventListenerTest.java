@@ -0,0 +1,155 @@
+package com.ecommerce.payment.listener;
+
+import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
+import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.payment.idempotency.PaymentIdempotencyService;
+import com.ecommerce.payment.persistence.ChargeNotPersistedException;
+import com.ecommerce.payment.persistence.PaymentPersistenceException;
+import com.ecommerce.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventListenerTest {
+
+    private static final String KEY = "order-1:saga-1";
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentIdempotencyService idempotencyService;
+
+    private PaymentEventListener listener;
+
+    private final OrderCreatedEvent event =
+        new OrderCreatedEvent("order-1", "saga-1", "customer-123", new BigDecimal("99.99"));
+
+    @BeforeEach
+    void setUp() {
+        listener = new PaymentEventListener(paymentService, idempotencyService, null, null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldKeepKeyWhenChargeWasNotPersisted() {
+        // Given
+        PaymentIdempotencyService.Claim claim = new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", null);
+        when(idempotencyService.claim(KEY)).thenReturn(claim);
+        ChargeNotPersistedException failure = new ChargeNotPersistedException("payment-1",
+            new PaymentPersistenceException("Payment for order order-1 was not persisted", new RuntimeException("db down")));
+        when(paymentService.processPayment(event, 0L)).thenThrow(failure);
+
+        // When
+        assertThrows(ChargeNotPersistedException.class, () -> listener.handlePaymentRequest(event, 0L));
+
+        // Then
+        verify(idempotencyService).recordCharged(KEY, "payment-1");
+        verify(idempotencyService, never()).release(any());
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldOnlyRetryWriteForChargedPayment() {
+        // Given
+        when(idempotencyService.claim(KEY))
+            .thenReturn(new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", "CHARGED:payment-1"));
+        PaymentProcessedEvent response = new PaymentProcessedEvent("order-1", "saga-1", "payment-1");
+        when(paymentService.completePayment(event, "payment-1", 1_700_000_000_000L)).thenReturn(response);
+
+        // When
+        listener.handlePaymentRequest(event, 1_700_000_000_000L);
+
+        // Then
+        verify(paymentService, never()).processPayment(any(), anyLong());
+        verify(idempotencyService).recordResponse(KEY, response);
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldRecordResponseWithPaymentId() {
+        // Given
+        when(idempotencyService.claim(KEY)).thenReturn(new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", null));
+        PaymentProcessedEvent response = new PaymentProcessedEvent("order-1", "saga-1", "payment-1");
+        when(paymentService.processPayment(event, 0L)).thenReturn(response);
+
+        // When
+        listener.handlePaymentRequest(event, 0L);
+
+        // Then
+        verify(idempotencyService).recordResponse(KEY, response);
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldResendLostResponseInsteadOfCharging() {
+        // Given - processed earlier, but the response never reached order-service, so recovery resent the request
+        when(idempotencyService.claim(KEY))
+            .thenReturn(new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", "P:payment-1"));
+
+        // When
+        listener.handlePaymentRequest(event, 1_700_000_000_000L);
+
+        // Then
+        ArgumentCaptor<PaymentProcessedEvent> response = ArgumentCaptor.forClass(PaymentProcessedEvent.class);
+        verify(paymentService).resendResponse(response.capture(), eq(1_700_000_000_000L));
+        assertEquals("order-1", response.getValue().getOrderId());
+        assertEquals("saga-1", response.getValue().getSagaId());
+        assertEquals("payment-1", response.getValue().getPaymentId());
+        verify(paymentService, never()).processPayment(any(), anyLong());
+        verify(paymentService, never()).compensatePayment(any());
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldResendFailureForDeclinedPayment() {
+        // Given
+        when(idempotencyService.claim(KEY))
+            .thenReturn(new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", "F:Payment service unavailable"));
+
+        // When
+        listener.handlePaymentRequest(event, 0L);
+
+        // Then
+        ArgumentCaptor<PaymentFailedEvent> response = ArgumentCaptor.forClass(PaymentFailedEvent.class);
+        verify(paymentService).resendResponse(response.capture(), eq(0L));
+        assertEquals("Payment service unavailable", response.getValue().getReason());
+        verify(paymentService, never()).processPayment(any(), anyLong());
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldSkipWhileInProgressElsewhere() {
+        // Given
+        when(idempotencyService.claim(KEY))
+            .thenReturn(new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", "IN_PROGRESS:other"));
+
+        // When
+        listener.handlePaymentRequest(event, 0L);
+
+        // Then
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void handlePaymentRequest_ShouldReleaseClaimWhenNothingWasCharged() {
+        // Given
+        PaymentIdempotencyService.Claim claim = new PaymentIdempotencyService.Claim(KEY, "IN_PROGRESS:token", null);
+        when(idempotencyService.claim(KEY)).thenReturn(claim);
+        when(paymentService.processPayment(event, 0L)).thenThrow(
+            new PaymentPersistenceException("Payment for order order-1 was not persisted", new RuntimeException("db down")));
+
+        // When
+        assertThrows(PaymentPersistenceException.class, () -> listener.handlePaymentRequest(event, 0L));
+
+        // Then
+        verify(idempotencyService).release(claim);
+        verify(idempotencyService, never()).recordCharged(any(), any());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.payment.persistence;
+
+import com.ecommerce.payment.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentWriteBehindTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        writeBehind = new PaymentWriteBehind(jdbcTemplate, transactionManager, meterRegistry, 200, 1000,
+            Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_ShouldCommitRowsQueuedDuringFlushAsOneBatch() throws Exception {
+        // Given - the first flush blocks until the other rows are queued
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            batchSizes.add(args.size());
+            firstFlushStarted.countDown();
+            assertTrue(releaseFirstFlush.await(5, TimeUnit.SECONDS));
+            return new int[args.size()];
+        });
+
+        // When
+        CompletableFuture<Void> first = writeBehind.write(payment("order-0"));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Void>> rest = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            rest.add(writeBehind.write(payment("order-" + i)));
+        }
+        assertFalse(first.isDone());
+        releaseFirstFlush.countDown();
+        CompletableFuture.allOf(rest.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(first.isDone());
+        assertEquals(List.of(1, 5), batchSizes);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void persist_ShouldThrowWhenBatchFails() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When / Then
+        PaymentPersistenceException exception =
+            assertThrows(PaymentPersistenceException.class, () -> writeBehind.persist(payment("order-1")));
+        assertInstanceOf(DataAccessResourceFailureException.class, exception.getCause());
+    }
+
+    @Test
+    void destroy_ShouldFlushQueuedRowsAndRejectLaterOnes() throws Exception {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[1]);
+        CompletableFuture<Void> queued = writeBehind.write(payment("order-1"));
+
+        // When
+        writeBehind.destroy();
+
+        // Then
+        assertDoesNotThrow(() -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(writeBehind.write(payment("order-2")).isCompletedExceptionally());
+    }
+
+    private static Payment payment(String orderId) {
+        return new Payment("payment-" + orderId, orderId, "saga-1", new BigDecimal("10.00"), Payment.PaymentStatus.PROCESSED);
+    }
+}
@@ -1,11 +1,20 @@
 package com.ecommerce.payment.service;
 
 import com.ecommerce.common.events.OrderCreatedEvent;
+import com.ecommerce.common.events.PaymentFailedEvent;
 import com.ecommerce.common.events.PaymentProcessedEvent;
+import com.ecommerce.common.saga.SagaHeaders;
+import com.ecommerce.payment.entity.Payment;
+import com.ecommerce.payment.persistence.ChargeNotPersistedException;
+import com.ecommerce.payment.persistence.PaymentPersistenceException;
+import com.ecommerce.payment.persistence.PaymentWriteBehind;
+import com.ecommerce.payment.repository.PaymentRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -13,6 +22,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -22,11 +33,17 @@ class PaymentServiceTest {
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
     
+    @Mock
+    private PaymentWriteBehind paymentWriteBehind;
+    
+    @Mock
+    private PaymentRepository paymentRepository;
+    
     private PaymentService paymentService;
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentService(kafkaTemplate);
+        paymentService = new PaymentService(kafkaTemplate, paymentWriteBehind, paymentRepository);
     }
 
     @Test
@@ -39,18 +56,21 @@ class PaymentServiceTest {
         // When
         assertDoesNotThrow(() -> {
             try {
-                paymentService.processPayment(event);
+                assertInstanceOf(PaymentProcessedEvent.class, paymentService.processPayment(event, 0L));
                 // Verify success case
-                verify(kafkaTemplate, timeout(5000)).send(eq("payment-responses"), any(PaymentProcessedEvent.class));
+                verify(kafkaTemplate, timeout(5000)).send(argThat((ProducerRecord<String, Object> record) ->
+                    record.topic().equals("payment-responses") && record.key().equals("order-1")
+                        && record.value() instanceof PaymentProcessedEvent));
             } catch (RuntimeException e) {
                 // Verify fallback is called for failures
-                paymentService.fallbackPayment(event, e);
-                verify(kafkaTemplate, timeout(5000)).send(eq("payment-responses"), any());
+                assertInstanceOf(PaymentFailedEvent.class, paymentService.fallbackPayment(event, 0L, e));
+                verify(kafkaTemplate, timeout(5000)).send(any(ProducerRecord.class));
             }
         });
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void fallbackPayment_ShouldSendPaymentFailedEvent() {
         // Given
         OrderCreatedEvent event = new OrderCreatedEvent(
@@ -59,13 +79,83 @@ class PaymentServiceTest {
         RuntimeException exception = new RuntimeException("Payment gateway timeout");
 
         // When
-        paymentService.fallbackPayment(event, exception);
+        paymentService.fallbackPayment(event, 1_700_000_000_000L, exception);
 
         // Then
-        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
-        verify(kafkaTemplate).send(eq("payment-responses"), eventCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, Object>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(recordCaptor.capture());
         
-        Object sentEvent = eventCaptor.getValue();
-        assertInstanceOf(com.ecommerce.common.events.PaymentFailedEvent.class, sentEvent);
+        ProducerRecord<String, Object> sent = recordCaptor.getValue();
+        assertEquals("payment-responses", sent.topic());
+        assertEquals("order-1", sent.key());
+        assertInstanceOf(PaymentFailedEvent.class, sent.value());
+        assertEquals(1_700_000_000_000L, SagaHeaders.startedAt(sent.headers()));
+        assertTrue(SagaHeaders.sentAt(sent.headers()) > 0);
+    }
+
+    @Test
+    void fallbackPayment_ShouldPersistFailedPaymentBeforeResponse() {
+        // Given
+        OrderCreatedEvent event = new OrderCreatedEvent(
+            "order-1", "saga-1", "customer-123", new BigDecimal("99.99")
+        );
+
+        // When
+        paymentService.fallbackPayment(event, 0L, new RuntimeException("Payment gateway timeout"));
+
+        // Then
+        InOrder inOrder = inOrder(paymentWriteBehind, kafkaTemplate);
+        inOrder.verify(paymentWriteBehind).persist(argThat(payment ->
+            payment.getOrderId().equals("order-1") && payment.getSagaId().equals("saga-1")
+                && payment.getStatus() == Payment.PaymentStatus.FAILED
+                && payment.getAmount().compareTo(new BigDecimal("99.99")) == 0));
+        inOrder.verify(kafkaTemplate).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void fallbackPayment_ShouldNotReportFailureWhenPaymentWasNotPersisted() {
+        // Given
+        OrderCreatedEvent event = new OrderCreatedEvent(
+            "order-1", "saga-1", "customer-123", new BigDecimal("99.99")
+        );
+        PaymentPersistenceException exception =
+            new PaymentPersistenceException("Payment for order order-1 was not persisted", new RuntimeException("db down"));
+
+        // When / Then
+        assertThrows(PaymentPersistenceException.class, () -> paymentService.fallbackPayment(event, 0L, exception));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void completePayment_ShouldReportChargeWithItsIdWhenRowWasNotPersisted() {
+        // Given
+        OrderCreatedEvent event = new OrderCreatedEvent(
+            "order-1", "saga-1", "customer-123", new BigDecimal("99.99")
+        );
+        doThrow(new PaymentPersistenceException("Payment for order order-1 was not persisted", new RuntimeException("db down")))
+            .when(paymentWriteBehind).persist(any(Payment.class));
+
+        // When
+        ChargeNotPersistedException exception = assertThrows(ChargeNotPersistedException.class,
+            () -> paymentService.completePayment(event, "payment-1", 0L));
+
+        // Then
+        assertEquals("payment-1", exception.getPaymentId());
+        verify(paymentWriteBehind).persist(argThat(payment -> payment.getId().equals("payment-1")));
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void compensatePayment_ShouldMarkPaymentRefunded() {
+        // Given
+        OrderCreatedEvent event = new OrderCreatedEvent(
+            "order-1", "saga-1", "customer-123", new BigDecimal("99.99")
+        );
+
+        // When
+        paymentService.compensatePayment(event);
+
+        // Then
+        verify(paymentRepository).markRefunded(eq("order-1"), any());
     }
 }
\ No newline at end of file
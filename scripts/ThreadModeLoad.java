@@ -0,0 +1,85 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load driver for benchmark-threads.sh. Keeps {@code concurrency} POSTs open against the ERP
+ * service until {@code requests} have completed, and samples the server's live threads and used
+ * memory from the actuator while the load runs.
+ *
+ * <p>Usage: {@code java ThreadModeLoad.java <baseUrl> <concurrency> <requests>}
+ * Prints one line: {@code ok failed seconds throughput peakThreads peakMemoryBytes idleMemoryBytes}.
+ */
+public class ThreadModeLoad {
+
+    private static final Pattern VALUE = Pattern.compile("\"statistic\"\\s*:\\s*\"VALUE\"\\s*,\\s*\"value\"\\s*:\\s*([0-9.E+-]+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        int requests = Integer.parseInt(args[2]);
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+
+        long idleMemory = metric(client, baseUrl, "jvm.memory.used");
+        AtomicLong peakThreads = new AtomicLong();
+        AtomicLong peakMemory = new AtomicLong(idleMemory);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                peakThreads.accumulateAndGet(metric(client, baseUrl, "jvm.threads.live"), Math::max);
+                peakMemory.accumulateAndGet(metric(client, baseUrl, "jvm.memory.used"), Math::max);
+            } catch (Exception ignored) {
+                // Sampling is best effort while the server is saturated
+            }
+        }, 0, 500, TimeUnit.MILLISECONDS);
+
+        Semaphore open = new Semaphore(concurrency);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            open.acquire();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/erp/orders/bench-" + i))
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+                if (ex == null && response.statusCode() == 200) {
+                    ok.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+                open.release();
+            });
+        }
+        open.acquire(concurrency);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.shutdownNow();
+
+        System.out.printf("%d %d %.2f %.1f %d %d %d%n", ok.get(), failed.get(), seconds, ok.get() / seconds,
+            peakThreads.get(), peakMemory.get(), idleMemory);
+        System.exit(0);
+    }
+
+    private static long metric(HttpClient client, String baseUrl, String name) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = VALUE.matcher(body);
+        return matcher.find() ? (long) Double.parseDouble(matcher.group(1)) : 0;
+    }
+}
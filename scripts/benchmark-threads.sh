@@ -0,0 +1,61 @@
+#!/bin/bash
+
+# Compares platform threads with virtual threads on the ERP service.
+# Starts erp-service once per mode with a fixed processing time, drives CONCURRENCY open
+# requests until REQUESTS have completed, and reports throughput, peak live threads and
+# used memory per concurrent request.
+#
+# Usage: scripts/benchmark-threads.sh [CONCURRENCY] [REQUESTS] [PROCESSING_MS]
+# Requires Java 21 and a built jar (./gradlew :erp-service:bootJar).
+
+CONCURRENCY=${1:-2000}
+REQUESTS=${2:-20000}
+PROCESSING_MS=${3:-200}
+PORT=18082
+JAR=erp-service/build/libs/erp-service-1.0.0.jar
+HEAP=${HEAP:-512m}
+
+cd "$(dirname "$0")/.."
+
+if [ ! -f "$JAR" ]; then
+    echo "Error: $JAR not found, run ./gradlew :erp-service:bootJar first"
+    exit 1
+fi
+
+run_mode() {
+    local mode=$1
+    local virtual=false
+    [ "$mode" = "virtual" ] && virtual=true
+
+    java -Xmx$HEAP -jar "$JAR" \
+        --server.port=$PORT \
+        --spring.threads.virtual.enabled=$virtual \
+        --erp.processing.min-ms=$PROCESSING_MS \
+        --erp.processing.max-ms=$PROCESSING_MS \
+        --erp.processing.failure-rate=0 \
+        --management.tracing.enabled=false > /tmp/erp-benchmark-$mode.log 2>&1 &
+    local pid=$!
+
+    for _ in $(seq 1 60); do
+        curl -sf http://localhost:$PORT/actuator/health > /dev/null && break
+        sleep 1
+    done
+
+    # Warm-up, then the measured run
+    java scripts/ThreadModeLoad.java http://localhost:$PORT "$CONCURRENCY" "$CONCURRENCY" > /dev/null
+    read -r ok failed seconds rps threads peak idle <<< \
+        "$(java scripts/ThreadModeLoad.java http://localhost:$PORT "$CONCURRENCY" "$REQUESTS")"
+
+    kill $pid
+    wait $pid 2>/dev/null
+
+    local per_request_kb=$(( (peak - idle) / CONCURRENCY / 1024 ))
+    printf "%-9s %8s %8s %10s %12s %14s %16s\n" \
+        "$mode" "$ok" "$failed" "$rps" "$threads" "$(( peak / 1024 / 1024 ))MB" "${per_request_kb}KB"
+}
+
+echo "ERP benchmark: concurrency=$CONCURRENCY requests=$REQUESTS processing=${PROCESSING_MS}ms heap=$HEAP"
+printf "%-9s %8s %8s %10s %12s %14s %16s\n" \
+    "mode" "ok" "failed" "req/s" "peak threads" "peak memory" "memory/request"
+run_mode platform
+run_mode virtual